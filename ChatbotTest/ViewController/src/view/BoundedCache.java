@@ -0,0 +1,113 @@
+package view;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded concurrent cache for results that are pure functions of their key.
+ *
+ * Lookups and inserts are lock-free. When full, entries not hit since the last eviction sweep
+ * are dropped first (second-chance eviction), so the small set of phrasings users repeat stays
+ * cached while one-off inputs cycle out. Values are shared between callers and must be treated
+ * as read-only.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BoundedCache(String name, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Cached value, or null on a miss
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.referenced = true;
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value));
+    }
+
+    private void evict() {
+        // Drop unreferenced entries, clearing the flag on the rest; at least one entry always goes
+        int target = Math.max(1, maxEntries / 8);
+        int removed = 0;
+        for (int pass = 0; pass < 2 && removed < target; pass++) {
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (it.hasNext() && removed < target) {
+                Entry<V> entry = it.next();
+                if (entry.referenced) {
+                    entry.referenced = false;
+                } else {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        evictions.addAndGet(removed);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public String getStats() {
+        return String.format("%s cache %d/%d entries, hit rate %.1f%% (%d hits, %d misses, %d evicted)", name,
+                             size(), maxEntries, getHitRate() * 100, getHitCount(), getMissCount(),
+                             getEvictionCount());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package view;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 
 import opennlp.tools.chunker.ChunkerME;
@@ -28,100 +31,188 @@ public class ChatbotNLPService {
     private static final String MODEL_BASE_PATH =
         "C:\\JDeveloper\\mywork\\ChatbotTest\\ViewController\\public_html\\models\\";
 
-    // NLP Models
-    private TokenizerME tokenizer;
-    private SentenceDetectorME sentenceDetector;
-    private POSTaggerME posTagger;
-    private NameFinderME personNameFinder;
-    private NameFinderME organizationNameFinder;
-    private NameFinderME locationNameFinder;
-    private ChunkerME chunker;
-    private DictionaryLemmatizer lemmatizer;
-
-    // Intent keywords
-    private Map<String, Set<String>> intentKeywords;
+    // NLP Models - per-thread wrappers over shared models, null until the model is ready
+    private volatile ThreadLocal<TokenizerME> tokenizer;
+    private volatile ThreadLocal<SentenceDetectorME> sentenceDetector;
+    private volatile ThreadLocal<POSTaggerME> posTagger;
+    private volatile ThreadLocal<NameFinderME> personNameFinder;
+    private volatile ThreadLocal<NameFinderME> organizationNameFinder;
+    private volatile ThreadLocal<NameFinderME> locationNameFinder;
+    private volatile ThreadLocal<ChunkerME> chunker;
+    private volatile DictionaryLemmatizer lemmatizer;
+    private final Map<String, CompletableFuture<Void>> modelFutures = new ConcurrentHashMap<>();
+    private final Queue<ModelRegistry.Lease<?>> leases = new ConcurrentLinkedQueue<>();
+
+    // Tagger and lemmatizer results for this service's models, bounded so rare inputs cycle out
+    private static final int TAG_CACHE_SIZE = 4096;
+    private static final int LEMMA_CACHE_SIZE = 8192;
+    private final BoundedCache<String, String[]> posTagCache = new BoundedCache<>("POS tag", TAG_CACHE_SIZE);
+    private final BoundedCache<String, String> lemmaCache = new BoundedCache<>("Lemma", LEMMA_CACHE_SIZE);
+
+    // Short queries made only of keywords and identifiers skip the tokenizer and tagger
+    private final ShortQueryPath fastPath = new ShortQueryPath();
+
+    // Intent keywords - immutable and shared by all service instances
+    private static final Map<String, Set<String>> INTENT_KEYWORDS = createIntentKeywords();
+    // Intent ids follow INTENT_KEYWORDS order, which also breaks ties between equal scores
+    private static final String[] INTENT_NAMES = INTENT_KEYWORDS.keySet().toArray(new String[0]);
+    // Keyword vocabulary interned to ids; INTENT_MASKS[id] has bit i set when the word belongs to intent i
+    private static final Map<String, Integer> VOCABULARY = createVocabulary();
+    private static final long[] INTENT_MASKS = createIntentMasks();
+    // Every intent's keywords, lowercased, a word listed under two intents twice; the confidence
+    // boost is the share of them found in the query
+    private static final String[] ALL_KEYWORDS = createAllKeywords();
+    // Tags the POS tagger gives the inflected keywords, so the fast path lemmatizes them as the
+    // model path does; other keywords tag as NN
+    private static final Map<String, String> KEYWORD_TAGS = createKeywordTags();
+
     private Map<String, String> commonTypos;
 
     public ChatbotNLPService() {
         initializeModels();
-        initializeIntentKeywords();
         initializeTypoCorrections();
     }
 
     private void initializeModels() {
-        Map<String, String> modelFiles = new HashMap<>();
-        modelFiles.put("tokenizer", "en-token.bin");
-        modelFiles.put("pos", "en-pos-maxent.bin");
-        modelFiles.put("sentence", "en-sent.bin");
-        modelFiles.put("person", "en-ner-person.bin");
-        modelFiles.put("organization", "en-ner-organization.bin");
-        modelFiles.put("location", "en-ner-location.bin");
-        modelFiles.put("chunker", "en-chunker.bin");
-        modelFiles.put("lemmatizer", "en-lemmatizer.txt");
-
-        try {
-            // Load tokenizer
-            TokenizerModel tokenizerModel = new TokenizerModel(getModelInputStream(modelFiles.get("tokenizer")));
-            tokenizer = new TokenizerME(tokenizerModel);
-
-            // Load sentence detector
-            SentenceModel sentenceModel = new SentenceModel(getModelInputStream(modelFiles.get("sentence")));
-            sentenceDetector = new SentenceDetectorME(sentenceModel);
+        // Models come from the JVM-wide registry and load in parallel; each service builds its own
+        // per-thread wrappers. Until a model is ready the matching step falls back to simple rules
+        track("tokenizer", ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-token.bin", TokenizerModel::new)
+                                        .thenAccept(lease -> tokenizer = keep(lease).perThread(TokenizerME::new)));
+        track("sentence", ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-sent.bin", SentenceModel::new)
+                                       .thenAccept(lease -> sentenceDetector =
+                                                   keep(lease).perThread(SentenceDetectorME::new)));
+        track("pos", ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-pos-maxent.bin", POSModel::new)
+                                  .thenAccept(lease -> posTagger = keep(lease).perThread(POSTaggerME::new)));
+        track("person",
+              ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-ner-person.bin", TokenNameFinderModel::new)
+                           .thenAccept(lease -> personNameFinder = keep(lease).perThread(NameFinderME::new)));
+        track("organization",
+              ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-ner-organization.bin", TokenNameFinderModel::new)
+                           .thenAccept(lease -> organizationNameFinder = keep(lease).perThread(NameFinderME::new)));
+        track("location",
+              ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-ner-location.bin", TokenNameFinderModel::new)
+                           .thenAccept(lease -> locationNameFinder = keep(lease).perThread(NameFinderME::new)));
+        track("chunker", ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-chunker.bin", ChunkerModel::new)
+                                      .thenAccept(lease -> chunker = keep(lease).perThread(ChunkerME::new)));
+        // The dictionary lemmatizer is read-only after loading, so it is shared as is
+        track("lemmatizer",
+              ModelRegistry.acquireAsync(MODEL_BASE_PATH + "en-lemmatizer.txt", DictionaryLemmatizer::new)
+                           .thenAccept(lease -> lemmatizer = keep(lease).get()));
+    }
 
-            // Load POS tagger
-            POSModel posModel = new POSModel(getModelInputStream(modelFiles.get("pos")));
-            posTagger = new POSTaggerME(posModel);
+    private void track(String name, CompletableFuture<Void> future) {
+        modelFutures.put(name, future.exceptionally(error -> ModelLoader.logFailure(name, error)));
+    }
 
-            // Load NER models
-            TokenNameFinderModel personModel = new TokenNameFinderModel(getModelInputStream(modelFiles.get("person")));
-            personNameFinder = new NameFinderME(personModel);
+    private <T> ModelRegistry.Lease<T> keep(ModelRegistry.Lease<T> lease) {
+        leases.add(lease);
+        return lease;
+    }
 
-            TokenNameFinderModel orgModel =
-                new TokenNameFinderModel(getModelInputStream(modelFiles.get("organization")));
-            organizationNameFinder = new NameFinderME(orgModel);
+    /**
+     * Release this service's references to the shared models
+     */
+    public void close() {
+        for (ModelRegistry.Lease<?> lease : leases) {
+            lease.close();
+        }
+        leases.clear();
+    }
 
-            TokenNameFinderModel locModel = new TokenNameFinderModel(getModelInputStream(modelFiles.get("location")));
-            locationNameFinder = new NameFinderME(locModel);
+    /**
+     * Future that completes once the named model has loaded (or failed to load)
+     */
+    public CompletableFuture<Void> getModelFuture(String name) {
+        return modelFutures.get(name);
+    }
 
-            // Load chunker
-            ChunkerModel chunkerModel = new ChunkerModel(getModelInputStream(modelFiles.get("chunker")));
-            chunker = new ChunkerME(chunkerModel);
+    /**
+     * Non-blocking check that every model finished loading successfully
+     */
+    public boolean areModelsReady() {
+        return tokenizer != null && sentenceDetector != null && posTagger != null && personNameFinder != null &&
+               organizationNameFinder != null && locationNameFinder != null && chunker != null && lemmatizer != null;
+    }
 
-            // Load lemmatizer
-            lemmatizer = new DictionaryLemmatizer(getModelInputStream(modelFiles.get("lemmatizer")));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load NLP models", e);
-        }
+    /**
+     * Future that completes once every model has finished loading
+     */
+    public CompletableFuture<Void> whenModelsLoaded() {
+        return CompletableFuture.allOf(modelFutures.values().toArray(new CompletableFuture<?>[0]));
     }
 
-    private void initializeIntentKeywords() {
-        intentKeywords = new HashMap<>();
+    private static Map<String, Set<String>> createIntentKeywords() {
+        Map<String, Set<String>> intentKeywords = new HashMap<>();
 
         // Contract keywords
-        intentKeywords.put("CONTRACT_INFO",
-                           new HashSet<>(Arrays.asList("show", "contract", "details", "info", "find", "get",
-                                                       "display")));
+        intentKeywords.put("CONTRACT_INFO", keywords("show", "contract", "details", "info", "find", "get", "display"));
 
         // Parts keywords
         intentKeywords.put("PARTS_INFO",
-                           new HashSet<>(Arrays.asList("parts", "part", "specifications", "spec", "datasheet",
-                                                       "compatible", "stock", "lead", "time", "manufacturer", "issues",
-                                                       "defects", "warranty", "active", "discontinued")));
+                           keywords("parts", "part", "specifications", "spec", "datasheet", "compatible", "stock",
+                                    "lead", "time", "manufacturer", "issues", "defects", "warranty", "active",
+                                    "discontinued"));
 
         // Status keywords
-        intentKeywords.put("STATUS_CHECK",
-                           new HashSet<>(Arrays.asList("status", "expired", "active", "check", "state")));
+        intentKeywords.put("STATUS_CHECK", keywords("status", "expired", "active", "check", "state"));
 
         // Customer keywords
-        intentKeywords.put("CUSTOMER_INFO",
-                           new HashSet<>(Arrays.asList("customer", "account", "boeing", "honeywell", "client")));
+        intentKeywords.put("CUSTOMER_INFO", keywords("customer", "account", "boeing", "honeywell", "client"));
 
         // Help keywords
-        intentKeywords.put("HELP_CREATE", new HashSet<>(Arrays.asList("create", "help", "how", "new", "make", "want")));
+        intentKeywords.put("HELP_CREATE", keywords("create", "help", "how", "new", "make", "want"));
 
         // Failed parts keywords
-        intentKeywords.put("FAILED_PARTS",
-                           new HashSet<>(Arrays.asList("failed", "failure", "error", "defective", "broken")));
+        intentKeywords.put("FAILED_PARTS", keywords("failed", "failure", "error", "defective", "broken"));
+        return Collections.unmodifiableMap(intentKeywords);
+    }
+
+    private static Set<String> keywords(String... words) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(words)));
+    }
+
+    private static Map<String, Integer> createVocabulary() {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        for (Set<String> intentWords : INTENT_KEYWORDS.values()) {
+            for (String keyword : intentWords) {
+                vocabulary.putIfAbsent(keyword.toLowerCase(), vocabulary.size());
+            }
+        }
+        return Collections.unmodifiableMap(vocabulary);
+    }
+
+    private static long[] createIntentMasks() {
+        if (INTENT_NAMES.length > Long.SIZE) {
+            throw new IllegalStateException("At most " + Long.SIZE + " intents fit in a mask");
+        }
+        long[] intentMasks = new long[VOCABULARY.size()];
+        for (int intent = 0; intent < INTENT_NAMES.length; intent++) {
+            for (String keyword : INTENT_KEYWORDS.get(INTENT_NAMES[intent])) {
+                intentMasks[VOCABULARY.get(keyword.toLowerCase())] |= 1L << intent;
+            }
+        }
+        return intentMasks;
+    }
+
+    private static Map<String, String> createKeywordTags() {
+        Map<String, String> tags = new HashMap<>();
+        for (String plural : new String[] { "parts", "specifications", "issues", "defects", "details" }) {
+            tags.put(plural, "NNS");
+        }
+        for (String participle : new String[] { "expired", "failed", "discontinued", "broken" }) {
+            tags.put(participle, "VBN");
+        }
+        return Collections.unmodifiableMap(tags);
+    }
+
+    private static String[] createAllKeywords() {
+        List<String> keywords = new ArrayList<>();
+        for (Set<String> intentWords : INTENT_KEYWORDS.values()) {
+            for (String keyword : intentWords) {
+                keywords.add(keyword.toLowerCase());
+            }
+        }
+        return keywords.toArray(new String[0]);
     }
 
     private void initializeTypoCorrections() {
@@ -155,21 +246,41 @@ public class ChatbotNLPService {
         String correctedInput = enhancedSpellCheck(userInput.toLowerCase());
         query.setCorrectedQuery(correctedInput);
 
-        // Step 2: Sentence detection for multi-sentence queries
-        String[] sentences = sentenceDetector.sentDetect(correctedInput);
-        String primarySentence = sentences.length > 0 ? sentences[0] : correctedInput;
-
-        // Step 3: Tokenize and analyze
-        String[] tokens = tokenizer.tokenize(primarySentence);
-        String[] posTags = posTagger.tag(tokens);
-
-        // Step 4: Try lemmatization, fallback to simple version if it fails
-        String[] lemmatizedTokens;
-        try {
-            lemmatizedTokens = lemmatizeTokens(tokens, posTags);
-        } catch (Exception e) {
-            System.err.println("Lemmatization failed, using simple version: " + e.getMessage());
-            lemmatizedTokens = simpleLemmatizeTokens(tokens, posTags);
+        String[] tokens = null;
+        String[] posTags = null;
+        String[] lemmatizedTokens = null;
+        TokenView shortQuery = fastPath.tokens(correctedInput);
+        if (shortQuery != null) {
+            // Fast path: whitespace tokens with keyword tags, lemmatized like the model path's
+            tokens = shortQuery.toArray();
+            posTags = tagShortQuery(tokens);
+            lemmatizedTokens = lemmatize(tokens, posTags);
+            if (!resolvesByKeywords(shortQuery, lemmatizedTokens)) {
+                tokens = null;
+            }
+        }
+        if (tokens != null) {
+            fastPath.recordFastPath();
+        } else {
+            fastPath.recordModelPath(shortQuery != null);
+
+            // Step 2: Sentence detection for multi-sentence queries; without terminal punctuation
+            // the whole input is one sentence
+            ThreadLocal<SentenceDetectorME> detector = sentenceDetector;
+            String[] sentences =
+                detector != null && hasSentenceTerminal(correctedInput) ? detector.get().sentDetect(correctedInput) :
+                new String[0];
+            String primarySentence = sentences.length > 0 ? sentences[0] : correctedInput;
+
+            // Step 3: Tokenize and analyze (whitespace tokens and NN tags while models load)
+            ThreadLocal<TokenizerME> tokenizerModel = tokenizer;
+            tokens =
+                tokenizerModel != null ? tokenizerModel.get().tokenize(primarySentence) :
+                primarySentence.trim().split("\\s+");
+            posTags = tagTokens(tokens);
+
+            // Step 4: Lemmatize
+            lemmatizedTokens = lemmatize(tokens, posTags);
         }
 
         // Step 5: Extract entities
@@ -211,19 +322,15 @@ public class ChatbotNLPService {
         // Boost confidence based on keyword matches
         String tokenString = String.join(" ", tokens).toLowerCase();
         int keywordMatches = 0;
-        int totalKeywords = 0;
         
-        for (Set<String> keywords : intentKeywords.values()) {
-            totalKeywords += keywords.size();
-            for (String keyword : keywords) {
-                if (tokenString.contains(keyword.toLowerCase())) {
-                    keywordMatches++;
-                }
+        for (String keyword : ALL_KEYWORDS) {
+            if (tokenString.contains(keyword)) {
+                keywordMatches++;
             }
         }
         
-        if (totalKeywords > 0) {
-            double keywordScore = (double) keywordMatches / totalKeywords;
+        if (ALL_KEYWORDS.length > 0) {
+            double keywordScore = (double) keywordMatches / ALL_KEYWORDS.length;
             confidence += keywordScore * 0.3; // Up to 30% boost from keyword matches
         }
         
@@ -243,24 +350,140 @@ public class ChatbotNLPService {
     }
 
     
+    /**
+     * True when the keyword tier settles a short query on its own: every lemma is an intent keyword
+     * or the token a number/identifier, and one intent scores strictly highest. Any other word, for
+     * example a possible name, leaves the query to the models.
+     */
+    private static boolean resolvesByKeywords(TokenView tokens, String[] lemmatizedTokens) {
+        int[] scores = new int[INTENT_NAMES.length];
+        for (int i = 0; i < tokens.size(); i++) {
+            Integer id = VOCABULARY.get(lemmatizedTokens[i].toLowerCase());
+            if (id != null) {
+                for (long mask = INTENT_MASKS[id]; mask != 0; mask &= mask - 1) {
+                    scores[Long.numberOfTrailingZeros(mask)]++;
+                }
+            } else if (!tokens.isNumeric(i) && !tokens.isIdentifier(i)) {
+                return false;
+            }
+        }
+
+        int best = 0;
+        int runnerUp = 0;
+        for (int score : scores) {
+            if (score > best) {
+                runnerUp = best;
+                best = score;
+            } else if (score > runnerUp) {
+                runnerUp = score;
+            }
+        }
+        return best > 0 && best > runnerUp;
+    }
+
+    /**
+     * Shape tags, with the inflected keywords tagged as the POS tagger would
+     */
+    private static String[] tagShortQuery(String[] tokens) {
+        String[] posTags = ShortQueryPath.tagByShape(tokens);
+        for (int i = 0; i < tokens.length; i++) {
+            String tag = KEYWORD_TAGS.get(tokens[i]);
+            if (tag != null) {
+                posTags[i] = tag;
+            }
+        }
+        return posTags;
+    }
+
+    /**
+     * Longest query, in whitespace tokens, eligible for the fast path; 0 turns it off
+     */
+    public void setFastPathMaxTokens(int maxTokens) {
+        fastPath.setMaxTokens(maxTokens);
+    }
+
+    public int getFastPathMaxTokens() {
+        return fastPath.getMaxTokens();
+    }
+
+    public String getPathStats() {
+        return fastPath.getStats();
+    }
+
+    private static boolean hasSentenceTerminal(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == '!' || c == '?') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * POS tags for the tokens, from the cache when the same token sequence was tagged before.
+     * The array may be shared with other requests, so treat it as read-only.
+     */
+    private String[] tagTokens(String[] tokens) {
+        ThreadLocal<POSTaggerME> tagger = posTagger;
+        if (tagger == null) {
+            // NN tags while the model loads; not cached so the real tags take over once it is ready
+            String[] posTags = new String[tokens.length];
+            Arrays.fill(posTags, "NN");
+            return posTags;
+        }
+
+        // Tokenizer output never contains whitespace, so a space-joined key is unambiguous
+        String key = String.join(" ", tokens);
+        String[] posTags = posTagCache.get(key);
+        if (posTags == null) {
+            posTags = tagger.get().tag(tokens);
+            posTagCache.put(key, posTags);
+        }
+        return posTags;
+    }
+
+    /**
+     * Lemmas from the dictionary lemmatizer, or from the simple rules while it loads or if it fails
+     */
+    private String[] lemmatize(String[] tokens, String[] posTags) {
+        try {
+            return lemmatizer != null ? lemmatizeTokens(tokens, posTags) : simpleLemmatizeTokens(tokens, posTags);
+        } catch (Exception e) {
+            System.err.println("Lemmatization failed, using simple version: " + e.getMessage());
+            return simpleLemmatizeTokens(tokens, posTags);
+        }
+    }
+
     private String[] lemmatizeTokens(String[] tokens, String[] posTags) {
         String[] lemmatizedTokens = new String[tokens.length];
 
         for (int i = 0; i < tokens.length; i++) {
-            try {
-                // Use the correct public method - lemmatize takes an array
-                String[] lemmas = lemmatizer.lemmatize(new String[]{tokens[i]}, new String[]{posTags[i]});
-                lemmatizedTokens[i] = (lemmas != null && lemmas.length > 0 && !lemmas[0].equals("O"))
-                                      ? lemmas[0] : tokens[i];
-            } catch (Exception e) {
-                // Fallback to original token if lemmatization fails
-                lemmatizedTokens[i] = tokens[i];
+            String key = tokens[i] + '\t' + posTags[i];
+            String lemma = lemmaCache.get(key);
+            if (lemma == null) {
+                try {
+                    // Use the correct public method - lemmatize takes an array
+                    String[] lemmas = lemmatizer.lemmatize(new String[]{tokens[i]}, new String[]{posTags[i]});
+                    lemma = (lemmas != null && lemmas.length > 0 && !lemmas[0].equals("O"))
+                            ? lemmas[0] : tokens[i];
+                } catch (Exception e) {
+                    // Fallback to original token if lemmatization fails; cached too, so a failing
+                    // pair does not throw again on every message
+                    lemma = tokens[i];
+                }
+                lemmaCache.put(key, lemma);
             }
+            lemmatizedTokens[i] = lemma;
         }
 
         return lemmatizedTokens;
     }
 
+    public String getCacheStats() {
+        return posTagCache.getStats() + "\n" + lemmaCache.getStats();
+    }
+
     private String[] simpleLemmatizeTokens(String[] tokens, String[] posTags) {
         String[] lemmatizedTokens = new String[tokens.length];
 
@@ -301,40 +524,39 @@ public class ChatbotNLPService {
         
     }
     private void determineIntentWithLemmas(ParsedQuery query, String[] lemmatizedTokens, String[] posTags) {
-        Map<String, Integer> intentScores = new HashMap<>();
-        
-        // Initialize all intent scores to 0
-        for (String intent : intentKeywords.keySet()) {
-            intentScores.put(intent, 0);
-        }
-        
-        // Score each intent based on lemmatized tokens
-        for (String token : lemmatizedTokens) {
-            String lowerToken = token.toLowerCase();
-            
-            for (Map.Entry<String, Set<String>> entry : intentKeywords.entrySet()) {
-                String intent = entry.getKey();
-                Set<String> keywords = entry.getValue();
-                
-                if (keywords.contains(lowerToken)) {
-                    intentScores.put(intent, intentScores.get(intent) + 1);
-                }
+        // Each keyword token scores one point for every intent its mask names
+        int[] scores = new int[INTENT_NAMES.length];
+        StringBuilder tokenString = new StringBuilder();
+
+        for (int i = 0; i < lemmatizedTokens.length; i++) {
+            String lowerToken = lemmatizedTokens[i].toLowerCase();
+            if (i > 0) {
+                tokenString.append(' ');
+            }
+            tokenString.append(lowerToken);
+
+            Integer id = VOCABULARY.get(lowerToken);
+            if (id == null) {
+                continue;
+            }
+            for (long mask = INTENT_MASKS[id]; mask != 0; mask &= mask - 1) {
+                scores[Long.numberOfTrailingZeros(mask)]++;
             }
         }
-        
+
         // Find the intent with the highest score
         String bestIntent = "UNKNOWN";
         int maxScore = 0;
-        
-        for (Map.Entry<String, Integer> entry : intentScores.entrySet()) {
-            if (entry.getValue() > maxScore) {
-                maxScore = entry.getValue();
-                bestIntent = entry.getKey();
+
+        for (int intent = 0; intent < INTENT_NAMES.length; intent++) {
+            if (scores[intent] > maxScore) {
+                maxScore = scores[intent];
+                bestIntent = INTENT_NAMES[intent];
             }
         }
-        
+
         // Set the query type and action based on the determined intent
-        setQueryTypeAndAction(query, bestIntent, lemmatizedTokens);
+        setQueryTypeAndAction(query, bestIntent, tokenString.toString());
     }
     private void extractEntities(ParsedQuery query, String[] tokens, String input) {
         String upperInput = input.toUpperCase();
@@ -344,9 +566,11 @@ public class ChatbotNLPService {
         extractNumbersWithContext(query, tokens, upperInput, lowerInput);
 
         // Don't extract person names for status queries
-        if (!lowerInput.contains("expired contracts") && !lowerInput.contains("active contracts")) {
+        ThreadLocal<NameFinderME> personFinder = personNameFinder;
+        if (personFinder != null && !lowerInput.contains("expired contracts") &&
+            !lowerInput.contains("active contracts")) {
             // Extract person names
-            Span[] personSpans = personNameFinder.find(tokens);
+            Span[] personSpans = personFinder.get().find(tokens);
             if (personSpans.length > 0) {
                 StringBuilder personName = new StringBuilder();
                 for (int i = personSpans[0].getStart(); i < personSpans[0].getEnd(); i++) {
@@ -364,7 +588,8 @@ public class ChatbotNLPService {
         }
 
         // Enhanced organization extraction
-        Span[] orgSpans = organizationNameFinder.find(tokens);
+        ThreadLocal<NameFinderME> organizationFinder = organizationNameFinder;
+        Span[] orgSpans = organizationFinder != null ? organizationFinder.get().find(tokens) : new Span[0];
         if (orgSpans.length > 0) {
             StringBuilder orgName = new StringBuilder();
             for (int i = orgSpans[0].getStart(); i < orgSpans[0].getEnd(); i++) {
@@ -499,8 +724,10 @@ public class ChatbotNLPService {
         return false;
     }
 
-    private void setQueryTypeAndAction(ParsedQuery query, String intent, String[] tokens) {
-        String tokenString = String.join(" ", tokens).toLowerCase();
+    /**
+     * @param tokenString the lowercased lemmatized tokens joined by single spaces
+     */
+    private void setQueryTypeAndAction(ParsedQuery query, String intent, String tokenString) {
 
         // Check for contract status queries first
         if ((tokenString.equals("active contracts") || tokenString.equals("expired contracts")) ||
@@ -753,38 +980,6 @@ public class ChatbotNLPService {
     private String getPartIssues(String string) {
         return null;
     }
-    private InputStream getModelInputStream(String fileName) {
-            if (fileName != null) {
-                try {
-                    String fullPath = MODEL_BASE_PATH + fileName;
-                    File modelFile = new File(fullPath);
-                    System.out.println("=== Diagnosing: " + fileName + " ===");
-                    System.out.println("Exists: " + modelFile.exists());
-                    System.out.println("Size: " + modelFile.length() + " bytes");
-                    System.out.println("Readable: " + modelFile.canRead());
-
-                    // Verify file before opening
-                    if (!modelFile.exists()) {
-                        System.err.println("File does not exist: " + fullPath);
-                        return null;
-                    }
-                    if (!modelFile.canRead()) {
-                        System.err.println("Cannot read file: " + fullPath);
-                        return null;
-                    }
-                    if (modelFile.length() == 0) {
-                        System.err.println("File is empty: " + fullPath);
-                        return null;
-                    }
-
-                    return new FileInputStream(modelFile);
-                } catch (Exception e) {
-                    System.err.println("Error opening file " + fileName + ": " + e.getMessage());
-                    return null;
-                }
-            }
-            return null;
-        }
     private boolean isCommonWord(String word) {
             // List of common words that should not be considered as user names
             String[] commonWords = {
@@ -0,0 +1,122 @@
+package view;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads NLP model files in the background.
+ *
+ * Each call returns a future for its model right away, and all pending models are read in
+ * parallel on a shared daemon executor. Callers check isDone() (or attach a callback) instead
+ * of blocking, and keep their rule-based behaviour until the model they need is ready. Load
+ * times are kept per file for getLoadStats() rather than printed.
+ */
+public final class ModelLoader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR =
+        Executors.newFixedThreadPool(Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())), r -> {
+            Thread thread = new Thread(r, "model-loader-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // Milliseconds the last load of each file took, by file name
+    private static final Map<String, Long> LOAD_MILLIS = new ConcurrentHashMap<>();
+
+    /**
+     * Builds a model from an open stream (typically a model constructor reference)
+     */
+    @FunctionalInterface
+    public interface ModelReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    private ModelLoader() {
+    }
+
+    /**
+     * Start loading a model file; the future fails if the file is missing, empty or unreadable
+     */
+    public static <T> CompletableFuture<T> loadAsync(String path, ModelReader<T> reader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(path, reader);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Load a model file on the calling thread
+     */
+    public static <T> T load(String path, ModelReader<T> reader) throws IOException {
+        Path file = Paths.get(path);
+        if (!Files.isReadable(file)) {
+            throw new IOException("Model file missing or unreadable: " + path);
+        }
+        if (Files.size(file) == 0) {
+            throw new IOException("Model file is empty: " + path);
+        }
+
+        long start = System.currentTimeMillis();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            T model = reader.read(in);
+            LOAD_MILLIS.put(file.getFileName().toString(), System.currentTimeMillis() - start);
+            return model;
+        }
+    }
+
+    /**
+     * Milliseconds the last load of a model file took, or -1 if it has not been loaded
+     */
+    public static long getLoadMillis(String path) {
+        Long millis = LOAD_MILLIS.get(Paths.get(path).getFileName().toString());
+        return millis != null ? millis : -1L;
+    }
+
+    /**
+     * Last load time of every model file loaded so far, one line per file
+     */
+    public static String getLoadStats() {
+        StringBuilder stats = new StringBuilder();
+        for (Map.Entry<String, Long> entry : new TreeMap<>(LOAD_MILLIS).entrySet()) {
+            stats.append(entry.getKey()).append(": ").append(entry.getValue()).append(" ms\n");
+        }
+        return stats.toString();
+    }
+
+    /**
+     * Log a failed load; the owner keeps its fallback behaviour for that model
+     */
+    public static Void logFailure(String name, Throwable error) {
+        System.err.println("Failed to load " + name + " model: " + failureMessage(error));
+        return null;
+    }
+
+    /**
+     * Message of a failed load, unwrapped from the future's CompletionException
+     */
+    public static String failureMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,241 @@
+package view;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Process-wide registry of loaded NLP models.
+ *
+ * Each model file is read once and shared by every component that asks for it, however many
+ * sessions are open. Entries are keyed by the file's path, size and modification time, so an
+ * unchanged file is never read twice while a replaced file gets a fresh entry; the CRC32 of the
+ * bytes read is kept with the entry. Callers hold a Lease and close it when done - the model is
+ * dropped when the last lease is closed.
+ *
+ * OpenNLP models are immutable and safe to share; the *ME wrappers around them are not, so each
+ * component builds its own wrapper from the lease, per instance or per thread (see perThread).
+ * One path is expected to always be read with the same model type.
+ */
+public final class ModelRegistry {
+
+    private static final Map<String, Entry<?>> ENTRIES = new ConcurrentHashMap<>();
+
+    private ModelRegistry() {
+    }
+
+    /**
+     * Lease a model, loading it in the background unless it is already loaded or loading
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<Lease<T>> acquireAsync(String path, ModelLoader.ModelReader<T> reader) {
+        String key = fingerprint(path);
+        Entry<T> entry = (Entry<T>) ENTRIES.compute(key, (k, existing) -> {
+            Entry<?> current = existing != null ? existing : new Entry<>(k, path, reader);
+            current.references++;
+            return current;
+        });
+
+        return entry.model.handle((model, error) -> {
+            if (error != null) {
+                release(entry);
+                throw error instanceof CompletionException ? (CompletionException) error :
+                      new CompletionException(error);
+            }
+            return new Lease<>(entry, model);
+        });
+    }
+
+    /**
+     * Lease a model, blocking until it is loaded
+     */
+    public static <T> Lease<T> acquire(String path, ModelLoader.ModelReader<T> reader) throws IOException {
+        try {
+            return acquireAsync(path, reader).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to load model " + path, cause);
+        }
+    }
+
+    private static void release(Entry<?> entry) {
+        ENTRIES.computeIfPresent(entry.key, (k, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            return --current.references == 0 ? null : current;
+        });
+    }
+
+    private static String fingerprint(String path) {
+        Path file = Paths.get(path).toAbsolutePath().normalize();
+        try {
+            return file + "@" + Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            // Missing file - the load itself reports the error
+            return file.toString();
+        }
+    }
+
+    public static int getLoadedModelCount() {
+        return ENTRIES.size();
+    }
+
+    public static String getStats() {
+        StringBuilder stats = new StringBuilder("Model registry: ").append(ENTRIES.size()).append(" models\n");
+        for (Entry<?> entry : ENTRIES.values()) {
+            stats.append("  ").append(entry.path)
+                 .append(" refs=").append(entry.references)
+                 .append(" crc32=").append(Long.toHexString(entry.checksum))
+                 .append(entry.model.isDone() ? "" : " (loading)")
+                 .append("\n");
+        }
+        return stats.toString();
+    }
+
+    private static final class Entry<T> {
+        private final String key;
+        private final String path;
+        private final CompletableFuture<T> model;
+        private volatile long checksum;
+        private int references; // guarded by ENTRIES.compute
+
+        Entry(String key, String path, ModelLoader.ModelReader<T> reader) {
+            this.key = key;
+            this.path = path;
+            this.model = ModelLoader.loadAsync(path, in -> {
+                CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+                T loaded = reader.read(checked);
+                // Model readers may stop before the end of the file; checksum all of it
+                byte[] buffer = new byte[8192];
+                while (checked.read(buffer) != -1) {
+                }
+                checksum = checked.getChecksum().getValue();
+                return loaded;
+            });
+        }
+    }
+
+    /**
+     * A reference to a shared model; close it when the owning component goes away
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final Entry<T> entry;
+        private final T model;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final List<PerThread<?>> perThreads = new ArrayList<>(); // guarded by itself
+
+        Lease(Entry<T> entry, T model) {
+            this.entry = entry;
+            this.model = model;
+        }
+
+        public T get() {
+            if (closed.get()) {
+                throw new IllegalStateException("Lease already closed: " + entry.path);
+            }
+            return model;
+        }
+
+        public long getChecksum() {
+            return entry.checksum;
+        }
+
+        /**
+         * Thread-confined wrapper over the shared model, built lazily on each thread that uses it.
+         * Closing the lease drops the wrappers of every thread, so pooled threads that outlive
+         * the lease do not keep the model reachable.
+         */
+        public <W> ThreadLocal<W> perThread(Function<? super T, ? extends W> factory) {
+            PerThread<W> perThread = new PerThread<>(() -> factory.apply(get()));
+            synchronized (perThreads) {
+                perThreads.add(perThread);
+            }
+            return perThread;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                synchronized (perThreads) {
+                    for (PerThread<?> perThread : perThreads) {
+                        perThread.clear();
+                    }
+                    perThreads.clear();
+                }
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * ThreadLocal whose values sit in slots the owning lease can empty from any thread;
+     * ThreadLocal.remove() only reaches the calling thread's value
+     */
+    private static final class PerThread<W> extends ThreadLocal<W> {
+        private final Supplier<W> factory;
+        private final ThreadLocal<AtomicReference<W>> slot = ThreadLocal.withInitial(this::register);
+        // Every thread's slot, for clear(); weak keys, so finished threads drop out
+        private final Map<Thread, AtomicReference<W>> slots = new WeakHashMap<>();
+
+        PerThread(Supplier<W> factory) {
+            this.factory = factory;
+        }
+
+        private AtomicReference<W> register() {
+            AtomicReference<W> created = new AtomicReference<>();
+            synchronized (slots) {
+                slots.put(Thread.currentThread(), created);
+            }
+            return created;
+        }
+
+        @Override
+        public W get() {
+            AtomicReference<W> current = slot.get();
+            W value = current.get();
+            if (value == null) {
+                value = factory.get();
+                current.set(value);
+            }
+            return value;
+        }
+
+        @Override
+        public void set(W value) {
+            slot.get().set(value);
+        }
+
+        @Override
+        public void remove() {
+            slot.get().set(null);
+        }
+
+        void clear() {
+            synchronized (slots) {
+                for (AtomicReference<W> threadSlot : slots.values()) {
+                    threadSlot.set(null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package view;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fast path for short queries that keyword patterns settle without the statistical tokenizer and
+ * POS tagger.
+ *
+ * A query is eligible when it has at most getMaxTokens() whitespace tokens made of letters and
+ * digits only; the caller then decides from those tokens whether its patterns resolve the query.
+ * Tokens of the fast path are tagged by shape instead of by the tagger. Each query is counted on
+ * the path it took, with eligible queries the patterns could not settle counted as fallbacks.
+ */
+public final class ShortQueryPath {
+
+    public static final int DEFAULT_MAX_TOKENS = 4;
+
+    private volatile int maxTokens = DEFAULT_MAX_TOKENS;
+
+    private final AtomicLong fastQueries = new AtomicLong();
+    private final AtomicLong modelQueries = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * Whitespace tokens of an eligible query, or null when the query must go through the models
+     */
+    public TokenView tokens(String query) {
+        int limit = maxTokens;
+        if (limit <= 0 || query == null) {
+            return null;
+        }
+        TokenView view = TokenView.of(query);
+        if (view.isEmpty() || view.size() > limit) {
+            return null;
+        }
+        for (int i = 0; i < view.size(); i++) {
+            if (!view.isAlphanumeric(i)) {
+                return null;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * CD for numbers, NN for everything else
+     */
+    public static String[] tagByShape(String[] tokens) {
+        String[] posTags = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            posTags[i] = isDigits(tokens[i]) ? "CD" : "NN";
+        }
+        return posTags;
+    }
+
+    private static boolean isDigits(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return !token.isEmpty();
+    }
+
+    public void recordFastPath() {
+        fastQueries.incrementAndGet();
+    }
+
+    /**
+     * Count a query the models handled; eligible means the fast path looked at it first
+     */
+    public void recordModelPath(boolean eligible) {
+        modelQueries.incrementAndGet();
+        if (eligible) {
+            fallbacks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Longest query, in whitespace tokens, eligible for the fast path; 0 turns it off
+     */
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = Math.max(0, maxTokens);
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public String getStats() {
+        return String.format("Query paths: %d fast, %d model (%d short queries left to the models)",
+                             fastQueries.get(), modelQueries.get(), fallbacks.get());
+    }
+}
@@ -0,0 +1,412 @@
+package view;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Whitespace tokens of one request, shared by every pipeline stage.
+ *
+ * The text is tokenized once into start/end offsets over a single char[]. Token strings,
+ * lowercase forms, letter-only forms and flags (numeric, identifier, stop word) are computed
+ * on first use and cached. Stages that rewrite tokens call set() or remove(), which refresh
+ * only the affected token; toString() and the token arrays are rebuilt lazily after a change.
+ * Stages that rewrite the whole text with regexes hand the result back through reset(), which
+ * re-tokenizes only when the text actually changed.
+ *
+ * Tokens split on the same characters as split("\\s+") and are never empty. A view is meant
+ * for one request on one thread and is not thread-safe.
+ */
+public final class TokenView {
+
+    public static final int NUMERIC = 1;
+    public static final int ALPHABETIC = 1 << 1;
+    // Letters and digits mixed, like part and account codes (AB12345, C2024)
+    public static final int IDENTIFIER = 1 << 2;
+    public static final int STOP_WORD = 1 << 3;
+    // Only letters and digits, no punctuation
+    public static final int ALPHANUMERIC = 1 << 4;
+
+    private static final int FLAGS_COMPUTED = 1 << 7;
+
+    private static final Set<String> STOP_WORDS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("a", "an", "the", "and", "or", "but", "in", "on",
+                                                                "at", "to", "for", "of", "with", "by", "from", "is",
+                                                                "are", "was", "were", "be", "me", "my", "i", "you",
+                                                                "your", "it", "this", "that", "please")));
+
+    private char[] text;
+    private int size;
+    private int[] starts;
+    private int[] ends;
+    // Per-token caches; a rewritten token keeps its original offsets but its text comes from tokens[i]
+    private String[] tokens;
+    private String[] lower;
+    private String[] letters;
+    private byte[] flags;
+
+    private String joined;
+    private String[] tokenArray;
+    private String[] lowerArray;
+
+    private TokenView(char[] text) {
+        tokenize(text);
+    }
+
+    public static TokenView of(CharSequence text) {
+        return new TokenView(toChars(text));
+    }
+
+    private static char[] toChars(CharSequence text) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        return chars;
+    }
+
+    private void tokenize(char[] text) {
+        this.text = text;
+        size = 0;
+        int capacity = Math.max(4, text.length / 4);
+        starts = new int[capacity];
+        ends = new int[capacity];
+
+        int i = 0;
+        while (i < text.length) {
+            while (i < text.length && isSpace(text[i])) {
+                i++;
+            }
+            if (i == text.length) {
+                break;
+            }
+            int start = i;
+            while (i < text.length && !isSpace(text[i])) {
+                i++;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = i;
+            size++;
+        }
+
+        tokens = new String[size];
+        lower = new String[size];
+        letters = new String[size];
+        flags = new byte[size];
+        changed();
+    }
+
+    /**
+     * Replace the whole text with a stage's rewritten version. When the rewrite left the joined
+     * tokens as they were, the view and its cached forms are kept.
+     */
+    public void reset(CharSequence rewritten) {
+        if (!toString().contentEquals(rewritten)) {
+            tokenize(toChars(rewritten));
+        }
+    }
+
+    /**
+     * Same whitespace as the regex \s
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String get(int index) {
+        checkIndex(index);
+        String token = tokens[index];
+        if (token == null) {
+            token = new String(text, starts[index], ends[index] - starts[index]);
+            tokens[index] = token;
+        }
+        return token;
+    }
+
+    public String lower(int index) {
+        checkIndex(index);
+        String value = lower[index];
+        if (value == null) {
+            value = get(index).toLowerCase();
+            lower[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Lowercase token with everything but a-z removed ("Contract," becomes "contract")
+     */
+    public String letters(int index) {
+        checkIndex(index);
+        String value = letters[index];
+        if (value == null) {
+            String source = lower(index);
+            StringBuilder builder = null;
+            for (int i = 0; i < source.length(); i++) {
+                char c = source.charAt(i);
+                boolean keep = c >= 'a' && c <= 'z';
+                if (!keep && builder == null) {
+                    builder = new StringBuilder(source.length()).append(source, 0, i);
+                } else if (keep && builder != null) {
+                    builder.append(c);
+                }
+            }
+            value = builder == null ? source : builder.toString();
+            letters[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * True when the token has all of the given flag bits
+     */
+    public boolean is(int index, int flag) {
+        return (flags(index) & flag) == flag;
+    }
+
+    public boolean isNumeric(int index) {
+        return is(index, NUMERIC);
+    }
+
+    public boolean isIdentifier(int index) {
+        return is(index, IDENTIFIER);
+    }
+
+    public boolean isStopWord(int index) {
+        return is(index, STOP_WORD);
+    }
+
+    public boolean isAlphanumeric(int index) {
+        return is(index, ALPHANUMERIC);
+    }
+
+    private int flags(int index) {
+        checkIndex(index);
+        int value = flags[index];
+        if ((value & FLAGS_COMPUTED) == 0) {
+            value = computeFlags(index) | FLAGS_COMPUTED;
+            flags[index] = (byte) value;
+        }
+        return value;
+    }
+
+    private int computeFlags(int index) {
+        String token = get(index);
+        int digits = 0;
+        int alphas = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (Character.isLetter(c)) {
+                alphas++;
+            }
+        }
+        int value = 0;
+        if (digits > 0 && digits == token.length()) {
+            value |= NUMERIC;
+        }
+        if (alphas > 0 && alphas == token.length()) {
+            value |= ALPHABETIC;
+        }
+        if (digits > 0 && alphas > 0) {
+            value |= IDENTIFIER;
+        }
+        if (digits + alphas == token.length()) {
+            value |= ALPHANUMERIC;
+        }
+        if (STOP_WORDS.contains(lower(index))) {
+            value |= STOP_WORD;
+        }
+        return value;
+    }
+
+    /**
+     * Rewrite one token; only that token's cached forms are refreshed. A replacement with
+     * whitespace in it is split into several tokens that share the rewritten token's span, and a
+     * blank replacement drops the token, so tokens stay non-empty and free of whitespace.
+     *
+     * @return the number of tokens now in the rewritten token's place; callers walking the view
+     *         forward continue at index + that number
+     */
+    public int set(int index, String replacement) {
+        checkIndex(index);
+        if (replacement.equals(get(index))) {
+            return 1;
+        }
+        int parts = 0;
+        int i = 0;
+        while (i < replacement.length()) {
+            while (i < replacement.length() && isSpace(replacement.charAt(i))) {
+                i++;
+            }
+            if (i == replacement.length()) {
+                break;
+            }
+            int start = i;
+            while (i < replacement.length() && !isSpace(replacement.charAt(i))) {
+                i++;
+            }
+            if (parts > 0) {
+                insertAfter(index + parts - 1);
+            }
+            replace(index + parts, start == 0 && i == replacement.length() ? replacement :
+                                   replacement.substring(start, i));
+            parts++;
+        }
+        if (parts == 0) {
+            remove(index);
+        }
+        changed();
+        return parts;
+    }
+
+    private void replace(int index, String token) {
+        tokens[index] = token;
+        lower[index] = null;
+        letters[index] = null;
+        flags[index] = 0;
+    }
+
+    /**
+     * Open a slot after the given token, spanning the same offsets
+     */
+    private void insertAfter(int index) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        if (size == tokens.length) {
+            int capacity = starts.length;
+            tokens = Arrays.copyOf(tokens, capacity);
+            lower = Arrays.copyOf(lower, capacity);
+            letters = Arrays.copyOf(letters, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        int tail = size - index - 1;
+        System.arraycopy(starts, index + 1, starts, index + 2, tail);
+        System.arraycopy(ends, index + 1, ends, index + 2, tail);
+        System.arraycopy(tokens, index + 1, tokens, index + 2, tail);
+        System.arraycopy(lower, index + 1, lower, index + 2, tail);
+        System.arraycopy(letters, index + 1, letters, index + 2, tail);
+        System.arraycopy(flags, index + 1, flags, index + 2, tail);
+        starts[index + 1] = starts[index];
+        ends[index + 1] = ends[index];
+        size++;
+    }
+
+    /**
+     * Drop one token; later tokens shift down
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        int tail = size - index - 1;
+        System.arraycopy(starts, index + 1, starts, index, tail);
+        System.arraycopy(ends, index + 1, ends, index, tail);
+        System.arraycopy(tokens, index + 1, tokens, index, tail);
+        System.arraycopy(lower, index + 1, lower, index, tail);
+        System.arraycopy(letters, index + 1, letters, index, tail);
+        System.arraycopy(flags, index + 1, flags, index, tail);
+        size--;
+        tokens[size] = null;
+        lower[size] = null;
+        letters[size] = null;
+        changed();
+    }
+
+    private void changed() {
+        joined = null;
+        tokenArray = null;
+        lowerArray = null;
+    }
+
+    /**
+     * Tokens as an array; shared until the next change, so treat it as read-only
+     */
+    public String[] toArray() {
+        if (tokenArray == null) {
+            String[] array = new String[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = get(i);
+            }
+            tokenArray = array;
+        }
+        return tokenArray;
+    }
+
+    /**
+     * Lowercase tokens as an array; shared until the next change, so treat it as read-only
+     */
+    public String[] toLowerArray() {
+        if (lowerArray == null) {
+            String[] array = new String[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = lower(i);
+            }
+            lowerArray = array;
+        }
+        return lowerArray;
+    }
+
+    /**
+     * Offset of the token in the text the view was built or last reset from (rewritten tokens
+     * keep their span)
+     */
+    public int start(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int end(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Tokens joined by single spaces
+     */
+    @Override
+    public String toString() {
+        if (joined == null) {
+            StringBuilder builder = new StringBuilder(text.length);
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    builder.append(' ');
+                }
+                if (tokens[i] != null) {
+                    builder.append(tokens[i]);
+                } else {
+                    builder.append(text, starts[i], ends[i] - starts[i]);
+                }
+            }
+            joined = builder.toString();
+        }
+        return joined;
+    }
+
+    /**
+     * Tokens lowercased and joined by single spaces
+     */
+    public String toLowerString() {
+        return String.join(" ", toLowerArray());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " of " + size);
+        }
+    }
+}
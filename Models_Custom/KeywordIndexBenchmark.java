@@ -0,0 +1,189 @@
+package view.practice;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks KeywordIndex against the per-keyword loop it replaced, and times both.
+ *
+ * The loop is the one the classifiers used before the index: a token matches a keyword when it
+ * equals it, or when their lengths differ by at most maxLengthDifference and their Levenshtein
+ * distance is at most max(1, keyword length / 3). Equivalence is checked on keywords with random
+ * typos, random words and digit runs of every length up to the longest keyword and beyond.
+ * Timing uses unique digit tokens, like the contract and account numbers in real queries, so the
+ * index's token cache never hits; it is reported per token length.
+ */
+public class KeywordIndexBenchmark {
+
+    private static final int MAX_LENGTH_DIFFERENCE = 3;
+    private static final int EQUIVALENCE_TOKENS = 20000;
+    private static final int TIMED_TOKENS = 2000;
+    private static final int[] TIMED_LENGTHS = { 6, 12, 15, 18, 24 };
+
+    private final List<String> keywords = new ArrayList<>();
+    private final KeywordIndex index;
+    private final Random random = new Random(42);
+
+    public KeywordIndexBenchmark(Map<String, ? extends Collection<String>> groups) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (Collection<String> group : groups.values()) {
+            for (String keyword : group) {
+                distinct.add(keyword.toLowerCase(Locale.ROOT));
+            }
+        }
+        keywords.addAll(distinct);
+        index = new KeywordIndex(groups, MAX_LENGTH_DIFFERENCE);
+    }
+
+    /**
+     * Tokens on which the index and the loop disagree, at most a few
+     */
+    public List<String> checkEquivalence() {
+        List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < EQUIVALENCE_TOKENS && mismatches.size() < 10; i++) {
+            String token;
+            switch (i % 3) {
+            case 0:
+                token = typo(keywords.get(random.nextInt(keywords.size())), random.nextInt(4));
+                break;
+            case 1:
+                token = randomToken("abcdefghijklmnopqrstuvwxyz ", 1 + random.nextInt(24));
+                break;
+            default:
+                token = randomToken("0123456789", 1 + random.nextInt(24));
+                break;
+            }
+            Set<String> expected = new LinkedHashSet<>(loopMatches(token));
+            Set<String> actual = new LinkedHashSet<>(index.matchingKeywords(token));
+            if (!expected.equals(actual)) {
+                mismatches.add(String.format("'%s': loop %s, index %s", token, expected, actual));
+            }
+        }
+        return mismatches;
+    }
+
+    public String run() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("=== KeywordIndex: %d keywords, %d tokens per length ===\n", keywords.size(),
+                                    TIMED_TOKENS));
+        List<String> mismatches = checkEquivalence();
+        report.append(mismatches.isEmpty() ?
+                      String.format("Equivalence: %d tokens, no mismatches\n", EQUIVALENCE_TOKENS) :
+                      "Equivalence: MISMATCHES\n  " + String.join("\n  ", mismatches) + "\n");
+        report.append(String.format("%-12s %18s %18s\n", "Token length", "Index (us/token)", "Loop (us/token)"));
+        for (int length : TIMED_LENGTHS) {
+            // Warm-up on other tokens of the same length
+            time(uniqueDigits(length, TIMED_TOKENS), true);
+            time(uniqueDigits(length, TIMED_TOKENS), false);
+            double indexed = time(uniqueDigits(length, TIMED_TOKENS), true);
+            double looped = time(uniqueDigits(length, TIMED_TOKENS), false);
+            report.append(String.format("%-12d %18.2f %18.2f\n", length, indexed, looped));
+        }
+        return report.toString();
+    }
+
+    // Microseconds per token
+    private double time(List<String> tokens, boolean indexed) {
+        int matched = 0;
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            matched += indexed ? index.matchingKeywords(token).size() : loopMatches(token).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (matched < 0) {
+            throw new AssertionError(); // keeps the loop from being optimized away
+        }
+        return elapsed / 1000.0 / tokens.size();
+    }
+
+    private List<String> loopMatches(String token) {
+        String lowerToken = token.toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>();
+        for (String keyword : keywords) {
+            if (lowerToken.equals(keyword) || isTypoMatch(lowerToken, keyword)) {
+                matches.add(keyword);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean isTypoMatch(String token, String keyword) {
+        if (Math.abs(token.length() - keyword.length()) > MAX_LENGTH_DIFFERENCE) {
+            return false;
+        }
+        return levenshtein(token, keyword) <= KeywordIndex.maxDistance(keyword);
+    }
+
+    private static int levenshtein(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                    dp[i][j] = dp[i - 1][j - 1];
+                } else {
+                    dp[i][j] = 1 + Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]), dp[i - 1][j - 1]);
+                }
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+
+    // Random insertions, deletions and substitutions
+    private String typo(String word, int edits) {
+        StringBuilder typo = new StringBuilder(word);
+        for (int e = 0; e < edits; e++) {
+            int at = random.nextInt(typo.length() + 1);
+            char c = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+            case 0:
+                typo.insert(at, c);
+                break;
+            case 1:
+                if (at < typo.length()) {
+                    typo.deleteCharAt(at);
+                }
+                break;
+            default:
+                if (at < typo.length()) {
+                    typo.setCharAt(at, c);
+                }
+                break;
+            }
+        }
+        return typo.toString();
+    }
+
+    private String randomToken(String alphabet, int length) {
+        StringBuilder token = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            token.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return token.toString();
+    }
+
+    private List<String> uniqueDigits(int length, int count) {
+        Set<String> tokens = new LinkedHashSet<>();
+        while (tokens.size() < count) {
+            tokens.add(randomToken("0123456789", length));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public static void main(String[] args) {
+        KeywordIndexBenchmark benchmark =
+            new KeywordIndexBenchmark(new MLIntentClassifierImproved().getIntentKeywords());
+        System.out.println(benchmark.run());
+    }
+}
@@ -34,10 +34,20 @@ public class MLIntentClassifierImproved {
     }
     private static final Logger logger = Logger.getLogger(MLIntentClassifierImproved.class.getName());
 
+    // Keywords that force the expiration / search intents; tokens within the typo distance count too
+    private static final KeywordIndex EXPIRATION_KEYWORD_INDEX = KeywordIndex.of(new String[] {
+        "expiration", "expiry", "expire", "expires", "expired", "end date", "when expires", "expirat", "expary",
+        "expir", "expirs", "expird", "experation"
+    }, 3);
+    private static final KeywordIndex SEARCH_KEYWORD_INDEX = KeywordIndex.of(new String[] {
+        "find", "search", "look for", "locate", "seek", "hunt", "fnd", "serch", "lok", "locat", "finnd"
+    }, 3);
+
     private DocumentCategorizerME categorizer;
     private DoccatModel model;
     private Map<String, Double> intentThresholds;
     private Map<String, List<String>> intentKeywords;
+    private KeywordIndex intentKeywordIndex;
     private Pattern contractNumberPattern;
     private boolean initialized = false;
 
@@ -136,6 +146,9 @@ public class MLIntentClassifierImproved {
                                          "check status",
                                          // Common typos
                                          "stat", "staus", "conditon", "situaton", "statu", "chck"));
+
+        // Keyword -> intent index, so boosting a query is a handful of lookups instead of a scan of every list
+        this.intentKeywordIndex = new KeywordIndex(intentKeywords, 3);
     }
 
     /**
@@ -256,6 +269,11 @@ public class MLIntentClassifierImproved {
      * Enhanced intent classification with better keyword matching
      */
     public IntentResult classifyIntent(NLPProcessingResult nlpResult) {
+        return classifyIntent(nlpResult, categorizer);
+    }
+
+    // Classify with the given categorizer over the model, so concurrent callers can each bring their own
+    private IntentResult classifyIntent(NLPProcessingResult nlpResult, DocumentCategorizer categorizer) {
         if (!initialized) {
             throw new IllegalStateException("Intent classifier not initialized");
         }
@@ -300,12 +318,12 @@ public class MLIntentClassifierImproved {
         String correctedSentence = correctTyposAndAbbreviations(originalSentence);
 
         // Special handling for expiration queries (use corrected text)
-        if (containsExpirationKeywords(tokens, correctedSentence)) {
+        if (EXPIRATION_KEYWORD_INDEX.matchesAny(tokens, correctedSentence)) {
             return new IntentConfidencePair("get_contract_expiration", Math.max(originalConfidence + 0.4, 0.85));
         }
 
         // Special handling for search/find queries (use corrected text)
-        if (containsSearchKeywords(tokens, correctedSentence)) {
+        if (SEARCH_KEYWORD_INDEX.matchesAny(tokens, correctedSentence)) {
             return new IntentConfidencePair("search_contracts", Math.max(originalConfidence + 0.3, 0.75));
         }
 
@@ -313,11 +331,12 @@ public class MLIntentClassifierImproved {
         String bestIntent = originalIntent;
         double bestConfidence = originalConfidence;
 
-        for (Map.Entry<String, List<String>> entry : intentKeywords.entrySet()) {
-            String intentName = entry.getKey();
-            List<String> keywords = entry.getValue();
+        KeywordIndex.Matches matches = intentKeywordIndex.match(tokens, correctedSentence);
+        String[] intents = intentKeywordIndex.getGroups();
+        for (int i = 0; i < intents.length; i++) {
+            String intentName = intents[i];
 
-            double keywordScore = calculateEnhancedKeywordScore(tokens, correctedSentence, keywords);
+            double keywordScore = calculateEnhancedKeywordScore(matches, i);
 
             if (keywordScore > 0) {
                 double boostedConfidence = originalConfidence + (keywordScore * 0.35);
@@ -331,113 +350,11 @@ public class MLIntentClassifierImproved {
         return new IntentConfidencePair(bestIntent, bestConfidence);
     }
 
-    private boolean containsExpirationKeywords(String[] tokens, String originalSentence) {
-        // Check for expiration-specific patterns
-        String[] expirationPatterns = {
-            "expiration", "expiry", "expire", "expires", "expired", "end date", "when expires", "expirat", "expary",
-            "expir", "expirs", "expird", "experation"
-        };
-
-        for (String pattern : expirationPatterns) {
-            if (originalSentence.contains(pattern)) {
-                return true;
-            }
-        }
-
-        // Check individual tokens
-        for (String token : tokens) {
-            String lowerToken = token.toLowerCase();
-            for (String pattern : expirationPatterns) {
-                if (lowerToken.equals(pattern) || isAdvancedTypoMatch(lowerToken, pattern)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-    private boolean containsSearchKeywords(String[] tokens, String originalSentence) {
-        String[] searchPatterns = {
-            "find", "search", "look for", "locate", "seek", "hunt", "fnd", "serch", "lok", "locat", "finnd"
-        };
-
-        for (String pattern : searchPatterns) {
-            if (originalSentence.contains(pattern)) {
-                return true;
-            }
-        }
-
-        for (String token : tokens) {
-            String lowerToken = token.toLowerCase();
-            for (String pattern : searchPatterns) {
-                if (lowerToken.equals(pattern) || isAdvancedTypoMatch(lowerToken, pattern)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-    private double calculateEnhancedKeywordScore(String[] tokens, String originalSentence, List<String> keywords) {
-        int matches = 0;
-        int totalTokens = tokens.length;
-
-        // Check phrase matches in original sentence
-        for (String keyword : keywords) {
-            if (originalSentence.contains(keyword.toLowerCase())) {
-                matches += 2; // Phrase matches get double weight
-            }
-        }
-
-        // Check individual token matches
-        for (String token : tokens) {
-            String lowerToken = token.toLowerCase();
-            for (String keyword : keywords) {
-                if (lowerToken.equals(keyword) || isAdvancedTypoMatch(lowerToken, keyword)) {
-                    matches++;
-                    break;
-                }
-            }
-        }
-
-        return totalTokens > 0 ? (double) matches / (totalTokens + 2) : 0.0; // Adjusted scoring
-    }
-
-    private boolean isAdvancedTypoMatch(String token, String keyword) {
-        if (Math.abs(token.length() - keyword.length()) > 3) {
-            return false;
-        }
-
-        // Levenshtein distance calculation for better typo matching
-        int distance = calculateLevenshteinDistance(token, keyword);
-        int maxAllowedDistance = Math.max(1, keyword.length() / 3); // Allow more errors for longer words
-
-        return distance <= maxAllowedDistance;
-    }
-
-    private int calculateLevenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
-        }
-
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]), dp[i - 1][j - 1]);
-                }
-            }
-        }
-
-        return dp[s1.length()][s2.length()];
+    private double calculateEnhancedKeywordScore(KeywordIndex.Matches matches, int intent) {
+        // Phrase matches in the sentence count double, then one per token matching any keyword
+        int totalTokens = matches.getTokenCount();
+        int score = matches.getPhraseMatches(intent) * 2 + matches.getTokenMatches(intent);
+        return totalTokens > 0 ? (double) score / (totalTokens + 2) : 0.0; // Adjusted scoring
     }
 
     // Helper methods from original class
@@ -799,9 +716,10 @@ public class MLIntentClassifierImproved {
 
             // Get keyword analysis
             Map<String, Double> keywordScores = new HashMap<>();
-            for (Map.Entry<String, List<String>> entry : intentKeywords.entrySet()) {
-                double score = calculateEnhancedKeywordScore(tokens, query.toLowerCase(), entry.getValue());
-                keywordScores.put(entry.getKey(), score);
+            KeywordIndex.Matches matches = intentKeywordIndex.match(tokens, query.toLowerCase());
+            String[] intents = intentKeywordIndex.getGroups();
+            for (int i = 0; i < intents.length; i++) {
+                keywordScores.put(intents[i], calculateEnhancedKeywordScore(matches, i));
             }
 
             IntentConfidencePair boostedResult = applyEnhancedKeywordBoost(nlpResult, bestCategory, mlConfidence);
@@ -927,31 +845,39 @@ public class MLIntentClassifierImproved {
             throw new IllegalStateException("Classifier not initialized");
         }
 
-        int correct = 0;
-        int total = testCases.size();
-        Map<String, String> failures = new HashMap<>();
-
+        EvaluationSuite suite = new EvaluationSuite("Contract intents");
         for (Map.Entry<String, ContractIntent> testCase : testCases.entrySet()) {
-            String query = testCase.getKey();
-            ContractIntent expected = testCase.getValue();
-
-            String[] tokens = query.toLowerCase().split("\\s+");
-            NLPProcessingResult nlpResult =
-                new NLPProcessingResult(query, tokens, new String[tokens.length], new opennlp.tools.util.Span[0]);
-
-            IntentResult result = classifyIntent(nlpResult);
+            suite.add(testCase.getKey(), testCase.getValue().name());
+        }
+        EvaluationSuite.Report report;
+        try {
+            // DocumentCategorizerME is not thread-safe: one per worker, all on the same model
+            report = suite.run(() -> {
+                DocumentCategorizer workerCategorizer = new DocumentCategorizerME(model);
+                return query -> {
+                    String[] tokens = query.toLowerCase().split("\\s+");
+                    NLPProcessingResult nlpResult =
+                        new NLPProcessingResult(query, tokens, new String[tokens.length],
+                                                new opennlp.tools.util.Span[0]);
+                    IntentResult result = classifyIntent(nlpResult, workerCategorizer);
+                    return new ClassifierCascade.Decision(result.getIntent().name(), result.getConfidence());
+                };
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Validation failed: " + e.getMessage(), e);
+        }
+        logger.info(report.toString());
 
-            if (result.getIntent() == expected) {
-                correct++;
-            } else {
-                failures.put(query,
-                             "Expected: " + expected + ", Got: " + result.getIntent() + " (confidence: " +
-                             String.format("%.2f", result.getConfidence()) + ")");
+        Map<String, String> failures = new HashMap<>();
+        for (EvaluationSuite.Outcome outcome : report.getOutcomes()) {
+            if (!outcome.isCorrect()) {
+                failures.put(outcome.getQuery(),
+                             "Expected: " + outcome.getExpected() + ", Got: " + outcome.getPredicted() +
+                             " (confidence: " + String.format("%.2f", outcome.getConfidence()) + ")");
             }
         }
-
-        double accuracy = (double) correct / total;
-        return new ValidationResult(accuracy, correct, total, failures);
+        return new ValidationResult(report.getAccuracy(), report.getCorrectCount(), report.getOutcomes().size(),
+                                    failures);
     }
 
     /**
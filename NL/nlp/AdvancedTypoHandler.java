@@ -5,6 +5,8 @@ import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import view.TokenView;
+
 /**
  * Advanced Typo Handler for Enhanced NLP Processing
  * Provides sophisticated spell checking, domain-specific corrections,
@@ -275,89 +277,80 @@ public class AdvancedTypoHandler {
             return input;
         }
 
-        // Preserve special patterns (emails, phones, numbers, etc.)
-        Map<String, String> preservedPatterns = extractAndPreservePatterns(input);
-        String workingText = input;
+        TokenView words = TokenView.of(input);
+        correctTypos(words);
+        return words.toString();
+    }
 
-        // Replace preserved patterns with placeholders
-        for (Map.Entry<String, String> entry : preservedPatterns.entrySet()) {
-            workingText = workingText.replace(entry.getValue(), entry.getKey());
-        }
+    /**
+     * Correct the words of a view in place; context comes from the words as typed
+     */
+    public void correctTypos(TokenView words) {
+        // Emails, phone numbers and contract numbers are left as typed
+        boolean[] preserved = findPreservedWords(words);
 
-        // Process words
-        String[] words = workingText.split("\\s+");
-        List<String> correctedWords = new ArrayList<>();
+        // Clean every word once; neighbours are cleaned before any correction is applied
+        String[] cleanWords = new String[words.size()];
+        for (int i = 0; i < cleanWords.length; i++) {
+            cleanWords[i] = cleanWord(words.get(i));
+        }
 
-        for (int i = 0; i < words.length; i++) {
-            String word = words[i];
-            String cleanWord = cleanWord(word);
-            String correctedWord = correctSingleWord(cleanWord, getContext(words, i));
+        // Back to front, so a correction that splits into several words leaves the indexes still to
+        // visit in place
+        for (int i = cleanWords.length - 1; i >= 0; i--) {
+            if (preserved[i]) {
+                continue;
+            }
+            String cleanWord = cleanWords[i];
+            String correctedWord = correctSingleWord(cleanWord, getContext(cleanWords, i));
 
             // Preserve original casing and punctuation
             if (!cleanWord.equals(correctedWord)) {
-                correctedWord = preserveCaseAndPunctuation(word, correctedWord);
-            } else {
-                correctedWord = word; // Keep original if no correction
+                words.set(i, preserveCaseAndPunctuation(words.get(i), correctedWord));
             }
-
-            correctedWords.add(correctedWord);
-        }
-
-        String result = String.join(" ", correctedWords);
-
-        // Restore preserved patterns
-        for (Map.Entry<String, String> entry : preservedPatterns.entrySet()) {
-            result = result.replace(entry.getKey(), entry.getValue());
         }
-
-        return result;
     }
 
     /**
-     * Extract and preserve special patterns that shouldn't be corrected
+     * Mark the words covered by a special pattern (email, phone, contract number) that shouldn't be corrected
      */
-    private Map<String, String> extractAndPreservePatterns(String input) {
-        Map<String, String> patterns = new HashMap<>();
-        int counter = 0;
-
-        // Preserve email addresses
-        java.util.regex.Matcher emailMatcher = EMAIL_PATTERN.matcher(input);
-        while (emailMatcher.find()) {
-            String placeholder = "__EMAIL_" + (counter++) + "__";
-            patterns.put(placeholder, emailMatcher.group());
-        }
-
-        // Preserve phone numbers
-        java.util.regex.Matcher phoneMatcher = PHONE_PATTERN.matcher(input);
-        while (phoneMatcher.find()) {
-            String placeholder = "__PHONE_" + (counter++) + "__";
-            patterns.put(placeholder, phoneMatcher.group());
-        }
-
-        // Preserve contract numbers
-        java.util.regex.Matcher contractMatcher = CONTRACT_PATTERN.matcher(input);
-        while (contractMatcher.find()) {
-            String placeholder = "__CONTRACT_" + (counter++) + "__";
-            patterns.put(placeholder, contractMatcher.group());
+    private boolean[] findPreservedWords(TokenView words) {
+        boolean[] preserved = new boolean[words.size()];
+        String text = words.toString();
+
+        // Offsets of each word in the single-spaced text
+        int[] starts = new int[words.size() + 1];
+        for (int i = 0; i < words.size(); i++) {
+            starts[i + 1] = starts[i] + words.get(i).length() + 1;
+        }
+
+        for (Pattern pattern : new Pattern[] { EMAIL_PATTERN, PHONE_PATTERN, CONTRACT_PATTERN }) {
+            java.util.regex.Matcher matcher = pattern.matcher(text);
+            while (matcher.find()) {
+                for (int i = 0; i < preserved.length; i++) {
+                    if (starts[i] < matcher.end() && matcher.start() < starts[i + 1] - 1) {
+                        preserved[i] = true;
+                    }
+                }
+            }
         }
-
-        return patterns;
+        return preserved;
     }
 
     /**
      * Get context words around the current word for contextual correction
      */
-    private String[] getContext(String[] words, int currentIndex) {
+    private String[] getContext(String[] cleanWords, int currentIndex) {
         List<String> context = new ArrayList<>();
 
         // Add previous word
         if (currentIndex > 0) {
-            context.add(cleanWord(words[currentIndex - 1]).toLowerCase());
+            context.add(cleanWords[currentIndex - 1].toLowerCase());
         }
 
         // Add next word
-        if (currentIndex < words.length - 1) {
-            context.add(cleanWord(words[currentIndex + 1]).toLowerCase());
+        if (currentIndex < cleanWords.length - 1) {
+            context.add(cleanWords[currentIndex + 1].toLowerCase());
         }
 
         return context.toArray(new String[0]);
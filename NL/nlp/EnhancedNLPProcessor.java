@@ -1,6 +1,9 @@
 package view.nlp;
 import java.util.*;
-public class EnhancedNLPProcessor {
+
+import view.TokenView;
+
+public class EnhancedNLPProcessor implements AutoCloseable {
     
     private MLIntentClassifier intentClassifier;
     private AdvancedTypoHandler typoHandler;
@@ -12,22 +15,55 @@ public class EnhancedNLPProcessor {
     private static final String MODEL_BASE_PATH = 
         "C:\\JDeveloper\\mywork\\MYChatTest\\ViewController\\public_html\\models\\";
     
+    // Dictionary-backed components, built on first use and shared by every processor
+    private static volatile SharedComponents sharedComponents;
+    
     public EnhancedNLPProcessor() {
         initializeComponents();
     }
     
     private void initializeComponents() {
         try {
-            this.typoHandler = new AdvancedTypoHandler();
-            this.grammarEnforcer = new GrammarEnforcer();
-            this.entityResolver = new EntityResolver(MODEL_BASE_PATH);
-            this.queryNormalizer = new QueryNormalizer();
+            SharedComponents shared = getSharedComponents();
+            this.typoHandler = shared.typoHandler;
+            this.grammarEnforcer = shared.grammarEnforcer;
+            this.entityResolver = shared.entityResolver;
+            this.queryNormalizer = shared.queryNormalizer;
             this.intentClassifier = new MLIntentClassifier(MODEL_BASE_PATH);
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize NLP components", e);
         }
     }
     
+    /**
+     * The shared components, built by the first caller; a failed build is retried by the next one
+     */
+    private static SharedComponents getSharedComponents() {
+        SharedComponents shared = sharedComponents;
+        if (shared == null) {
+            synchronized (EnhancedNLPProcessor.class) {
+                shared = sharedComponents;
+                if (shared == null) {
+                    shared = new SharedComponents();
+                    sharedComponents = shared;
+                }
+            }
+        }
+        return shared;
+    }
+    
+    /**
+     * The typo handler, grammar enforcer, entity resolver and query normalizer only read their
+     * dictionaries while processing, so one instance of each serves all threads. The per-instance
+     * MLIntentClassifier is not shared: its tokenizer and tagger wrappers are not thread-safe.
+     */
+    private static final class SharedComponents {
+        private final AdvancedTypoHandler typoHandler = new AdvancedTypoHandler();
+        private final GrammarEnforcer grammarEnforcer = new GrammarEnforcer();
+        private final EntityResolver entityResolver = new EntityResolver();
+        private final QueryNormalizer queryNormalizer = new QueryNormalizer();
+    }
+    
     /**
      * Main processing pipeline - coordinates all NLP steps
      */
@@ -37,14 +73,18 @@ public class EnhancedNLPProcessor {
         }
         
         try {
+            // Tokenize once; steps 1-3 rewrite the same words in place
+            TokenView words = TokenView.of(userInput);
+            
             // Step 1: Text preprocessing and typo correction
-            String correctedText = typoHandler.correctTypos(userInput);
+            typoHandler.correctTypos(words);
             
             // Step 2: Grammar enforcement
-            String grammaticalText = grammarEnforcer.enforceGrammar(correctedText);
+            grammarEnforcer.enforceGrammar(words);
             
             // Step 3: Query normalization
-            String normalizedQuery = queryNormalizer.normalizeQuery(grammaticalText);
+            queryNormalizer.normalize(words);
+            String normalizedQuery = words.toString();
             
             // Step 4: Entity extraction
             Map<String, Object> entities = entityResolver.extractEntities(normalizedQuery);
@@ -244,4 +284,17 @@ public class EnhancedNLPProcessor {
             return new HashMap<>();
         }
     }
+    
+    /**
+     * Release this processor's classifier and the registry leases it holds on the shared models;
+     * the owner calls this when it is done with the processor
+     */
+    @Override
+    public void close() {
+        MLIntentClassifier classifier = intentClassifier;
+        intentClassifier = null;
+        if (classifier != null) {
+            classifier.close();
+        }
+    }
 }
\ No newline at end of file
@@ -1,9 +1,20 @@
 package view.nlp;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import java.nio.CharBuffer;
+
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -50,6 +61,9 @@ public class EntityResolver {
     // Compiled regex patterns for performance
     private static final Map<EntityType, Pattern> ENTITY_PATTERNS = new HashMap<>();
 
+    // Type specificity indexed by EntityType ordinal - breaks confidence ties between overlapping entities
+    private static final int[] TYPE_SPECIFICITY = new int[EntityType.values().length];
+
     // Entity dictionaries and lookup tables
     private final Map<String, Set<String>> entityDictionaries;
     private final Map<String, EntityType> knownEntities;
@@ -66,12 +80,27 @@ public class EntityResolver {
     private static final int MAX_ENTITY_LENGTH = 100;
     private static final boolean ENABLE_FUZZY_MATCHING = true;
     private static final boolean ENABLE_CONTEXT_ANALYSIS = true;
+    private static final int ENTITY_CONTEXT_WINDOW = 50;
+
+    // Streaming configuration - the overlap must cover the longest entity plus its context on both sides
+    public static final int STREAM_WINDOW_SIZE = 8192;
+    public static final int STREAM_WINDOW_OVERLAP = 2 * (MAX_ENTITY_LENGTH + 2 * ENTITY_CONTEXT_WINDOW);
+
+    // Batch configuration
+    private static final int BATCH_CHUNK_SIZE = 64;
+    // Texts read ahead from a stream per batch, per worker of the batch pool
+    private static final int STREAM_BATCH_CHUNKS_PER_WORKER = 4;
+    private ForkJoinPool batchPool = ForkJoinPool.commonPool();
+
+    // Per-thread scratch buffers (reusable matchers, Levenshtein rows)
+    private static final ThreadLocal<ResolverScratch> SCRATCH = ThreadLocal.withInitial(ResolverScratch::new);
 
     // Statistics
     private EntityResolutionStats stats;
 
     static {
         initializePatterns();
+        initializeTypeSpecificity();
     }
 
     /**
@@ -183,6 +212,29 @@ public class EntityResolver {
                                             Pattern.CASE_INSENSITIVE));
     }
 
+    /**
+     * Initialize the type specificity table
+     */
+    private static void initializeTypeSpecificity() {
+        setSpecificity(10, EntityType.CONTRACT_NUMBER, EntityType.CUSTOMER_ID, EntityType.ACCOUNT_NUMBER,
+                       EntityType.INVOICE_NUMBER, EntityType.PAYMENT_ID);
+        setSpecificity(9, EntityType.EMAIL, EntityType.PHONE, EntityType.CREDIT_CARD, EntityType.SSN,
+                       EntityType.TAX_ID);
+        setSpecificity(8, EntityType.AMOUNT, EntityType.DATE, EntityType.TIME, EntityType.PERCENTAGE);
+        setSpecificity(7, EntityType.PERSON_NAME, EntityType.COMPANY_NAME, EntityType.ADDRESS);
+        setSpecificity(6, EntityType.URL, EntityType.IP_ADDRESS);
+        setSpecificity(5, EntityType.STATUS, EntityType.PRIORITY, EntityType.DEPARTMENT);
+        setSpecificity(4, EntityType.CURRENCY);
+        setSpecificity(3, EntityType.REFERENCE_NUMBER, EntityType.PRODUCT_CODE);
+        setSpecificity(1, EntityType.UNKNOWN);
+    }
+
+    private static void setSpecificity(int specificity, EntityType... types) {
+        for (EntityType type : types) {
+            TYPE_SPECIFICITY[type.ordinal()] = specificity;
+        }
+    }
+
     /**
      * Initialize entity dictionaries
      */
@@ -269,6 +321,13 @@ public class EntityResolver {
      * Main entity resolution method
      */
     public EntityResolutionResult resolveEntities(String text) {
+        return resolveEntities(text, stats);
+    }
+
+    /**
+     * Resolve a single text, recording statistics into the given collector
+     */
+    private EntityResolutionResult resolveEntities(String text, EntityResolutionStats stats) {
         if (text == null || text.trim().isEmpty()) {
             return new EntityResolutionResult(text, new ArrayList<>(), 1.0, "Empty input");
         }
@@ -277,53 +336,272 @@ public class EntityResolver {
         stats.incrementProcessedTexts();
 
         try {
-            List<ResolvedEntity> entities = new ArrayList<>();
             String normalizedText = normalizeText(text);
+            List<ResolvedEntity> entities = resolveNormalizedText(normalizedText);
+
+            long processingTime = System.currentTimeMillis() - startTime;
+            stats.addProcessingTime(processingTime);
+            stats.addEntitiesFound(entities.size());
 
-            // Step 1: Pattern-based entity extraction
-            entities.addAll(extractPatternBasedEntities(normalizedText));
+            double overallConfidence = calculateOverallConfidence(entities);
+            String summary = generateSummary(entities);
 
-            // Step 2: Dictionary-based entity extraction
-            entities.addAll(extractDictionaryBasedEntities(normalizedText));
+            return new EntityResolutionResult(text, entities, overallConfidence, summary);
 
-            // Step 3: Context-based entity resolution
-            if (ENABLE_CONTEXT_ANALYSIS) {
-                entities = enhanceWithContext(entities, normalizedText);
+        } catch (Exception e) {
+            stats.incrementErrors();
+            System.err.println("Error resolving entities: " + e.getMessage());
+            return new EntityResolutionResult(text, new ArrayList<>(), 0.0, "Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Batch entity resolution for offline enrichment. Texts are split into chunks and resolved
+     * on the batch fork/join pool; patterns and dictionaries are shared read-only, each worker
+     * uses its own scratch buffers and statistics, and the per-chunk statistics are merged up the
+     * fork/join tree and folded into this resolver's statistics by the calling thread once the
+     * batch completes.
+     * The dictionaries and known entities must not be modified while a batch is running.
+     *
+     * @return one result per input text, in input order
+     */
+    public List<EntityResolutionResult> resolveEntities(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        EntityResolutionResult[] results = new EntityResolutionResult[texts.size()];
+        EntityResolutionStats batchStats = batchPool.invoke(new BatchResolutionTask(texts, results, 0, texts.size()));
+        stats.merge(batchStats);
+
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Batch entity resolution over a stream of texts, for inputs too large to hold in memory.
+     * The returned stream is lazy: as it is consumed, texts are read from the input a batch at a
+     * time, each batch is resolved on the batch fork/join pool like resolveEntities(List), and its
+     * statistics are merged before its results are handed out. Only one batch of texts and
+     * results is held at a time. Closing the returned stream closes the input.
+     *
+     * @return one result per input text, in input order
+     */
+    public Stream<EntityResolutionResult> resolveEntities(Stream<String> texts) {
+        if (texts == null) {
+            return Stream.empty();
+        }
+        int batchSize = Math.max(1, batchPool.getParallelism()) * BATCH_CHUNK_SIZE * STREAM_BATCH_CHUNKS_PER_WORKER;
+        Iterator<String> source = texts.iterator();
+        Iterator<EntityResolutionResult> results = new Iterator<EntityResolutionResult>() {
+            private Iterator<EntityResolutionResult> batch = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!batch.hasNext() && source.hasNext()) {
+                    List<String> next = new ArrayList<>(batchSize);
+                    while (next.size() < batchSize && source.hasNext()) {
+                        next.add(source.next());
+                    }
+                    batch = resolveEntities(next).iterator();
+                }
+                return batch.hasNext();
             }
 
-            // Step 4: Fuzzy matching for known entities
-            if (ENABLE_FUZZY_MATCHING) {
-                entities.addAll(extractFuzzyMatchedEntities(normalizedText));
+            @Override
+            public EntityResolutionResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
             }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED |
+                                                                        Spliterator.NONNULL), false)
+                            .onClose(texts::close);
+    }
 
-            // Step 5: Remove duplicates and merge overlapping entities
-            entities = deduplicateAndMergeEntities(entities);
+    /**
+     * Set the fork/join pool used by the batch API (defaults to the common pool)
+     */
+    public void setBatchPool(ForkJoinPool batchPool) {
+        if (batchPool != null) {
+            this.batchPool = batchPool;
+        }
+    }
 
-            // Step 6: Calculate confidence scores
-            entities = calculateConfidenceScores(entities, normalizedText);
+    public ForkJoinPool getBatchPool() {
+        return batchPool;
+    }
 
-            // Step 7: Filter by confidence threshold
-            entities = entities.stream()
-                               .filter(e -> e.getConfidence() >= CONFIDENCE_THRESHOLD)
-                               .collect(Collectors.toList());
+    /**
+     * Fork/join task resolving a slice of a batch. Leaves collect into their own stats object,
+     * parents merge their children's stats, so no statistics are shared between workers.
+     */
+    private final class BatchResolutionTask extends RecursiveTask<EntityResolutionStats> {
+        private static final long serialVersionUID = 1L;
 
-            // Step 8: Sort by position in text
-            entities.sort(Comparator.comparingInt(ResolvedEntity::getStartPosition));
+        private final List<String> texts;
+        private final EntityResolutionResult[] results;
+        private final int start;
+        private final int end;
 
-            long processingTime = System.currentTimeMillis() - startTime;
-            stats.addProcessingTime(processingTime);
-            stats.addEntitiesFound(entities.size());
+        BatchResolutionTask(List<String> texts, EntityResolutionResult[] results, int start, int end) {
+            this.texts = texts;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
 
-            double overallConfidence = calculateOverallConfidence(entities);
-            String summary = generateSummary(entities);
+        @Override
+        protected EntityResolutionStats compute() {
+            if (end - start <= BATCH_CHUNK_SIZE) {
+                EntityResolutionStats local = new EntityResolutionStats();
+                for (int i = start; i < end; i++) {
+                    results[i] = resolveEntities(texts.get(i), local);
+                }
+                return local;
+            }
 
-            return new EntityResolutionResult(text, entities, overallConfidence, summary);
+            int middle = (start + end) >>> 1;
+            BatchResolutionTask left = new BatchResolutionTask(texts, results, start, middle);
+            BatchResolutionTask right = new BatchResolutionTask(texts, results, middle, end);
+            left.fork();
+            EntityResolutionStats rightStats = right.compute();
+            EntityResolutionStats leftStats = left.join();
+            leftStats.merge(rightStats);
+            return leftStats;
+        }
+    }
 
-        } catch (Exception e) {
+    /**
+     * Streaming entity resolution for large documents (pasted contracts, uploaded files).
+     * The input is consumed in overlapping windows of STREAM_WINDOW_SIZE characters and every
+     * entity is passed to the sink exactly once, with offsets relative to the start of the input.
+     * Memory use is bounded by the window size, not by the document size.
+     *
+     * @return number of entities emitted
+     */
+    public long resolveEntities(Reader reader, Consumer<ResolvedEntity> sink) throws IOException {
+        return resolveStream(reader, sink);
+    }
+
+    /**
+     * Streaming entity resolution over an in-memory character sequence
+     */
+    public long resolveEntities(CharSequence text, Consumer<ResolvedEntity> sink) {
+        try {
+            return resolveStream(CharBuffer.wrap(text), sink);
+        } catch (IOException e) {
+            // CharBuffer sources never throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Window loop behind the streaming API. Each window owns the entities that start in
+     * [previous cut, cut), where cut lies half an overlap before the window end, so an entity
+     * is always resolved by the window that sees it whole together with its context.
+     */
+    private long resolveStream(Readable source, Consumer<ResolvedEntity> sink) throws IOException {
+        if (source == null || sink == null) {
+            throw new IllegalArgumentException("Source and sink must not be null");
+        }
+
+        long startTime = System.currentTimeMillis();
+        stats.incrementProcessedTexts();
+
+        CharBuffer window = CharBuffer.allocate(STREAM_WINDOW_SIZE);
+        char[] scratch = new char[STREAM_WINDOW_SIZE];
+        long windowBase = 0; // global offset of the first character in the window
+        long emittedUpTo = 0; // entities starting before this offset belong to an earlier window
+        long lastEmittedEnd = 0; // end of the last emitted entity, used to drop overlaps across the cut
+        long emitted = 0;
+        boolean endOfInput = false;
+
+        try {
+            while (!endOfInput) {
+                while (window.hasRemaining()) {
+                    if (source.read(window) < 0) {
+                        endOfInput = true;
+                        break;
+                    }
+                }
+                window.flip();
+
+                int length = window.remaining();
+                if (length == 0) {
+                    break;
+                }
+
+                String text = normalizeWindow(window, scratch, length);
+                long cut = endOfInput ? windowBase + length : windowBase + length - STREAM_WINDOW_OVERLAP / 2;
+
+                for (ResolvedEntity entity : resolveNormalizedText(text)) {
+                    long start = windowBase + entity.getStartPosition();
+                    if (start < emittedUpTo || start >= cut || start < lastEmittedEnd) {
+                        continue;
+                    }
+
+                    ResolvedEntity global = entity.shiftedBy(windowBase);
+                    lastEmittedEnd = global.getEndPosition();
+                    sink.accept(global);
+                    emitted++;
+                }
+                emittedUpTo = cut;
+
+                // Slide the window, keeping the overlap for the next read
+                int keep = Math.min(STREAM_WINDOW_OVERLAP, length);
+                window.position(length - keep);
+                window.compact();
+                windowBase += length - keep;
+            }
+        } catch (IOException e) {
             stats.incrementErrors();
-            System.err.println("Error resolving entities: " + e.getMessage());
-            return new EntityResolutionResult(text, new ArrayList<>(), 0.0, "Error: " + e.getMessage());
+            throw e;
+        } finally {
+            stats.addProcessingTime(System.currentTimeMillis() - startTime);
+            stats.addEntitiesFound((int) Math.min(Integer.MAX_VALUE, emitted));
+        }
+
+        return emitted;
+    }
+
+    /**
+     * Length-preserving normalization for streamed windows - whitespace variants become a single
+     * space character each, so window offsets map one-to-one onto input offsets.
+     */
+    private String normalizeWindow(CharBuffer window, char[] scratch, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = window.get(i);
+            scratch[i] = Character.isWhitespace(c) || c == '\u00A0' || c == '\u2007' || c == '\u202F' ? ' ' : c;
         }
+        return new String(scratch, 0, length);
+    }
+
+    /**
+     * Run the resolution pipeline over already normalized text
+     */
+    private List<ResolvedEntity> resolveNormalizedText(String normalizedText) {
+        List<ResolvedEntity> entities = new ArrayList<>();
+
+        // Step 1: Pattern-based entity extraction
+        entities.addAll(extractPatternBasedEntities(normalizedText));
+
+        // Step 2: Dictionary-based entity extraction
+        entities.addAll(extractDictionaryBasedEntities(normalizedText));
+
+        // Step 3: Context-based entity resolution
+        if (ENABLE_CONTEXT_ANALYSIS) {
+            enhanceWithContext(entities, normalizedText);
+        }
+
+        // Step 4: Fuzzy matching for known entities
+        if (ENABLE_FUZZY_MATCHING) {
+            entities.addAll(extractFuzzyMatchedEntities(normalizedText));
+        }
+
+        // Steps 5-8: Resolve overlaps, score and filter the survivors, in position order
+        return resolveOverlapsAndScore(entities, normalizedText);
     }
 
     /**
@@ -347,10 +625,12 @@ public class EntityResolver {
     private List<ResolvedEntity> extractPatternBasedEntities(String text) {
         List<ResolvedEntity> entities = new ArrayList<>();
 
+        ResolverScratch scratch = SCRATCH.get();
+
         for (Map.Entry<EntityType, Pattern> entry : ENTITY_PATTERNS.entrySet()) {
             EntityType type = entry.getKey();
             Pattern pattern = entry.getValue();
-            Matcher matcher = pattern.matcher(text);
+            Matcher matcher = scratch.matcher(type, pattern, text);
 
             while (matcher.find()) {
                 String value = matcher.group().trim();
@@ -545,26 +825,31 @@ public class EntityResolver {
      * Calculate Levenshtein distance between two strings
      */
     private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        // Two rolling rows from the per-thread scratch instead of a full DP matrix
+        ResolverScratch scratch = SCRATCH.get();
+        scratch.ensureRowCapacity(s2.length() + 1);
+        int[] previous = scratch.previousRow;
+        int[] current = scratch.currentRow;
 
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
-        }
         for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
+            previous[j] = j;
         }
 
         for (int i = 1; i <= s1.length(); i++) {
+            current[0] = i;
             for (int j = 1; j <= s2.length(); j++) {
                 int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, // deletion
-                                             dp[i][j - 1] + 1), // insertion
-                                    dp[i - 1][j - 1] + cost // substitution
-                                    );
+                current[j] = Math.min(Math.min(previous[j] + 1, // deletion
+                                               current[j - 1] + 1), // insertion
+                                      previous[j - 1] + cost // substitution
+                                      );
             }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
         }
 
-        return dp[s1.length()][s2.length()];
+        return previous[s2.length()];
     }
 
     /**
@@ -592,23 +877,18 @@ public class EntityResolver {
     }
 
     /**
-     * Enhance entities with contextual information
+     * Enhance entities with contextual information (in place)
      */
-    private List<ResolvedEntity> enhanceWithContext(List<ResolvedEntity> entities, String text) {
-        List<ResolvedEntity> enhanced = new ArrayList<>();
-
+    private void enhanceWithContext(List<ResolvedEntity> entities, String text) {
         for (ResolvedEntity entity : entities) {
-            ResolvedEntity enhancedEntity = enhanceEntityWithContext(entity, text);
-            enhanced.add(enhancedEntity);
+            enhanceEntityWithContext(entity, text);
         }
-
-        return enhanced;
     }
 
     /**
      * Enhance a single entity with contextual information
      */
-    private ResolvedEntity enhanceEntityWithContext(ResolvedEntity entity, String text) {
+    private void enhanceEntityWithContext(ResolvedEntity entity, String text) {
         String context = getEntityContext(text, entity.getStartPosition(), entity.getEndPosition());
         Map<String, Object> contextData = analyzeContext(context, entity.getType());
 
@@ -616,18 +896,16 @@ public class EntityResolver {
         double contextConfidence = calculateContextConfidence(contextData, entity.getType());
         double adjustedConfidence = (entity.getConfidence() + contextConfidence) / 2.0;
 
-        return new ResolvedEntity(entity.getType(), entity.getValue(), entity.getOriginalText(),
-                                  entity.getStartPosition(), entity.getEndPosition(), adjustedConfidence, context,
-                                  contextData);
+        entity.setConfidence(adjustedConfidence);
+        entity.setContext(context, contextData);
     }
 
     /**
      * Get context around an entity
      */
-    private String getEntityContext(String text, int start, int end) {
-        int contextWindow = 50; // Characters before and after
-        int contextStart = Math.max(0, start - contextWindow);
-        int contextEnd = Math.min(text.length(), end + contextWindow);
+    private String getEntityContext(String text, long start, long end) {
+        int contextStart = (int) Math.max(0, start - ENTITY_CONTEXT_WINDOW);
+        int contextEnd = (int) Math.min(text.length(), end + ENTITY_CONTEXT_WINDOW);
 
         return text.substring(contextStart, contextEnd);
     }
@@ -666,7 +944,7 @@ public class EntityResolver {
             break;
 
         case AMOUNT:
-            contextData.put("hasCurrencySymbols", lowerContext.matches(".*[$].*"));
+            contextData.put("hasCurrencySymbols", lowerContext.matches(".*[$\u20AC\u00A3\u00A5].*"));
             contextData.put("hasPaymentTerms", lowerContext.matches(".*(paid|pay|payment|charge|cost|fee).*"));
             break;
 
@@ -768,99 +1046,53 @@ public class EntityResolver {
     }
 
     /**
-     * Remove duplicate and overlapping entities
+     * Sweep-line overlap resolution. Candidates are swept in start order while one active
+     * interval is kept; an overlapping candidate replaces it when it has higher confidence, or
+     * equal confidence and a more specific type. When the sweep leaves the active interval it is
+     * final, so its confidence is recalculated in place and it is kept if it clears the threshold.
+     * The result is non-overlapping, scored and sorted by position.
      */
-    private List<ResolvedEntity> deduplicateAndMergeEntities(List<ResolvedEntity> entities) {
-        if (entities.isEmpty())
-            return entities;
-
-        // Sort by start position
-        entities.sort(Comparator.comparingInt(ResolvedEntity::getStartPosition));
+    private List<ResolvedEntity> resolveOverlapsAndScore(List<ResolvedEntity> entities, String text) {
+        List<ResolvedEntity> resolved = new ArrayList<>();
+        if (entities.isEmpty()) {
+            return resolved;
+        }
 
-        List<ResolvedEntity> merged = new ArrayList<>();
-        ResolvedEntity current = entities.get(0);
+        entities.sort(Comparator.comparingLong(ResolvedEntity::getStartPosition));
 
+        ResolvedEntity active = entities.get(0);
         for (int i = 1; i < entities.size(); i++) {
             ResolvedEntity next = entities.get(i);
 
-            // Check for overlap
-            if (entitiesOverlap(current, next)) {
-                // Merge entities - keep the one with higher confidence
-                if (next.getConfidence() > current.getConfidence()) {
-                    current = next;
-                }
-                // If same confidence, keep the more specific entity type
-                else if (next.getConfidence() == current.getConfidence() &&
-                         isMoreSpecificType(next.getType(), current.getType())) {
-                    current = next;
+            if (next.getStartPosition() < active.getEndPosition() &&
+                active.getStartPosition() < next.getEndPosition()) {
+                // Overlap - keep the higher confidence, then the more specific type
+                if (next.getConfidence() > active.getConfidence() ||
+                    (next.getConfidence() == active.getConfidence() &&
+                     TYPE_SPECIFICITY[next.getType().ordinal()] > TYPE_SPECIFICITY[active.getType().ordinal()])) {
+                    active = next;
                 }
             } else {
-                merged.add(current);
-                current = next;
+                emitIfConfident(active, text, resolved);
+                active = next;
             }
         }
-        merged.add(current);
+        emitIfConfident(active, text, resolved);
 
-        return merged;
+        return resolved;
     }
 
-    /**
-     * Check if two entities overlap
-     */
-    private boolean entitiesOverlap(ResolvedEntity entity1, ResolvedEntity entity2) {
-        return !(entity1.getEndPosition() <= entity2.getStartPosition() ||
-                 entity2.getEndPosition() <= entity1.getStartPosition());
-    }
-
-    /**
-     * Check if one entity type is more specific than another
-     */
-    private boolean isMoreSpecificType(EntityType type1, EntityType type2) {
-        // Define specificity hierarchy
-        Map<EntityType, Integer> specificity = new HashMap<>();
-        specificity.put(EntityType.CONTRACT_NUMBER, 10);
-        specificity.put(EntityType.CUSTOMER_ID, 10);
-        specificity.put(EntityType.ACCOUNT_NUMBER, 10);
-        specificity.put(EntityType.INVOICE_NUMBER, 10);
-        specificity.put(EntityType.PAYMENT_ID, 10);
-        specificity.put(EntityType.EMAIL, 9);
-        specificity.put(EntityType.PHONE, 9);
-        specificity.put(EntityType.CREDIT_CARD, 9);
-        specificity.put(EntityType.SSN, 9);
-        specificity.put(EntityType.TAX_ID, 9);
-        specificity.put(EntityType.AMOUNT, 8);
-        specificity.put(EntityType.DATE, 8);
-        specificity.put(EntityType.TIME, 8);
-        specificity.put(EntityType.PERCENTAGE, 8);
-        specificity.put(EntityType.PERSON_NAME, 7);
-        specificity.put(EntityType.COMPANY_NAME, 7);
-        specificity.put(EntityType.ADDRESS, 7);
-        specificity.put(EntityType.URL, 6);
-        specificity.put(EntityType.IP_ADDRESS, 6);
-        specificity.put(EntityType.STATUS, 5);
-        specificity.put(EntityType.PRIORITY, 5);
-        specificity.put(EntityType.DEPARTMENT, 5);
-        specificity.put(EntityType.CURRENCY, 4);
-        specificity.put(EntityType.REFERENCE_NUMBER, 3);
-        specificity.put(EntityType.PRODUCT_CODE, 3);
-        specificity.put(EntityType.UNKNOWN, 1);
-
-        return specificity.getOrDefault(type1, 0) > specificity.getOrDefault(type2, 0);
-    }
-
-    /**
-     * Calculate confidence scores for entities
-     */
-    private List<ResolvedEntity> calculateConfidenceScores(List<ResolvedEntity> entities, String text) {
-        return entities.stream()
-                       .map(entity -> recalculateEntityConfidence(entity, text))
-                       .collect(Collectors.toList());
+    private void emitIfConfident(ResolvedEntity entity, String text, List<ResolvedEntity> resolved) {
+        recalculateEntityConfidence(entity, text);
+        if (entity.getConfidence() >= CONFIDENCE_THRESHOLD) {
+            resolved.add(entity);
+        }
     }
 
     /**
-     * Recalculate confidence for a single entity
+     * Recalculate confidence for a single entity (in place)
      */
-    private ResolvedEntity recalculateEntityConfidence(ResolvedEntity entity, String text) {
+    private void recalculateEntityConfidence(ResolvedEntity entity, String text) {
         double baseConfidence = entity.getConfidence();
 
         // Factors that affect confidence
@@ -874,10 +1106,7 @@ public class EntityResolver {
             (baseConfidence * 0.4) + (lengthFactor * 0.2) + (formatFactor * 0.2) + (contextFactor * 0.15) +
             (positionFactor * 0.05);
 
-        return new ResolvedEntity(entity.getType(), entity.getValue(), entity.getOriginalText(),
-                                  entity.getStartPosition(), entity.getEndPosition(),
-                                  Math.min(1.0, Math.max(0.0, adjustedConfidence)), entity.getContext(),
-                                  entity.getContextData());
+        entity.setConfidence(Math.min(1.0, Math.max(0.0, adjustedConfidence)));
     }
 
     /**
@@ -963,7 +1192,7 @@ public class EntityResolver {
     /**
      * Calculate confidence factor based on position in text
      */
-    private double calculatePositionFactor(int position, int textLength) {
+    private double calculatePositionFactor(long position, int textLength) {
         if (textLength == 0)
             return 0.5;
 
@@ -1340,6 +1569,34 @@ public class EntityResolver {
         }
     }
 
+    /**
+     * Per-thread scratch state. Matchers are reset onto each new text and the Levenshtein rows
+     * grow to the longest string seen, so steady-state resolution does not allocate them.
+     */
+    private static final class ResolverScratch {
+        private final Map<EntityType, Matcher> matchers = new EnumMap<>(EntityType.class);
+        private int[] previousRow = new int[64];
+        private int[] currentRow = new int[64];
+
+        Matcher matcher(EntityType type, Pattern pattern, CharSequence text) {
+            Matcher matcher = matchers.get(type);
+            if (matcher == null) {
+                matcher = pattern.matcher(text);
+                matchers.put(type, matcher);
+            } else {
+                matcher.reset(text);
+            }
+            return matcher;
+        }
+
+        void ensureRowCapacity(int length) {
+            if (previousRow.length < length) {
+                previousRow = new int[length];
+                currentRow = new int[length];
+            }
+        }
+    }
+
     /**
      * Inner class for resolved entity
      */
@@ -1347,18 +1604,19 @@ public class EntityResolver {
         private final EntityType type;
         private final String value;
         private final String originalText;
-        private final int startPosition;
-        private final int endPosition;
-        private final double confidence;
-        private final String context;
-        private final Map<String, Object> contextData;
-
-        public ResolvedEntity(EntityType type, String value, String originalText, int startPosition, int endPosition,
+        // Offsets in the text resolved; long, since streamed input can run past 2^31 characters
+        private final long startPosition;
+        private final long endPosition;
+        private double confidence;
+        private String context;
+        private Map<String, Object> contextData;
+
+        public ResolvedEntity(EntityType type, String value, String originalText, long startPosition, long endPosition,
                               double confidence, String context) {
             this(type, value, originalText, startPosition, endPosition, confidence, context, new HashMap<>());
         }
 
-        public ResolvedEntity(EntityType type, String value, String originalText, int startPosition, int endPosition,
+        public ResolvedEntity(EntityType type, String value, String originalText, long startPosition, long endPosition,
                               double confidence, String context, Map<String, Object> contextData) {
             this.type = type;
             this.value = value;
@@ -1383,11 +1641,11 @@ public class EntityResolver {
             return originalText;
         }
 
-        public int getStartPosition() {
+        public long getStartPosition() {
             return startPosition;
         }
 
-        public int getEndPosition() {
+        public long getEndPosition() {
             return endPosition;
         }
 
@@ -1403,6 +1661,27 @@ public class EntityResolver {
             return contextData;
         }
 
+        // Scores are refined in place while the entity moves through the pipeline
+        void setConfidence(double confidence) {
+            this.confidence = confidence;
+        }
+
+        void setContext(String context, Map<String, Object> contextData) {
+            this.context = context;
+            this.contextData = contextData != null ? contextData : new HashMap<>();
+        }
+
+        /**
+         * Copy of this entity with its positions moved by the given offset
+         */
+        ResolvedEntity shiftedBy(long offset) {
+            if (offset == 0) {
+                return this;
+            }
+            return new ResolvedEntity(type, value, originalText, startPosition + offset, endPosition + offset,
+                                      confidence, context, contextData);
+        }
+
         @Override
         public String toString() {
             return String.format("ResolvedEntity{type=%s, value='%s', confidence=%.2f, position=[%d,%d]}", type, value,
@@ -1489,7 +1768,8 @@ public class EntityResolver {
     }
 
     /**
-     * Inner class for entity resolution statistics
+     * Inner class for entity resolution statistics. Thread-safe: single-text and batch
+     * resolution running concurrently update the same resolver statistics.
      */
     public static class EntityResolutionStats {
         private int processedTexts = 0;
@@ -1499,44 +1779,73 @@ public class EntityResolver {
         private final Map<EntityType, Integer> entityTypeCounts = new HashMap<>();
         private final long startTime = System.currentTimeMillis();
 
-        public void incrementProcessedTexts() {
+        public synchronized void incrementProcessedTexts() {
             processedTexts++;
         }
 
-        public void addEntitiesFound(int count) {
+        public synchronized void addEntitiesFound(int count) {
             totalEntitiesFound += count;
         }
 
-        public void incrementErrors() {
+        public synchronized void incrementErrors() {
             errors++;
         }
 
-        public void addProcessingTime(long time) {
+        public synchronized void addProcessingTime(long time) {
             totalProcessingTime += time;
         }
 
-        public void addEntityTypeCount(EntityType type, int count) {
+        public synchronized void addEntityTypeCount(EntityType type, int count) {
             entityTypeCounts.merge(type, count, Integer::sum);
         }
 
+        /**
+         * Fold another stats object into this one. The other one is read under its own lock
+         * first, so two merges in opposite directions cannot deadlock.
+         */
+        public void merge(EntityResolutionStats other) {
+            if (other == null || other == this) {
+                return;
+            }
+            int otherTexts;
+            int otherEntities;
+            int otherErrors;
+            long otherTime;
+            Map<EntityType, Integer> otherTypeCounts;
+            synchronized (other) {
+                otherTexts = other.processedTexts;
+                otherEntities = other.totalEntitiesFound;
+                otherErrors = other.errors;
+                otherTime = other.totalProcessingTime;
+                otherTypeCounts = new HashMap<>(other.entityTypeCounts);
+            }
+            synchronized (this) {
+                processedTexts += otherTexts;
+                totalEntitiesFound += otherEntities;
+                errors += otherErrors;
+                totalProcessingTime += otherTime;
+                otherTypeCounts.forEach((type, count) -> entityTypeCounts.merge(type, count, Integer::sum));
+            }
+        }
+
         // Getters
-        public int getProcessedTexts() {
+        public synchronized int getProcessedTexts() {
             return processedTexts;
         }
 
-        public int getTotalEntitiesFound() {
+        public synchronized int getTotalEntitiesFound() {
             return totalEntitiesFound;
         }
 
-        public int getErrors() {
+        public synchronized int getErrors() {
             return errors;
         }
 
-        public long getTotalProcessingTime() {
+        public synchronized long getTotalProcessingTime() {
             return totalProcessingTime;
         }
 
-        public Map<EntityType, Integer> getEntityTypeCounts() {
+        public synchronized Map<EntityType, Integer> getEntityTypeCounts() {
             return new HashMap<>(entityTypeCounts);
         }
 
@@ -1544,15 +1853,15 @@ public class EntityResolver {
             return startTime;
         }
 
-        public double getAverageEntitiesPerText() {
+        public synchronized double getAverageEntitiesPerText() {
             return processedTexts > 0 ? (double) totalEntitiesFound / processedTexts : 0.0;
         }
 
-        public double getAverageProcessingTime() {
+        public synchronized double getAverageProcessingTime() {
             return processedTexts > 0 ? (double) totalProcessingTime / processedTexts : 0.0;
         }
 
-        public double getErrorRate() {
+        public synchronized double getErrorRate() {
             return processedTexts > 0 ? (double) errors / processedTexts : 0.0;
         }
 
@@ -1561,7 +1870,7 @@ public class EntityResolver {
         }
 
         @Override
-        public String toString() {
+        public synchronized String toString() {
             StringBuilder sb = new StringBuilder();
             sb.append("EntityResolutionStats{\n");
             sb.append("  Processed texts: ")
@@ -5,6 +5,8 @@ import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
+import view.TokenView;
+
 /**
  * Grammar Enforcer for Enhanced NLP Processing
  * Provides comprehensive grammar checking, correction, and enforcement
@@ -12,6 +14,16 @@ import java.util.stream.Collectors;
  */
 public class GrammarEnforcer {
 
+    private static final Set<String> ALWAYS_CAPITALIZE =
+        new HashSet<>(Arrays.asList("monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday",
+                                    "january", "february", "march", "april", "may", "june", "july", "august",
+                                    "september", "october", "november", "december", "mr", "mrs", "ms", "dr", "prof",
+                                    "ceo", "cfo", "cto", "vp", "president", "manager", "director", "supervisor",
+                                    "coordinator", "administrator", "sql", "api", "url", "http", "https", "xml",
+                                    "json", "csv", "pdf", "microsoft", "google", "apple", "amazon", "oracle",
+                                    "salesforce", "contract", "invoice", "account", "customer", "client",
+                                    "project"));
+
     // Grammar rule sets
     private Map<String, String> subjectVerbAgreementRules;
     private Map<String, String> articleRules;
@@ -435,7 +447,21 @@ public class GrammarEnforcer {
             return input;
         }
 
-        String result = input;
+        TokenView words = TokenView.of(input);
+        enforceGrammar(words);
+        return words.toString();
+    }
+
+    /**
+     * Enforce grammar rules on the words of a view; the phrase rules rewrite the text, which is
+     * handed back to the view, and capitalization works on the words in place
+     */
+    public void enforceGrammar(TokenView words) {
+        if (words.isEmpty()) {
+            return;
+        }
+
+        String result = words.toString();
 
         // Apply business phrase corrections
         result = applyBusinessPhraseCorrections(result);
@@ -459,12 +485,11 @@ public class GrammarEnforcer {
         result = applySentencePatternCorrections(result);
 
         // Apply capitalization rules
-        result = applyCapitalizationRules(result);
+        words.reset(applyCapitalizationRules(result));
+        capitalizeProperNouns(words);
 
         // Apply punctuation rules
-        result = applyPunctuationRules(result);
-
-        return result.trim();
+        words.reset(applyPunctuationRules(words.toString()).trim());
     }
 
     /**
@@ -587,9 +612,6 @@ public class GrammarEnforcer {
                 sentence =
                     Character.toUpperCase(sentence.charAt(0)) + (sentence.length() > 1 ? sentence.substring(1) : "");
 
-                // Capitalize proper nouns and business terms
-                sentence = capitalizeProperNouns(sentence);
-
                 result.append(sentence);
 
                 // Add appropriate punctuation
@@ -609,28 +631,27 @@ public class GrammarEnforcer {
     }
 
     /**
-     * Capitalize proper nouns and business terms
+     * Capitalize sentence starts, proper nouns and business terms in place
      */
-    private String capitalizeProperNouns(String sentence) {
-        String[] words = sentence.split("\\s+");
-        StringBuilder result = new StringBuilder();
-
-        for (int i = 0; i < words.length; i++) {
-            String word = words[i];
-            String cleanWord = word.replaceAll("[^a-zA-Z]", "").toLowerCase();
-
+    private void capitalizeProperNouns(TokenView words) {
+        for (int i = 0; i < words.size(); i++) {
             // Capitalize business terms that should be capitalized
-            if (shouldCapitalize(cleanWord, i == 0)) {
-                word = capitalizeWord(word);
-            }
-
-            result.append(word);
-            if (i < words.length - 1) {
-                result.append(" ");
+            if (shouldCapitalize(words.letters(i), isSentenceStart(words, i))) {
+                words.set(i, capitalizeWord(words.get(i)));
             }
         }
+    }
 
-        return result.toString();
+    /**
+     * True for the first word and for words following one that ends a sentence
+     */
+    private boolean isSentenceStart(TokenView words, int index) {
+        if (index == 0) {
+            return true;
+        }
+        String previous = words.get(index - 1);
+        char last = previous.charAt(previous.length() - 1);
+        return last == '.' || last == '!' || last == '?';
     }
 
     /**
@@ -642,17 +663,7 @@ public class GrammarEnforcer {
         }
 
         // Capitalize specific business terms
-        Set<String> alwaysCapitalize =
-            new HashSet<>(Arrays.asList("monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday",
-                                        "january", "february", "march", "april", "may", "june", "july", "august",
-                                        "september", "october", "november", "december", "mr", "mrs", "ms", "dr", "prof",
-                                        "ceo", "cfo", "cto", "vp", "president", "manager", "director", "supervisor",
-                                        "coordinator", "administrator", "sql", "api", "url", "http", "https", "xml",
-                                        "json", "csv", "pdf", "microsoft", "google", "apple", "amazon", "oracle",
-                                        "salesforce", "contract", "invoice", "account", "customer", "client",
-                                        "project"));
-
-        return alwaysCapitalize.contains(word.toLowerCase());
+        return ALWAYS_CAPITALIZE.contains(word.toLowerCase());
     }
 
     /**
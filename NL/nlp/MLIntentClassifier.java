@@ -1,6 +1,10 @@
 package view.nlp;
 
+import view.ModelLoader;
+import view.ModelRegistry;
 import view.ParsedQuery;
+import view.ShortQueryPath;
+import view.TokenView;
 
 import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTaggerME;
@@ -8,7 +12,6 @@ import opennlp.tools.tokenize.TokenizerME;
 import opennlp.tools.tokenize.TokenizerModel;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -18,25 +21,57 @@ import java.util.regex.Pattern;
 /**
  * Machine learning-based intent classification using OpenNLP models
  */
-public class MLIntentClassifier {
-
+public class MLIntentClassifier implements AutoCloseable {
+
+    // Precompiled patterns and immutable word sets shared by all instances
+    private static final Pattern ACCOUNT_PATTERN = Pattern.compile("\\baccount\\s+(\\w+)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONTRACT_NUMBER_PATTERN = Pattern.compile("\\b\\d{6}\\b");
+    private static final Pattern PART_NUMBER_PATTERN = Pattern.compile("\\b[A-Z0-9]{3,}\\b");
+
+    private static final Set<String> COMMON_WORDS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("THE", "AND", "FOR", "ARE", "BUT", "NOT", "YOU", "ALL",
+                                                                "CAN", "HER", "WAS", "ONE", "OUR", "HAD", "WHAT", "SO",
+                                                                "UP", "OUT", "IF", "ABOUT", "WHO", "GET", "WHICH", "GO",
+                                                                "ME")));
+    private static final Set<String> USER_KEYWORDS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("user", "person", "employee", "rep", "representative")));
+    private static final Set<String> CUSTOMER_KEYWORDS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("customer", "client", "company", "organization")));
+    private static final Set<String> STATUS_TYPES =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("active", "inactive", "expired", "pending",
+                                                                "cancelled")));
+
+    // Wrappers are per instance; the models behind them are shared JVM-wide through ModelRegistry
     private TokenizerME tokenizer;
     private POSTaggerME posTagger;
+    private final List<ModelRegistry.Lease<?>> modelLeases = new ArrayList<>();
     private Map<String, Set<String>> intentPatterns;
     private Map<String, Pattern> contextPatterns;
 
+    // Reused for every query - like the OpenNLP tools above, an instance serves one thread at a time
+    private final ExtractedEntities extractedEntities = new ExtractedEntities();
+
+    // Short queries the patterns resolve skip the tokenizer and tagger
+    private final ShortQueryPath fastPath = new ShortQueryPath();
+
     public MLIntentClassifier(String modelBasePath) throws IOException {
-        initializeModels(modelBasePath);
+        try {
+            initializeModels(modelBasePath);
+        } catch (IOException | RuntimeException e) {
+            // Give back the leases taken before the failure; nothing else will close this instance
+            close();
+            throw e;
+        }
         initializeIntentPatterns();
         initializeContextPatterns();
     }
 
     private void initializeModels(String modelBasePath) throws IOException {
         // Initialize OpenNLP models
-        TokenizerModel tokenizerModel = new TokenizerModel(getModelInputStream(modelBasePath + "en-token.bin"));
+        TokenizerModel tokenizerModel = loadModel(modelBasePath + "en-token.bin", TokenizerModel::new);
         tokenizer = new TokenizerME(tokenizerModel);
 
-        POSModel posModel = new POSModel(getModelInputStream(modelBasePath + "en-pos-maxent.bin"));
+        POSModel posModel = loadModel(modelBasePath + "en-pos-maxent.bin", POSModel::new);
         posTagger = new POSTaggerME(posModel);
     }
 
@@ -108,17 +143,20 @@ public class MLIntentClassifier {
                                             Pattern.CASE_INSENSITIVE));
     }
 
-    private InputStream getModelInputStream(String modelPath) throws IOException {
+    private <T> T loadModel(String modelPath, ModelLoader.ModelReader<T> reader) throws IOException {
         File modelFile = new File(modelPath);
         if (modelFile.exists()) {
-            return new FileInputStream(modelFile);
+            ModelRegistry.Lease<T> lease = ModelRegistry.acquire(modelPath, reader);
+            modelLeases.add(lease);
+            return lease.get();
         } else {
-            // Try to load from classpath
-            InputStream stream = getClass().getClassLoader().getResourceAsStream(modelPath);
-            if (stream == null) {
-                throw new IOException("Model file not found: " + modelPath);
+            // Try to load from classpath (not shared)
+            try (InputStream stream = getClass().getClassLoader().getResourceAsStream(modelPath)) {
+                if (stream == null) {
+                    throw new IOException("Model file not found: " + modelPath);
+                }
+                return reader.read(stream);
             }
-            return stream;
         }
     }
 
@@ -137,17 +175,34 @@ public class MLIntentClassifier {
 
         String normalizedQuery = query.toLowerCase().trim();
 
-        // Tokenize the query
-        String[] tokens = tokenizer.tokenize(normalizedQuery);
+        String[] tokens;
+        String[] posTags;
+        String intentString;
+        String[] shortTokens = shortQueryTokens(normalizedQuery);
+        String patternIntent = shortTokens != null ? resolveUsingPatterns(normalizedQuery, shortTokens) : null;
+        if (patternIntent != null) {
+            // Fast path: whitespace tokens tagged by shape; proper nouns only matter next to user or
+            // customer words, and those queries never get here
+            fastPath.recordFastPath();
+            tokens = shortTokens;
+            posTags = ShortQueryPath.tagByShape(tokens);
+            intentString = patternIntent;
+        } else {
+            fastPath.recordModelPath(shortTokens != null);
+
+            // Tokenize the query
+            tokens = tokenizer.tokenize(normalizedQuery);
+
+            // Get POS tags
+            posTags = posTagger.tag(tokens);
 
-        // Get POS tags
-        String[] posTags = posTagger.tag(tokens);
+            // Classify intent using multiple approaches
+            intentString = classifyUsingPatterns(normalizedQuery, tokens);
+        }
 
         // Extract entities and features
-        Map<String, Object> entities = extractEntities(tokens, posTags, normalizedQuery);
+        ExtractedEntities entities = extractEntities(tokens, posTags);
 
-        // Classify intent using multiple approaches
-        String intentString = classifyUsingPatterns(normalizedQuery, tokens);
         double confidence = calculateConfidence(intentString, tokens, normalizedQuery);
 
         // Create and populate ParsedQuery
@@ -242,38 +297,26 @@ public class MLIntentClassifier {
         }
     }
 
-    private void populateEntities(ParsedQuery parsedQuery, Map<String, Object> entities, String[] tokens,
+    private void populateEntities(ParsedQuery parsedQuery, ExtractedEntities entities, String[] tokens,
                                   String query) {
         // Extract contract numbers
-        if (entities.containsKey("contract_numbers")) {
-            @SuppressWarnings("unchecked")
-            List<String> contractNumbers = (List<String>) entities.get("contract_numbers");
-            if (!contractNumbers.isEmpty()) {
-                parsedQuery.setContractNumber(contractNumbers.get(0));
-            }
+        if (!entities.contractNumbers.isEmpty()) {
+            parsedQuery.setContractNumber(entities.contractNumbers.get(0));
         }
 
         // Extract part numbers
-        if (entities.containsKey("part_numbers")) {
-            @SuppressWarnings("unchecked")
-            List<String> partNumbers = (List<String>) entities.get("part_numbers");
-            if (!partNumbers.isEmpty()) {
-                parsedQuery.setPartNumber(partNumbers.get(0));
-            }
+        if (!entities.partNumbers.isEmpty()) {
+            parsedQuery.setPartNumber(entities.partNumbers.get(0));
         }
 
         // Extract user names from proper nouns
-        if (entities.containsKey("proper_nouns")) {
-            @SuppressWarnings("unchecked")
-            List<String> properNouns = (List<String>) entities.get("proper_nouns");
-            if (!properNouns.isEmpty()) {
-                // Try to determine if it's a user name or customer name based on context
-                String firstProperNoun = properNouns.get(0);
-                if (containsUserContext(tokens)) {
-                    parsedQuery.setUserName(firstProperNoun);
-                } else if (containsCustomerContext(tokens)) {
-                    parsedQuery.setCustomerName(firstProperNoun);
-                }
+        if (!entities.properNouns.isEmpty()) {
+            // Try to determine if it's a user name or customer name based on context
+            String firstProperNoun = entities.properNouns.get(0);
+            if (containsUserContext(tokens)) {
+                parsedQuery.setUserName(firstProperNoun);
+            } else if (containsCustomerContext(tokens)) {
+                parsedQuery.setCustomerName(firstProperNoun);
             }
         }
 
@@ -284,17 +327,15 @@ public class MLIntentClassifier {
         }
 
         // Extract account numbers (could be similar to contract numbers but in different context)
-        Pattern accountPattern = Pattern.compile("\\baccount\\s+(\\w+)\\b", Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher accountMatcher = accountPattern.matcher(query);
+        java.util.regex.Matcher accountMatcher = ACCOUNT_PATTERN.matcher(query);
         if (accountMatcher.find()) {
             parsedQuery.setAccountNumber(accountMatcher.group(1));
         }
     }
 
     private boolean containsUserContext(String[] tokens) {
-        Set<String> userKeywords = new HashSet<>(Arrays.asList("user", "person", "employee", "rep", "representative"));
         for (String token : tokens) {
-            if (userKeywords.contains(token)) {
+            if (USER_KEYWORDS.contains(token)) {
                 return true;
             }
         }
@@ -302,9 +343,8 @@ public class MLIntentClassifier {
     }
 
     private boolean containsCustomerContext(String[] tokens) {
-        Set<String> customerKeywords = new HashSet<>(Arrays.asList("customer", "client", "company", "organization"));
         for (String token : tokens) {
-            if (customerKeywords.contains(token)) {
+            if (CUSTOMER_KEYWORDS.contains(token)) {
                 return true;
             }
         }
@@ -312,9 +352,8 @@ public class MLIntentClassifier {
     }
 
     private String extractStatusType(String[] tokens) {
-        Set<String> statusTypes = new HashSet<>(Arrays.asList("active", "inactive", "expired", "pending", "cancelled"));
         for (String token : tokens) {
-            if (statusTypes.contains(token)) {
+            if (STATUS_TYPES.contains(token)) {
                 return token;
             }
         }
@@ -350,6 +389,72 @@ public class MLIntentClassifier {
                            .orElse("UNKNOWN");
     }
 
+    /**
+     * Whitespace tokens of a query eligible for the fast path with none of them a user or customer
+     * word. Null otherwise.
+     */
+    private String[] shortQueryTokens(String query) {
+        TokenView view = fastPath.tokens(query);
+        if (view == null) {
+            return null;
+        }
+        for (int i = 0; i < view.size(); i++) {
+            if (USER_KEYWORDS.contains(view.get(i)) || CUSTOMER_KEYWORDS.contains(view.get(i))) {
+                return null;
+            }
+        }
+        return view.toArray();
+    }
+
+    /**
+     * Intent the patterns settle on their own: a context pattern match, or one intent with strictly
+     * more keyword hits than any other. Null when the pattern tier is ambiguous.
+     */
+    private String resolveUsingPatterns(String query, String[] tokens) {
+        for (Map.Entry<String, Pattern> entry : contextPatterns.entrySet()) {
+            if (entry.getValue()
+                     .matcher(query)
+                     .matches()) {
+                return mapContextToIntent(entry.getKey());
+            }
+        }
+
+        String bestIntent = null;
+        int bestScore = 0;
+        boolean tied = false;
+        for (Map.Entry<String, Set<String>> entry : intentPatterns.entrySet()) {
+            int score = 0;
+            for (String token : tokens) {
+                if (entry.getValue().contains(token)) {
+                    score++;
+                }
+            }
+            if (score > bestScore) {
+                bestIntent = entry.getKey();
+                bestScore = score;
+                tied = false;
+            } else if (score == bestScore && score > 0) {
+                tied = true;
+            }
+        }
+        return tied ? null : bestIntent;
+    }
+
+    /**
+     * Longest query, in whitespace tokens, eligible for the fast path; 0 turns it off
+     */
+    public void setFastPathMaxTokens(int maxTokens) {
+        fastPath.setMaxTokens(maxTokens);
+    }
+
+    public int getFastPathMaxTokens() {
+        return fastPath.getMaxTokens();
+    }
+
+    public String getPathStats() {
+        return fastPath.getStats();
+    }
+
     private String mapContextToIntent(String contextKey) {
         switch (contextKey) {
         case "CONTRACT_CONTEXT":
@@ -371,66 +476,75 @@ public class MLIntentClassifier {
         }
     }
 
-    private Map<String, Object> extractEntities(String[] tokens, String[] posTags, String query) {
-        Map<String, Object> entities = new HashMap<>();
-
-        // Extract contract numbers (6-digit patterns)
-        Pattern contractPattern = Pattern.compile("\\b\\d{6}\\b");
-        java.util.regex.Matcher contractMatcher = contractPattern.matcher(query);
-        List<String> contractNumbers = new ArrayList<>();
-        while (contractMatcher.find()) {
-            contractNumbers.add(contractMatcher.group());
-        }
-        if (!contractNumbers.isEmpty()) {
-            entities.put("contract_numbers", contractNumbers);
-        }
+    /**
+     * Collects contract numbers, part numbers, proper nouns and CD numbers in a single pass over
+     * the POS-tagged tokens. Contract numbers are 6-digit runs and part numbers are runs of 3+
+     * letters/digits (reported upper case) that are not common words, as with the former
+     * \\b\\d{6}\\b and \\b[A-Z0-9]{3,}\\b scans over the query.
+     */
+    private ExtractedEntities extractEntities(String[] tokens, String[] posTags) {
+        ExtractedEntities entities = extractedEntities;
+        entities.clear();
 
-        // Extract part numbers (alphanumeric patterns)
-        Pattern partPattern = Pattern.compile("\\b[A-Z0-9]{3,}\\b");
-        java.util.regex.Matcher partMatcher = partPattern.matcher(query.toUpperCase());
-        List<String> partNumbers = new ArrayList<>();
-        while (partMatcher.find()) {
-            String part = partMatcher.group();
-            // Filter out common words that might match the pattern
-            if (!isCommonWord(part)) {
-                partNumbers.add(part);
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+
+            // Walk the word-character runs of the token
+            int runStart = -1;
+            boolean alphanumericRun = true;
+            boolean digitRun = true;
+            for (int j = 0; j <= token.length(); j++) {
+                char c = j < token.length() ? token.charAt(j) : ' ';
+                if (isAsciiWordChar(c)) {
+                    if (runStart < 0) {
+                        runStart = j;
+                        alphanumericRun = true;
+                        digitRun = true;
+                    }
+                    alphanumericRun &= c != '_';
+                    digitRun &= c >= '0' && c <= '9';
+                } else if (runStart >= 0) {
+                    collectIdentifierRun(entities, token, runStart, j, alphanumericRun, digitRun);
+                    runStart = -1;
+                }
             }
-        }
-        if (!partNumbers.isEmpty()) {
-            entities.put("part_numbers", partNumbers);
-        }
 
-        // Extract proper nouns (potential names, companies)
-        List<String> properNouns = new ArrayList<>();
-        for (int i = 0; i < tokens.length; i++) {
-            if (posTags[i].startsWith("NNP")) {
-                properNouns.add(tokens[i]);
+            // Proper nouns (potential names, companies) and numbers
+            String tag = posTags[i];
+            if (tag.startsWith("NNP")) {
+                entities.properNouns.add(token);
+            } else if (tag.equals("CD")) {
+                entities.numbers.add(token);
             }
         }
-        if (!properNouns.isEmpty()) {
-            entities.put("proper_nouns", properNouns);
+
+        return entities;
+    }
+
+    private void collectIdentifierRun(ExtractedEntities entities, String token, int start, int end,
+                                      boolean alphanumericRun, boolean digitRun) {
+        int length = end - start;
+        if (!alphanumericRun || length < 3) {
+            return;
         }
 
-        // Extract numbers
-        List<String> numbers = new ArrayList<>();
-        for (int i = 0; i < tokens.length; i++) {
-            if (posTags[i].equals("CD")) {
-                numbers.add(tokens[i]);
-            }
+        String run = start == 0 && end == token.length() ? token : token.substring(start, end);
+        if (digitRun && length == 6) {
+            entities.contractNumbers.add(run);
         }
-        if (!numbers.isEmpty()) {
-            entities.put("numbers", numbers);
+
+        String upper = run.toUpperCase(Locale.ROOT);
+        if (!isCommonWord(upper)) {
+            entities.partNumbers.add(upper);
         }
+    }
 
-        return entities;
+    private static boolean isAsciiWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 
     private boolean isCommonWord(String word) {
-        Set<String> commonWords =
-            new HashSet<>(Arrays.asList("THE", "AND", "FOR", "ARE", "BUT", "NOT", "YOU", "ALL", "CAN", "HER", "WAS",
-                                        "ONE", "OUR", "HAD", "BUT", "WHAT", "SO", "UP", "OUT", "IF", "ABOUT", "WHO",
-                                        "GET", "WHICH", "GO", "ME"));
-        return commonWords.contains(word);
+        return COMMON_WORDS.contains(word);
     }
 
     private double calculateConfidence(String intent, String[] tokens, String query) {
@@ -463,11 +577,11 @@ public class MLIntentClassifier {
         }
 
         // Additional confidence boost for specific entity matches
-        if (query.matches(".*\\b\\d{6}\\b.*")) { // Contains contract number
+        if (CONTRACT_NUMBER_PATTERN.matcher(query).find()) { // Contains contract number
             confidence = Math.max(confidence, 0.7);
         }
 
-        if (query.matches(".*\\b[A-Z0-9]{3,}\\b.*")) { // Contains part number
+        if (PART_NUMBER_PATTERN.matcher(query).find()) { // Contains part number
             confidence = Math.max(confidence, 0.6);
         }
 
@@ -593,12 +707,33 @@ public class MLIntentClassifier {
         return results;
     }
 
+    /**
+     * Reusable holder for the entities extracted from one query
+     */
+    private static final class ExtractedEntities {
+        final List<String> contractNumbers = new ArrayList<>();
+        final List<String> partNumbers = new ArrayList<>();
+        final List<String> properNouns = new ArrayList<>();
+        final List<String> numbers = new ArrayList<>();
+
+        void clear() {
+            contractNumbers.clear();
+            partNumbers.clear();
+            properNouns.clear();
+            numbers.clear();
+        }
+    }
+
     /**
      * Cleanup resources
      */
+    @Override
     public void close() {
-        // OpenNLP models don't require explicit cleanup, but this method
-        // is provided for future extensibility
+        // Release the shared models; the registry drops them once no instance holds them
+        for (ModelRegistry.Lease<?> lease : modelLeases) {
+            lease.close();
+        }
+        modelLeases.clear();
         tokenizer = null;
         posTagger = null;
         intentPatterns = null;
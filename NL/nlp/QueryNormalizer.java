@@ -6,6 +6,8 @@ import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 import java.text.Normalizer;
 
+import view.TokenView;
+
 /**
  * QueryNormalizer - Advanced query preprocessing and normalization for chatbot applications
  * Handles text cleaning, standardization, expansion, and preparation for NLP processing
@@ -48,7 +50,7 @@ public class QueryNormalizer {
     private final Map<String, String> domainSpecificTerms;
     
     // Statistics
-    private QueryNormalizationStats stats;
+    private volatile QueryNormalizationStats stats;
     
     // Configuration
     private boolean preserveCase = false;
@@ -479,9 +481,18 @@ public class QueryNormalizer {
             return new QueryNormalizationResult("", "", 0.0, "Null input");
         }
         
+        return normalize(TokenView.of(query));
+    }
+    
+    /**
+     * Normalize the words of a view, which holds the normalized query afterwards. The rewrite
+     * steps run on the joined words; stop words are dropped from the view in place.
+     */
+    public QueryNormalizationResult normalize(TokenView words) {
         long startTime = System.currentTimeMillis();
         stats.incrementProcessedQueries();
         
+        String query = words.toString();
         try {
             String originalQuery = query;
             List<String> appliedTransformations = new ArrayList<>();
@@ -624,9 +635,11 @@ public class QueryNormalizer {
             
             // Step 18: Stop word removal (optional for chatbots)
             if (ENABLE_STOPWORD_REMOVAL) {
-                String stopWordsRemoved = removeStopWords(query);
-                if (!stopWordsRemoved.equals(query)) {
-                    query = stopWordsRemoved;
+                words.reset(query);
+                int wordCount = words.size();
+                removeStopWords(words);
+                if (words.size() != wordCount) {
+                    query = words.toString();
                     appliedTransformations.add("stopword_removal");
                 }
             }
@@ -638,6 +651,7 @@ public class QueryNormalizer {
             // Step 20: Final validation and cleanup
             query = query.trim();
             if (query.isEmpty()) {
+                words.reset(originalQuery);
                 return new QueryNormalizationResult(originalQuery, originalQuery, 0.3, "Normalization resulted in empty query");
             }
             
@@ -649,6 +663,7 @@ public class QueryNormalizer {
             stats.addProcessingTime(processingTime);
             stats.addTransformationCount(appliedTransformations.size());
             
+            words.reset(query);
             return new QueryNormalizationResult(
                 originalQuery, 
                 query, 
@@ -660,6 +675,7 @@ public class QueryNormalizer {
             
         } catch (Exception e) {
             stats.incrementErrors();
+            words.reset(query);
             return new QueryNormalizationResult(
                 query, 
                 query, 
@@ -860,20 +876,18 @@ public class QueryNormalizer {
     }
     
     /**
-     * Remove stop words
+     * Drop stop words from the view in place
      */
-    private String removeStopWords(String query) {
-        String[] words = query.split("\\s+");
-        List<String> filteredWords = new ArrayList<>();
-        
-        for (String word : words) {
-            String cleanWord = word.toLowerCase().replaceAll("[^a-z]", "");
+    private void removeStopWords(TokenView words) {
+        int i = 0;
+        while (i < words.size()) {
+            String cleanWord = words.letters(i);
             if (!stopWords.contains(cleanWord) || businessStopWords.contains(cleanWord)) {
-                filteredWords.add(word);
+                i++;
+            } else {
+                words.remove(i);
             }
         }
-        
-        return String.join(" ", filteredWords);
     }
     
     /**
@@ -1272,7 +1286,8 @@ public class QueryNormalizer {
     }
     
     /**
-     * Inner class for normalization statistics
+     * Inner class for normalization statistics. Thread-safe: one normalizer is shared by all
+     * EnhancedNLPProcessor instances.
      */
     public static class QueryNormalizationStats {
         private int processedQueries = 0;
@@ -1282,43 +1297,43 @@ public class QueryNormalizer {
         private final Map<String, Integer> transformationCounts = new HashMap<>();
         private final long startTime = System.currentTimeMillis();
         
-        public void incrementProcessedQueries() {
+        public synchronized void incrementProcessedQueries() {
             processedQueries++;
         }
         
-        public void incrementErrors() {
+        public synchronized void incrementErrors() {
             errors++;
         }
         
-        public void addProcessingTime(long time) {
+        public synchronized void addProcessingTime(long time) {
             totalProcessingTime += time;
         }
         
-        public void addTransformationCount(int count) {
+        public synchronized void addTransformationCount(int count) {
             totalTransformations += count;
         }
         
-        public void addTransformation(String transformation) {
+        public synchronized void addTransformation(String transformation) {
             transformationCounts.merge(transformation, 1, Integer::sum);
         }
         
         // Getters
-        public int getProcessedQueries() { return processedQueries; }
-        public int getErrors() { return errors; }
-        public long getTotalProcessingTime() { return totalProcessingTime; }
-        public int getTotalTransformations() { return totalTransformations; }
-        public Map<String, Integer> getTransformationCounts() { return new HashMap<>(transformationCounts); }
+        public synchronized int getProcessedQueries() { return processedQueries; }
+        public synchronized int getErrors() { return errors; }
+        public synchronized long getTotalProcessingTime() { return totalProcessingTime; }
+        public synchronized int getTotalTransformations() { return totalTransformations; }
+        public synchronized Map<String, Integer> getTransformationCounts() { return new HashMap<>(transformationCounts); }
         public long getStartTime() { return startTime; }
         
-        public double getAverageProcessingTime() {
+        public synchronized double getAverageProcessingTime() {
             return processedQueries > 0 ? (double) totalProcessingTime / processedQueries : 0.0;
         }
         
-        public double getAverageTransformationsPerQuery() {
+        public synchronized double getAverageTransformationsPerQuery() {
             return processedQueries > 0 ? (double) totalTransformations / processedQueries : 0.0;
         }
         
-        public double getErrorRate() {
+        public synchronized double getErrorRate() {
             return processedQueries > 0 ? (double) errors / processedQueries : 0.0;
         }
         
@@ -1327,7 +1342,7 @@ public class QueryNormalizer {
         }
         
         @Override
-        public String toString() {
+        public synchronized String toString() {
             StringBuilder sb = new StringBuilder();
             sb.append("QueryNormalizationStats{\n");
             sb.append("  Processed queries: ").append(processedQueries).append("\n");
@@ -0,0 +1,290 @@
+package view.practice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One-pass lexer for business identifiers (contract, account, part and invoice numbers).
+ *
+ * Every word-character run of the input is classified from a character-class table, so
+ * callers scan the text once instead of running one regex per identifier type. Runs are
+ * bounded exactly like the \b-delimited patterns they replace: letters, digits and '_'
+ * join a run, anything else separates runs. Hyphenated identifiers (AE12345-12345678,
+ * 12345-ABC) are reported before their component runs, and the components are reported
+ * too, so "first match" semantics of the old patterns are preserved.
+ *
+ * Letters match in either case. ChatbotIntentProcessor's part pattern was case-insensitive and
+ * it scans lowercased input; PartsIntentClassifier's part and invoice patterns were upper case
+ * only, so it now also accepts "ae12345-12345678" and "12345-abc".
+ */
+public final class BusinessIdentifierLexer {
+
+    public enum IdentifierType {
+        CONTRACT_NUMBER, // \d{6}
+        ACCOUNT_NUMBER, // \d{9}
+        NUMBER, // any other digit run
+        PART_NUMBER, // [A-Za-z]{2}\d{5}-\d{8}
+        PART_CODE, // [A-Za-z]{2}\d{3,5}
+        INVOICE_NUMBER, // \d{4,8}-[A-Za-z]+
+        ALPHANUMERIC // any other run mixing letters and digits
+    }
+
+    // Character classes
+    private static final byte OTHER = 0;
+    private static final byte DIGIT = 1;
+    private static final byte LETTER = 2;
+    private static final byte UNDERSCORE = 3;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASS[c] = DIGIT;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASS[c] = LETTER;
+            CHAR_CLASS[Character.toUpperCase(c)] = LETTER;
+        }
+        CHAR_CLASS['_'] = UNDERSCORE;
+    }
+
+    private BusinessIdentifierLexer() {
+    }
+
+    /**
+     * Scan the text and return every identifier found, in order of position
+     */
+    public static Identifiers scan(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return Identifiers.EMPTY;
+        }
+
+        List<Identifier> found = new ArrayList<>();
+        Run current = new Run();
+        Run next = new Run();
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            if (!isWordChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            current.scan(text, i);
+
+            // Look ahead across a single hyphen for compound identifiers
+            boolean hasNext = false;
+            if (current.end + 1 < length && text.charAt(current.end) == '-' &&
+                isWordChar(text.charAt(current.end + 1))) {
+                next.scan(text, current.end + 1);
+                hasNext = true;
+
+                IdentifierType compound = classifyCompound(current, next);
+                if (compound != null) {
+                    found.add(new Identifier(compound, text, current.start, next.end));
+                }
+            }
+
+            IdentifierType type = classify(current);
+            if (type != null) {
+                found.add(new Identifier(type, text, current.start, current.end));
+            }
+
+            i = hasNext ? next.start : current.end;
+        }
+
+        return new Identifiers(found);
+    }
+
+    private static boolean isWordChar(char c) {
+        return c < 128 ? CHAR_CLASS[c] != OTHER : Character.isLetterOrDigit(c);
+    }
+
+    private static IdentifierType classify(Run run) {
+        if (!run.clean || run.digits == 0) {
+            return null;
+        }
+        if (run.letters == 0) {
+            if (run.digits == 6) {
+                return IdentifierType.CONTRACT_NUMBER;
+            }
+            if (run.digits == 9) {
+                return IdentifierType.ACCOUNT_NUMBER;
+            }
+            return IdentifierType.NUMBER;
+        }
+        if (run.isPartPrefix() && run.digits >= 3 && run.digits <= 5) {
+            return IdentifierType.PART_CODE;
+        }
+        return IdentifierType.ALPHANUMERIC;
+    }
+
+    private static IdentifierType classifyCompound(Run first, Run second) {
+        if (!first.clean || !second.clean) {
+            return null;
+        }
+        if (first.isPartPrefix() && first.digits == 5 && second.letters == 0 && second.digits == 8) {
+            return IdentifierType.PART_NUMBER;
+        }
+        if (first.letters == 0 && first.digits >= 4 && first.digits <= 8 && second.digits == 0) {
+            return IdentifierType.INVOICE_NUMBER;
+        }
+        return null;
+    }
+
+    /**
+     * Shape of one word-character run - reused between runs to keep the scan allocation free
+     */
+    private static final class Run {
+        int start;
+        int end;
+        int letters;
+        int digits;
+        int leadingLetters;
+        boolean clean; // only ASCII letters and digits
+
+        void scan(CharSequence text, int from) {
+            start = from;
+            letters = 0;
+            digits = 0;
+            leadingLetters = 0;
+            clean = true;
+
+            int i = from;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                byte charClass = c < 128 ? CHAR_CLASS[c] : (Character.isLetterOrDigit(c) ? UNDERSCORE : OTHER);
+                if (charClass == OTHER) {
+                    break;
+                }
+                if (charClass == DIGIT) {
+                    digits++;
+                } else if (charClass == LETTER) {
+                    letters++;
+                    if (digits == 0) {
+                        leadingLetters++;
+                    }
+                } else {
+                    clean = false;
+                }
+                i++;
+            }
+            end = i;
+        }
+
+        // Two letters followed only by digits
+        boolean isPartPrefix() {
+            return letters == 2 && leadingLetters == 2;
+        }
+    }
+
+    /**
+     * A classified identifier with its offsets in the scanned text
+     */
+    public static final class Identifier {
+        private final IdentifierType type;
+        private final String value;
+        private final int start;
+        private final int end;
+
+        Identifier(IdentifierType type, CharSequence text, int start, int end) {
+            this.type = type;
+            this.value = text.subSequence(start, end).toString();
+            this.start = start;
+            this.end = end;
+        }
+
+        public IdentifierType getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public boolean isNumeric() {
+            return type == IdentifierType.CONTRACT_NUMBER || type == IdentifierType.ACCOUNT_NUMBER ||
+                   type == IdentifierType.NUMBER;
+        }
+
+        @Override
+        public String toString() {
+            return type + "[" + start + "," + end + "]=" + value;
+        }
+    }
+
+    /**
+     * Identifiers found in one text, with the lookups the intent classifiers need
+     */
+    public static final class Identifiers {
+        static final Identifiers EMPTY = new Identifiers(Collections.<Identifier>emptyList());
+
+        private final List<Identifier> identifiers;
+
+        Identifiers(List<Identifier> identifiers) {
+            this.identifiers = identifiers;
+        }
+
+        /**
+         * First identifier of any of the given types, or null
+         */
+        public Identifier first(IdentifierType... types) {
+            for (Identifier identifier : identifiers) {
+                for (IdentifierType type : types) {
+                    if (identifier.type == type) {
+                        return identifier;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Value of the first identifier of any of the given types, or null
+         */
+        public String firstValue(IdentifierType... types) {
+            Identifier identifier = first(types);
+            return identifier != null ? identifier.value : null;
+        }
+
+        /**
+         * Value of the first all-digit run with a length in [minDigits, maxDigits], or null
+         */
+        public String firstNumber(int minDigits, int maxDigits) {
+            for (Identifier identifier : identifiers) {
+                int length = identifier.end - identifier.start;
+                if (identifier.isNumeric() && length >= minDigits && length <= maxDigits) {
+                    return identifier.value;
+                }
+            }
+            return null;
+        }
+
+        public boolean contains(IdentifierType type) {
+            return first(type) != null;
+        }
+
+        public List<Identifier> asList() {
+            return Collections.unmodifiableList(identifiers);
+        }
+
+        public int size() {
+            return identifiers.size();
+        }
+
+        @Override
+        public String toString() {
+            return identifiers.toString();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package view.practice;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import opennlp.tools.doccat.DoccatModel;
+import opennlp.tools.doccat.DocumentCategorizer;
+import opennlp.tools.doccat.DocumentCategorizerME;
+
+/**
+ * Pool of document categorizers sharing one immutable DoccatModel.
+ *
+ * DocumentCategorizerME keeps per-call scratch state, so one instance must not be used by
+ * two threads at once. Each borrow takes an idle categorizer from a lock-free queue; when
+ * the queue is empty a new categorizer is built on the shared model (cheap, the model is
+ * not copied). At most maxSize idle categorizers are kept; extras created under bursts are
+ * dropped on release.
+ *
+ * Business identifiers are masked to class placeholders before scoring, and results are cached
+ * by the masked token sequence (see ClassificationCache), so a cached result is exactly what
+ * scoring the query would give. The cache lives and dies with the pool, so reloading a model
+ * starts from an empty cache.
+ *
+ * MAXENT bag-of-words models are flattened into a LinearDoccatModel when the pool is built,
+ * and cache misses are scored by it instead of a pooled categorizer. Models that cannot be
+ * flattened, or that fail the parity check, stay on DocumentCategorizerME. With batching
+ * enabled, linear scoring of cache misses goes through a MicroBatcher shared by all sessions.
+ */
+public class CategorizerPool {
+
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    // Longest wait for a batched result before scoring directly; far above any sane maxWaitMicros
+    private static final long BATCH_TIMEOUT_MILLIS = 250;
+
+    private final String name;
+    private final DoccatModel model;
+    private final int maxSize;
+    private final Queue<DocumentCategorizer> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final ClassificationCache cache = new ClassificationCache(DEFAULT_CACHE_SIZE);
+    private final LinearDoccatModel linearModel;
+    private volatile MicroBatcher batcher;
+
+    // Metrics
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong creations = new AtomicLong();
+    private final AtomicLong totalBorrowNanos = new AtomicLong();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final AtomicLong batchFallbacks = new AtomicLong();
+
+    public CategorizerPool(String name, DoccatModel model) {
+        this(name, model, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CategorizerPool(String name, DoccatModel model, int maxSize) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.name = name;
+        this.model = model;
+        this.maxSize = maxSize;
+        this.linearModel = LinearDoccatModel.tryExport(name, model);
+    }
+
+    /**
+     * Categorize the tokens with identifiers masked, from the cache when the same phrasing was seen before
+     */
+    public Categorization categorize(String[] rawTokens) {
+        String[] tokens = ClassificationCache.mask(rawTokens);
+        String key = ClassificationCache.key(tokens);
+        Categorization cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Categorization result;
+        MicroBatcher currentBatcher = batcher;
+        CompletableFuture<Categorization> batched = currentBatcher != null ? currentBatcher.submit(tokens) : null;
+        if (batched != null) {
+            result = awaitBatched(batched);
+            if (result != null) {
+                cache.put(key, result);
+                return result;
+            }
+        }
+        if (linearModel != null) {
+            double[] outcomes = linearModel.newOutcomeArray();
+            int best = linearModel.score(tokens, outcomes);
+            result = new Categorization(outcomes, linearModel.getOutcome(best));
+            cache.put(key, result);
+            return result;
+        }
+
+        DocumentCategorizer categorizer = borrow();
+        try {
+            double[] outcomes = categorizer.categorize(tokens);
+            result = new Categorization(outcomes, categorizer.getBestCategory(outcomes));
+        } finally {
+            release(categorizer);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * The batched result, or null when the batcher failed or is too slow - then score directly
+     */
+    private Categorization awaitBatched(CompletableFuture<Categorization> batched) {
+        try {
+            return batched.get(BATCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            if (batchFallbacks.incrementAndGet() == 1) {
+                System.err.println(name + " batched scoring failed, scoring directly: " + e);
+            }
+        }
+        return null;
+    }
+
+    private DocumentCategorizer borrow() {
+        long start = System.nanoTime();
+        DocumentCategorizer categorizer = idle.poll();
+        if (categorizer != null) {
+            idleCount.decrementAndGet();
+        } else {
+            categorizer = new DocumentCategorizerME(model);
+            creations.incrementAndGet();
+        }
+        recordBorrow(System.nanoTime() - start);
+        return categorizer;
+    }
+
+    private void release(DocumentCategorizer categorizer) {
+        // Keep at most maxSize idle instances; the rest are left to the GC
+        if (idleCount.incrementAndGet() <= maxSize) {
+            idle.offer(categorizer);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    private void recordBorrow(long nanos) {
+        borrows.incrementAndGet();
+        totalBorrowNanos.addAndGet(nanos);
+        long max = maxBorrowNanos.get();
+        while (nanos > max && !maxBorrowNanos.compareAndSet(max, nanos)) {
+            max = maxBorrowNanos.get();
+        }
+    }
+
+    /**
+     * Build categorizers up front so the first requests do not pay for it
+     */
+    public void prewarm(int count) {
+        for (int i = 0; i < Math.min(count, maxSize); i++) {
+            creations.incrementAndGet();
+            release(new DocumentCategorizerME(model));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DoccatModel getModel() {
+        return model;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    public long getBorrowCount() {
+        return borrows.get();
+    }
+
+    public long getCreationCount() {
+        return creations.get();
+    }
+
+    public double getAverageBorrowMicros() {
+        long count = borrows.get();
+        return count == 0 ? 0.0 : totalBorrowNanos.get() / 1000.0 / count;
+    }
+
+    public double getMaxBorrowMicros() {
+        return maxBorrowNanos.get() / 1000.0;
+    }
+
+    /**
+     * Score cache misses in cross-session batches; only models with a linear scorer can batch
+     */
+    public synchronized void enableBatching(int maxBatchSize, long maxWaitMicros) {
+        if (linearModel == null) {
+            System.err.println(name + " model has no linear scorer, batching not enabled");
+            return;
+        }
+        MicroBatcher previous = batcher;
+        batcher = new MicroBatcher(name, linearModel, maxBatchSize, maxWaitMicros);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public synchronized void disableBatching() {
+        if (batcher != null) {
+            batcher.close();
+            batcher = null;
+        }
+    }
+
+    /**
+     * Release background resources once this pool has been replaced
+     */
+    public void close() {
+        disableBatching();
+    }
+
+    public boolean isLinearScoring() {
+        return linearModel != null;
+    }
+
+    public ClassificationCache getCache() {
+        return cache;
+    }
+
+    public String getStats() {
+        if (linearModel != null) {
+            MicroBatcher currentBatcher = batcher;
+            return String.format("%s: linear scorer (%d features); %s%s%s", name, linearModel.getNumFeatures(),
+                                 cache.getStats(), currentBatcher != null ? "; " + currentBatcher.getStats() : "",
+                                 batchFallbacks.get() > 0 ? "; " + batchFallbacks.get() + " batch fallbacks" : "");
+        }
+        return String.format("%s pool: %d/%d idle, %d borrows, %d created, avg borrow %.1f us, max %.1f us; %s",
+                             name, getIdleCount(), maxSize, getBorrowCount(), getCreationCount(),
+                             getAverageBorrowMicros(), getMaxBorrowMicros(), cache.getStats());
+    }
+
+    /**
+     * Outcome of one categorization - shared through the cache, so treat outcomes as read-only
+     */
+    public static class Categorization {
+        private final double[] outcomes;
+        private final String bestCategory;
+
+        Categorization(double[] outcomes, String bestCategory) {
+            this.outcomes = outcomes;
+            this.bestCategory = bestCategory;
+        }
+
+        public double[] getOutcomes() {
+            return outcomes;
+        }
+
+        public String getBestCategory() {
+            return bestCategory;
+        }
+    }
+}
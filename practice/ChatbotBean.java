@@ -10,6 +10,8 @@ import oracle.adf.view.rich.render.ClientEvent;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import view.ChatMessage;
 
@@ -22,6 +24,8 @@ public class ChatbotBean {
     private RichInputText inputTextComponent;
     private boolean isProcessing;
     private String systemStatus;
+    // The reload command's model loads; their outcome is shown with the next message after they finish
+    private CompletableFuture<ChatbotIntentProcessor.ModelReloadResult> pendingReload;
 
     public ChatbotBean() {
         this.chatHistory = new ArrayList<>();
@@ -31,8 +35,11 @@ public class ChatbotBean {
         // Add welcome message
         addWelcomeMessage();
 
-        // Check if models are loaded
-        if (!ChatbotIntentProcessor.areModelsReady()) {
+        // Check if models are loaded - non-blocking, models keep loading in the background
+        if (!ChatbotIntentProcessor.isModelLoadingComplete()) {
+            addSystemMessage("? AI models are still loading. Answers use built-in rules until they are ready.", "info");
+            this.systemStatus = "Models loading";
+        } else if (!ChatbotIntentProcessor.areModelsReady()) {
             addSystemMessage("?? Warning: Some AI models are not loaded. Functionality may be limited.", "warning");
             this.systemStatus = "Models not fully loaded";
         } else {
@@ -109,6 +116,9 @@ public void processUserInput(ClientEvent clientEvent) {
             // Set processing state
             setProcessing(true);
             
+            // Report a model reload that finished since the last message
+            reportFinishedReload();
+            
             // Add user message to chat history
             chatHistory.add(new ChatMessage("You", userInput, new Date(), false));
             
@@ -592,7 +602,8 @@ public void processUserInput(ClientEvent clientEvent) {
         about.append("<strong>Version:</strong> 2.0.0<br>");
         about.append("<strong>Build:</strong> Enhanced Contract Creation<br>");
         about.append("<strong>Release Date:</strong> ").append(new Date().toString().substring(0, 10)).append("<br>");
-        about.append("<strong>Platform:</strong> Oracle ADF + Apache OpenNLP");
+        about.append("<strong>Platform:</strong> Oracle ADF + Apache OpenNLP<br>");
+        about.append("<strong>Models:</strong> ").append(ChatbotIntentProcessor.getActiveModelVersions());
         about.append("</div>");
         about.append("</div>");
         
@@ -685,24 +696,22 @@ public void processUserInput(ClientEvent clientEvent) {
     */
     private String handleReloadModels() {
        try {
-           // Reload AI models through intent processor
-           boolean success = ChatbotIntentProcessor.areModelsReady();
-           
-           if (success) {
-               return "<div style='padding: 15px; background-color: #d4edda; border: 1px solid #c3e6cb; border-radius: 8px; color: #155724;'>" +
-                      "? <strong>Models Reloaded Successfully!</strong><br><br>" +
-                      "? Natural Language Processing models have been refreshed<br>" +
-                      "? Intent recognition capabilities updated<br>" +
-                      "? System performance optimized<br><br>" +
-                      "The chatbot is now ready with the latest AI improvements!" +
-                      "</div>";
-           } else {
-               return "<div style='padding: 15px; background-color: #f8d7da; border: 1px solid #f5c6cb; border-radius: 8px; color: #721c24;'>" +
-                      "?? <strong>Model Reload Warning</strong><br><br>" +
-                      "Some models may not have reloaded completely, but the system is still functional.<br>" +
-                      "If you experience issues, please contact system administrator." +
+           if (pendingReload != null && !pendingReload.isDone()) {
+               return "<div style='padding: 15px; background-color: #fff3cd; border: 1px solid #ffeaa7; border-radius: 8px; color: #856404;'>" +
+                      "? <strong>Model Reload In Progress</strong><br><br>" +
+                      "The previous reload has not finished yet. Its result will be shown with your next message." +
                       "</div>";
            }
+           // Reload in the background; the current model versions keep answering until each new one is
+           // warmed up, validated and swapped in. The outcome is reported once every load has finished.
+           pendingReload = ChatbotIntentProcessor.reloadModels();
+           return "<div style='padding: 15px; background-color: #d4edda; border: 1px solid #c3e6cb; border-radius: 8px; color: #155724;'>" +
+                  "? <strong>Model Reload Started</strong><br><br>" +
+                  "? New model versions are loading and warming up in the background<br>" +
+                  "? Each one is validated before it replaces the current version<br>" +
+                  "? Conversations in progress are not interrupted<br><br>" +
+                  "The result will be shown with your next message once the reload has finished." +
+                  "</div>";
        } catch (Exception e) {
            System.err.println("? Error reloading models: " + e.getMessage());
            return "<div style='padding: 15px; background-color: #f8d7da; border: 1px solid #f5c6cb; border-radius: 8px; color: #721c24;'>" +
@@ -713,6 +722,39 @@ public void processUserInput(ClientEvent clientEvent) {
        }
     }
 
+    /**
+    * Add the outcome of a finished model reload to the chat, once
+    */
+    private void reportFinishedReload() {
+       if (pendingReload == null || !pendingReload.isDone()) {
+           return;
+       }
+       CompletableFuture<ChatbotIntentProcessor.ModelReloadResult> reload = pendingReload;
+       pendingReload = null;
+       ChatbotIntentProcessor.ModelReloadResult result;
+       try {
+           result = reload.join();
+       } catch (Exception e) {
+           addSystemMessage("? <strong>Model Reload Failed</strong><br>Error: " + e.getMessage() +
+                            "<br>The previous model versions are still in use.", "error");
+           return;
+       }
+       if (result.isSuccessful()) {
+           addSystemMessage("? <strong>Models Reloaded</strong><br>" +
+                            "New model versions were warmed up and validated before replacing the current ones.<br>" +
+                            "Active: " + result.getActiveVersions(), "success");
+           return;
+       }
+       StringBuilder message = new StringBuilder();
+       message.append("?? <strong>Model Reload Incomplete</strong><br>");
+       for (Map.Entry<String, String> failure : result.getFailures().entrySet()) {
+           message.append("? ").append(failure.getKey()).append(" not reloaded: ").append(failure.getValue())
+                  .append("<br>");
+       }
+       message.append("Those models keep their previous versions. Active: ").append(result.getActiveVersions());
+       addSystemMessage(message.toString(), "warning");
+    }
+
     /**
     * Handle system errors with user-friendly messages
     */
@@ -1,23 +1,22 @@
 package view.practice;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import opennlp.tools.doccat.DoccatModel;
-import opennlp.tools.doccat.DocumentCategorizer;
-import opennlp.tools.doccat.DocumentCategorizerME;
-
 import oracle.adf.model.BindingContext;
 import oracle.adf.model.binding.DCBindingContainer;
 import oracle.adf.model.binding.DCIteratorBinding;
@@ -25,13 +24,15 @@ import oracle.adf.model.binding.DCIteratorBinding;
 import oracle.jbo.Row;
 import oracle.jbo.ViewObject;
 
+import view.ModelLoader;
+import view.TokenView;
+
+import view.practice.BusinessIdentifierLexer.IdentifierType;
+
 public class ChatbotIntentProcessor {
 
-    // Enhanced Pattern Matchers with better accuracy
-    private static final Pattern CONTRACT_PATTERN = Pattern.compile("\\b\\d{6}\\b");
-    private static final Pattern PART_NUMBER_PATTERN =
-        Pattern.compile("\\b[A-Z]{2}\\d{5}-\\d{8}\\b|\\b[A-Z]{2}\\d{3,5}\\b", Pattern.CASE_INSENSITIVE);
-    private static final Pattern ACCOUNT_NUMBER_PATTERN = Pattern.compile("\\b\\d{9}\\b");
+    // Contract (6 digits), part (XX#####-######## and XX###) and account (9 digits) numbers
+    // come from a single BusinessIdentifierLexer scan
 
     // Enhanced Customer Pattern - more flexible
     private static final Pattern CUSTOMER_PATTERN =
@@ -43,13 +44,23 @@ public class ChatbotIntentProcessor {
     private static final String PARTS_MODEL_PATH = "./models/en-parts.bin";
     private static final String HELP_MODEL_PATH = "./models/en-help.bin";
 
-    // Cached models
-    private static DoccatModel contractsModel;
-    private static DoccatModel partsModel;
-    private static DoccatModel helpModel;
-    private static DocumentCategorizer contractsClassifier;
-    private static DocumentCategorizer partsClassifier;
-    private static DocumentCategorizer helpClassifier;
+    // Golden query files, in doccat training format; a reloaded model must pass its file to go live
+    private static final String CONTRACTS_GOLDEN_PATH = "./models/en-contracts.golden";
+    private static final String PARTS_GOLDEN_PATH = "./models/en-parts.golden";
+    private static final String HELP_GOLDEN_PATH = "./models/en-help.golden";
+
+    // Versioned models; a reload is warmed up and validated in the background, then swapped in atomically
+    private static final ModelVersionRegistry CONTRACTS_MODELS =
+        new ModelVersionRegistry("Contracts", ChatbotIntentProcessor::configurePool);
+    private static final ModelVersionRegistry PARTS_MODELS =
+        new ModelVersionRegistry("Parts", ChatbotIntentProcessor::configurePool);
+    private static final ModelVersionRegistry HELP_MODELS =
+        new ModelVersionRegistry("Help", ChatbotIntentProcessor::configurePool);
+    private static volatile CompletableFuture<Void> modelsLoaded;
+
+    // Contract NER, merged with the lexer identifiers; entities come from the lexer alone until it is loaded
+    private static final String CONTRACT_NER_MODEL_PATH = "./models/" + ContractEntityFinder.DEFAULT_MODEL_PATH;
+    private static volatile ContractEntityFinder contractEntityFinder;
 
     // Enhanced Help Keywords
     private static final String[] HELP_KEYWORDS = {
@@ -63,44 +74,128 @@ public class ChatbotIntentProcessor {
         "generate contract", "contract creation", "show me how to create contract", "i want to create a contract"
     };
 
+    // Domain keywords for the keyword tier of the routing cascade
+    private static final String[] CONTRACT_DOMAIN_KEYWORDS = {
+        "contract", "agreement", "status", "history", "customer", "account"
+    };
+    private static final String[] PARTS_DOMAIN_KEYWORDS = {
+        "part", "component", "availability", "price", "stock", "inventory", "specification", "datasheet",
+        "manufacturer", "warranty", "compatible"
+    };
+
+    private static final double KEYWORD_TIER_THRESHOLD = 0.5;
+    // A domain model only counts once it reaches the confidence its intent handler accepts
+    private static final double DOMAIN_MODEL_THRESHOLD = 0.3;
+    // Least lead of one domain model over the other, in chance-corrected confidence
+    private static final double MODEL_TIER_MARGIN = 0.2;
+
+    // Message routing, cheapest tier first: precompiled rules, keyword scoring, then the doccat models.
+    // A keyword lead too thin for the threshold still wins when the models are loading or abstain, as it
+    // did before the models were consulted; only a keyword tie ends up ambiguous.
+    private static final ClassifierCascade<RoutingInput> ROUTING_CASCADE =
+        ClassifierCascade.<RoutingInput>builder("Routing")
+                         .tier("rules", 1.0,
+                               new ClassifierCascade.RuleSet<RoutingInput>(RoutingInput::getText)
+                               .anyOf(CONTRACT_CREATION_KEYWORDS, "create_contract", 1.0)
+                               .anyWordOf(HELP_KEYWORDS, "help", 1.0)
+                               .anyOf(new String[] { "parts of", "parts for" }, "contract_parts", 1.0)
+                               .anyOf(new String[] { "contracts associated with", "contracts with part" },
+                                      "part_contracts", 1.0))
+                         .tier("keywords", KEYWORD_TIER_THRESHOLD, ChatbotIntentProcessor::scoreDomainKeywords)
+                         .tier("models", MODEL_TIER_MARGIN, ChatbotIntentProcessor::scoreDomainModels)
+                         .fallback("ambiguous")
+                         .fallbackTier("keywords")
+                         .build();
+
     // Enhanced Typo Corrections
     private static final Map<String, String> TYPO_CORRECTIONS = new HashMap<>();
+    // Corrections whose typo spans several words or has punctuation in it, replaced in the joined text
+    private static final Map<String, Pattern> PHRASE_TYPOS = new LinkedHashMap<>();
 
     // Session Management
     private static final Map<String, ContractCreationSession> activeContractSessions = new HashMap<>();
     private static final Map<String, ChecklistCreationSession> activeChecklistSessions = new HashMap<>();
+    private static final Map<String, EntitySession> entitySessions = new ConcurrentHashMap<>();
 
     static {
         initializeModels();
         initializeTypoCorrections();
     }
 
-    private static void initializeModels() {
-        try {
-            // Load contracts model
-            try (FileInputStream contractsFis = new FileInputStream(CONTRACTS_MODEL_PATH)) {
-                contractsModel = new DoccatModel(contractsFis);
-                contractsClassifier = new DocumentCategorizerME(contractsModel);
-                System.out.println("? Contracts model loaded successfully");
-            }
+    private static CompletableFuture<ModelReloadResult> initializeModels() {
+        // Load all three models in parallel; until a model's first version is live its requests use the
+        // rule-based fallbacks, and on reload the current version serves until the new one is published.
+        // Each load completes with null once published, or with the reason it was not.
+        Map<String, CompletableFuture<String>> loads = new LinkedHashMap<>();
+        loads.put(CONTRACTS_MODELS.getName(), loadModel(CONTRACTS_MODELS, CONTRACTS_MODEL_PATH, CONTRACTS_GOLDEN_PATH));
+        loads.put(PARTS_MODELS.getName(), loadModel(PARTS_MODELS, PARTS_MODEL_PATH, PARTS_GOLDEN_PATH));
+        loads.put(HELP_MODELS.getName(), loadModel(HELP_MODELS, HELP_MODEL_PATH, HELP_GOLDEN_PATH));
+        loads.put("Contract NER",
+                  ContractEntityFinder.openAsync(CONTRACT_NER_MODEL_PATH)
+                                      .thenAccept(ChatbotIntentProcessor::publishContractEntityFinder)
+                                      .handle((ignored, error) -> loadFailure("Contract NER", error)));
+
+        CompletableFuture<ModelReloadResult> result =
+            CompletableFuture.allOf(loads.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+                Map<String, String> failures = new LinkedHashMap<>();
+                for (Map.Entry<String, CompletableFuture<String>> load : loads.entrySet()) {
+                    String reason = load.getValue().join();
+                    if (reason != null) {
+                        failures.put(load.getKey(), reason);
+                    }
+                }
+                return new ModelReloadResult(failures, getActiveModelVersions());
+            });
+        modelsLoaded = result.thenAccept(ignored -> { });
+        return result;
+    }
 
-            // Load parts model
-            try (FileInputStream partsFis = new FileInputStream(PARTS_MODEL_PATH)) {
-                partsModel = new DoccatModel(partsFis);
-                partsClassifier = new DocumentCategorizerME(partsModel);
-                System.out.println("? Parts model loaded successfully");
-            }
+    // Null when the load succeeded, otherwise its logged reason
+    private static String loadFailure(String name, Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        ModelLoader.logFailure(name, error);
+        return ModelLoader.failureMessage(error);
+    }
 
-            // Load help model
-            try (FileInputStream helpFis = new FileInputStream(HELP_MODEL_PATH)) {
-                helpModel = new DoccatModel(helpFis);
-                helpClassifier = new DocumentCategorizerME(helpModel);
-                System.out.println("? Help model loaded successfully");
+    // Sessions of the replaced finder are closed as their conversations next use it, or expire; its
+    // model is released once they and any extraction still running on it are done
+    private static void publishContractEntityFinder(ContractEntityFinder finder) {
+        ContractEntityFinder previous;
+        synchronized (ChatbotIntentProcessor.class) {
+            previous = contractEntityFinder;
+            contractEntityFinder = finder;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    private static CompletableFuture<String> loadModel(ModelVersionRegistry registry, String path, String goldenPath) {
+        // Async so the golden set and pool configuration never run on the class-initializing thread,
+        // before CONFIG_SETTINGS exists
+        return CompletableFuture.runAsync(() -> {
+            try {
+                registry.setGoldenSet(ModelVersionRegistry.GoldenSet.load(goldenPath),
+                                      Double.parseDouble(getConfig("golden_min_accuracy")));
+            } catch (Exception e) {
+                System.err.println("?? Golden set for " + registry.getName() + " not loaded: " + e.getMessage());
             }
+        })
+                                .thenCompose(ignored -> registry.loadAsync(path))
+                                .handle((version, error) -> loadFailure(registry.getName(), error));
+    }
 
-        } catch (IOException e) {
-            System.err.println("? Error loading models: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Apply the batching settings to a pool; runs for every new model version and on config changes
+     */
+    private static void configurePool(CategorizerPool pool) {
+        if (Boolean.parseBoolean(getConfig("enable_batching"))) {
+            pool.enableBatching(Integer.parseInt(getConfig("batch_max_size")),
+                                Long.parseLong(getConfig("batch_max_wait_micros")));
+        } else {
+            pool.disableBatching();
         }
     }
 
@@ -138,31 +233,36 @@ public class ChatbotIntentProcessor {
     /**
      * Enhanced Entity Extraction with better accuracy
      */
-    private Map<String, String> extractEntities(String input) {
+    private Map<String, String> extractEntities(String input, String sessionId) {
         Map<String, String> entities = new HashMap<>();
 
         try {
+            BusinessIdentifierLexer.Identifiers identifiers = BusinessIdentifierLexer.scan(input);
+
             // Extract contract numbers
-            Matcher contractMatcher = CONTRACT_PATTERN.matcher(input);
-            if (contractMatcher.find()) {
-                entities.put("contract_number", contractMatcher.group());
-                System.out.println("? Found contract number: " + contractMatcher.group());
+            String contractNumber = identifiers.firstValue(IdentifierType.CONTRACT_NUMBER);
+            if (contractNumber != null) {
+                entities.put("contract_number", contractNumber);
+                System.out.println("? Found contract number: " + contractNumber);
             }
 
             // Extract part numbers (both formats)
-            Matcher partMatcher = PART_NUMBER_PATTERN.matcher(input);
-            if (partMatcher.find()) {
-                entities.put("part_number", partMatcher.group().toUpperCase());
-                System.out.println("? Found part number: " + partMatcher.group().toUpperCase());
+            String partNumber = identifiers.firstValue(IdentifierType.PART_NUMBER, IdentifierType.PART_CODE);
+            if (partNumber != null) {
+                entities.put("part_number", partNumber.toUpperCase());
+                System.out.println("? Found part number: " + partNumber.toUpperCase());
             }
 
             // Extract account numbers
-            Matcher accountMatcher = ACCOUNT_NUMBER_PATTERN.matcher(input);
-            if (accountMatcher.find()) {
-                entities.put("account_number", accountMatcher.group());
-                System.out.println("? Found account number: " + accountMatcher.group());
+            String accountNumber = identifiers.firstValue(IdentifierType.ACCOUNT_NUMBER);
+            if (accountNumber != null) {
+                entities.put("account_number", accountNumber);
+                System.out.println("? Found account number: " + accountNumber);
             }
 
+            // Customer names and other entities of the NER model; the lexer's identifiers above win
+            extractNamedEntities(input, identifiers, sessionId, entities);
+
             // Enhanced Customer Extraction
             extractCustomerNames(input, entities);
 
@@ -176,10 +276,60 @@ public class ChatbotIntentProcessor {
         return entities;
     }
 
+    /**
+     * Entities of the contract NER model, normalized like the pattern-based ones. A failure here
+     * leaves the pattern-based extraction to run as without the model.
+     */
+    private void extractNamedEntities(String input, BusinessIdentifierLexer.Identifiers identifiers, String sessionId,
+                                      Map<String, String> entities) {
+        if (sessionId == null) {
+            return;
+        }
+        // Held for the call, so a reload publishing a new finder cannot release this one's model meanwhile
+        ContractEntityFinder finder = acquireContractEntityFinder();
+        if (finder == null) {
+            return;
+        }
+        EntitySession session = null;
+        try {
+            session = entitySession(finder, sessionId);
+            for (ContractEntityFinder.Entity entity : session.session.find(input, identifiers)) {
+                if (entity.getSource() == ContractEntityFinder.Source.LEXER) {
+                    continue;
+                }
+                String value = "customer".equals(entity.getType()) ? entity.getValue().toLowerCase() : entity.getValue();
+                if (entities.putIfAbsent(entity.getType(), value) == null) {
+                    System.out.println("? Found " + entity.getType() + " (NER): " + value);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("? Error in NER entity extraction: " + e.getMessage());
+        } finally {
+            if (session != null) {
+                session.release();
+            }
+            finder.release();
+        }
+    }
+
+    // The current finder, retained; null until the NER model has loaded
+    private static ContractEntityFinder acquireContractEntityFinder() {
+        while (true) {
+            ContractEntityFinder finder = contractEntityFinder;
+            if (finder == null || finder.retain()) {
+                return finder;
+            }
+            // Replaced and released between the read and the retain; a newer finder is published
+        }
+    }
+
     /**
      * Enhanced Customer Name Extraction
      */
     private void extractCustomerNames(String input, Map<String, String> entities) {
+        if (entities.containsKey("customer")) {
+            return; // found by the NER model
+        }
         try {
             // Method 1: Pattern-based extraction
             Matcher customerMatcher = CUSTOMER_PATTERN.matcher(input);
@@ -263,9 +413,10 @@ public class ChatbotIntentProcessor {
     }
 
     /**
-     * Enhanced Domain Determination
+     * Keyword tier: linear keyword/entity scoring between the contracts and parts domains
      */
-    private String determineDomain(String input, Map<String, String> entities) {
+    private static ClassifierCascade.Decision scoreDomainKeywords(RoutingInput routing) {
+        Map<String, String> entities = routing.getEntities();
         int contractScore = 0;
         int partsScore = 0;
 
@@ -278,44 +429,105 @@ public class ChatbotIntentProcessor {
             contractScore += 2;
 
         // Keyword-based scoring
-        String lowerInput = input.toLowerCase();
-
-        // Contract keywords
-        String[] contractKeywords = { "contract", "agreement", "status", "history", "customer", "account" };
-        for (String keyword : contractKeywords) {
+        String lowerInput = routing.getText();
+        for (String keyword : CONTRACT_DOMAIN_KEYWORDS) {
             if (lowerInput.contains(keyword))
                 contractScore += 2;
         }
-
-        // Parts keywords
-        String[] partsKeywords = {
-            "part", "component", "availability", "price", "stock", "inventory", "specification", "datasheet",
-            "manufacturer", "warranty", "compatible"
-        };
-        for (String keyword : partsKeywords) {
+        for (String keyword : PARTS_DOMAIN_KEYWORDS) {
             if (lowerInput.contains(keyword))
                 partsScore += 2;
         }
 
-        // Special cases
-        if (lowerInput.contains("parts of") || lowerInput.contains("parts for")) {
-            return "contract_parts";
+        System.out.println("? Domain scores - Contracts: " + contractScore + ", Parts: " + partsScore);
+
+        if (contractScore == partsScore) {
+            return null;
         }
-        if (lowerInput.contains("contracts associated with") || lowerInput.contains("contracts with part")) {
-            return "part_contracts";
+        // Confidence is the winning margin: 1.0 when only one domain scored
+        double margin = (double) Math.abs(contractScore - partsScore) / (contractScore + partsScore);
+        return new ClassifierCascade.Decision(contractScore > partsScore ? "contracts" : "parts", margin);
+    }
+
+    /**
+     * Model tier: the domain whose doccat model is clearly more confident about the message.
+     * The two models have different outcome sets, so their raw maximum probabilities are not
+     * comparable; each is rescaled to its lift over chance (0 at 1/outcomes, 1 at certainty)
+     * and the decision's confidence is the lead of one over the other. Abstains when neither
+     * model reaches DOMAIN_MODEL_THRESHOLD or the lead is below MODEL_TIER_MARGIN.
+     */
+    private static ClassifierCascade.Decision scoreDomainModels(RoutingInput routing) {
+        if (!CONTRACTS_MODELS.isLoaded() || !PARTS_MODELS.isLoaded()) {
+            return null;
         }
 
-        System.out.println("? Domain scores - Contracts: " + contractScore + ", Parts: " + partsScore);
+        // Same tokens as processContractsIntent/processPartsIntent, so their lookups hit the cache
+        String[] tokens = routing.getTokens().toArray();
+        CategorizerPool.Categorization contracts = CONTRACTS_MODELS.categorize(tokens);
+        CategorizerPool.Categorization parts = PARTS_MODELS.categorize(tokens);
+        if (contracts == null || parts == null) {
+            return null;
+        }
+        double contractLift = liftOverChance(contracts.getOutcomes());
+        double partsLift = liftOverChance(parts.getOutcomes());
+        if (contractLift < 0.0 && partsLift < 0.0) {
+            return null;
+        }
+        double lead = Math.max(contractLift, 0.0) - Math.max(partsLift, 0.0);
+        if (Math.abs(lead) < MODEL_TIER_MARGIN) {
+            return null;
+        }
+        return new ClassifierCascade.Decision(lead > 0 ? "contracts" : "parts", Math.abs(lead));
+    }
 
-        if (contractScore > partsScore) {
-            return "contracts";
-        } else if (partsScore > contractScore) {
-            return "parts";
-        } else {
-            return "ambiguous";
+    /**
+     * Best outcome probability rescaled so chance is 0 and certainty 1; -1 below DOMAIN_MODEL_THRESHOLD
+     */
+    private static double liftOverChance(double[] outcomes) {
+        double confidence = getMaxConfidence(outcomes);
+        if (confidence < DOMAIN_MODEL_THRESHOLD || outcomes.length < 2) {
+            return -1.0;
+        }
+        double chance = 1.0 / outcomes.length;
+        return Math.max(0.0, (confidence - chance) / (1.0 - chance));
+    }
+
+    /**
+     * What the routing cascade looks at: the corrected message, its tokens and its entities.
+     * Entities are extracted the first time they are asked for, so messages the rules decide
+     * on their own never run the extraction.
+     */
+    private static class RoutingInput {
+        private final TokenView tokens;
+        private final Supplier<Map<String, String>> extractor;
+        private Map<String, String> entities;
+
+        RoutingInput(TokenView tokens, Supplier<Map<String, String>> extractor) {
+            this.tokens = tokens;
+            this.extractor = extractor;
+        }
+
+        String getText() {
+            return tokens.toString();
+        }
+
+        TokenView getTokens() {
+            return tokens;
+        }
+
+        Map<String, String> getEntities() {
+            if (entities == null) {
+                entities = extractor.get();
+                System.out.println("? Extracted entities: " + entities);
+            }
+            return entities;
         }
     }
 
+    public static String getRoutingStats() {
+        return ROUTING_CASCADE.getStats();
+    }
+
     /**
      * Mock Database Connection for Testing
      */
@@ -638,40 +850,34 @@ public class ChatbotIntentProcessor {
                 return handleChecklistCreationFlow(userInput, sessionId);
             }
 
-            // Apply typo correction
-            String correctedInput = applyTypoCorrection(userInput.toLowerCase().trim());
+            // Tokenize once; typo correction rewrites the shared tokens in place and every later step reuses them
+            TokenView tokens = TokenView.of(userInput.toLowerCase().trim());
+            applyTypoCorrection(tokens);
+            String correctedInput = tokens.toString();
             System.out.println("? Corrected input: " + correctedInput);
 
-            // Check if this is a contract creation request
-            if (isContractCreationRequest(correctedInput)) {
-                return initiateContractCreation(correctedInput, sessionId);
-            }
+            // Route through the cascade: rules, then keyword scoring, then the models. Contract creation
+            // and help requests are decided by the rules before any entity is extracted.
+            RoutingInput routing = new RoutingInput(tokens, () -> extractEntities(correctedInput, sessionId));
+            ClassifierCascade.Decision route = ROUTING_CASCADE.classify(routing);
+            System.out.println("? Route: " + route);
 
-            // Check if this is a help request
-            if (isHelpRequest(correctedInput)) {
-                return processHelpIntent(correctedInput);
-            }
-
-            // Extract entities
-            Map<String, String> entities = extractEntities(correctedInput);
-            System.out.println("? Extracted entities: " + entities);
-
-            // Determine domain
-            String domain = determineDomain(correctedInput, entities);
-            System.out.println("? Determined domain: " + domain);
-
-            // Process based on domain
-            switch (domain) {
+            // Process based on route
+            switch (route.getLabel()) {
+            case "create_contract":
+                return initiateContractCreation(correctedInput, sessionId);
+            case "help":
+                return processHelpIntent(tokens);
             case "contracts":
-                return processContractsIntent(correctedInput, entities);
+                return processContractsIntent(tokens, routing.getEntities());
             case "parts":
-                return processPartsIntent(correctedInput, entities);
+                return processPartsIntent(tokens, routing.getEntities());
             case "contract_parts":
-                return getContractParts(entities);
+                return getContractParts(routing.getEntities());
             case "part_contracts":
-                return getPartContracts(entities);
+                return getPartContracts(routing.getEntities());
             default:
-                return handleAmbiguousQuery(correctedInput, entities);
+                return handleAmbiguousQuery(correctedInput, routing.getEntities());
             }
 
         } catch (Exception e) {
@@ -684,15 +890,14 @@ public class ChatbotIntentProcessor {
     /**
      * Enhanced Contract Intent Processing
      */
-    private String processContractsIntent(String input, Map<String, String> entities) {
-        if (contractsClassifier == null) {
+    private String processContractsIntent(TokenView input, Map<String, String> entities) {
+        String[] tokens = input.toArray();
+        CategorizerPool.Categorization result = CONTRACTS_MODELS.categorize(tokens);
+        if (result == null) {
             return handleContractQueryFallback(entities);
         }
-
-        String[] tokens = input.split("\\s+");
-        double[] outcomes = contractsClassifier.categorize(tokens);
-        String intent = contractsClassifier.getBestCategory(outcomes);
-        double confidence = getMaxConfidence(outcomes);
+        String intent = result.getBestCategory();
+        double confidence = getMaxConfidence(result.getOutcomes());
 
         System.out.println("? Contract Intent: " + intent + " (confidence: " + String.format("%.2f", confidence) +
                            ")");
@@ -729,15 +934,14 @@ public class ChatbotIntentProcessor {
     /**
      * Enhanced Parts Intent Processing
      */
-    private String processPartsIntent(String input, Map<String, String> entities) {
-        if (partsClassifier == null) {
+    private String processPartsIntent(TokenView input, Map<String, String> entities) {
+        String[] tokens = input.toArray();
+        CategorizerPool.Categorization result = PARTS_MODELS.categorize(tokens);
+        if (result == null) {
             return handlePartsQueryFallback(entities);
         }
-
-        String[] tokens = input.split("\\s+");
-        double[] outcomes = partsClassifier.categorize(tokens);
-        String intent = partsClassifier.getBestCategory(outcomes);
-        double confidence = getMaxConfidence(outcomes);
+        String intent = result.getBestCategory();
+        double confidence = getMaxConfidence(result.getOutcomes());
 
         System.out.println("? Parts Intent: " + intent + " (confidence: " + String.format("%.2f", confidence) + ")");
 
@@ -771,15 +975,14 @@ public class ChatbotIntentProcessor {
     /**
      * Enhanced Help Intent Processing
      */
-    private String processHelpIntent(String input) {
-        if (helpClassifier == null) {
+    private String processHelpIntent(TokenView input) {
+        String[] tokens = input.toArray();
+        CategorizerPool.Categorization result = HELP_MODELS.categorize(tokens);
+        if (result == null) {
             return getHelpInformation();
         }
-
-        String[] tokens = input.split("\\s+");
-        double[] outcomes = helpClassifier.categorize(tokens);
-        String intent = helpClassifier.getBestCategory(outcomes);
-        double confidence = getMaxConfidence(outcomes);
+        String intent = result.getBestCategory();
+        double confidence = getMaxConfidence(result.getOutcomes());
 
         System.out.println("? Help Intent: " + intent + " (confidence: " + String.format("%.2f", confidence) + ")");
 
@@ -802,40 +1005,76 @@ public class ChatbotIntentProcessor {
     }
 
     /**
-     * Enhanced Typo Correction
+     * Enhanced Typo Correction: known typos are replaced as whole words, the way a \b-bounded
+     * pattern matches them - every run of word characters in a token is looked up, so "(contarct,"
+     * and "prt-a100" are corrected too. Typos with a space or punctuation in them can't be found one
+     * token at a time; they are replaced in the joined text, which is then re-tokenized.
      */
-    private String applyTypoCorrection(String input) {
-        String corrected = input;
-        for (Map.Entry<String, String> correction : TYPO_CORRECTIONS.entrySet()) {
-            corrected = corrected.replaceAll("\\b" + Pattern.quote(correction.getKey()) + "\\b", correction.getValue());
+    private void applyTypoCorrection(TokenView tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            String word = tokens.lower(i);
+            String correction = TYPO_CORRECTIONS.get(word);
+            if (correction != null && !PHRASE_TYPOS.containsKey(word)) {
+                // A correction may be several words or none; skip past what it left in place
+                i += tokens.set(i, correction) - 1;
+                continue;
+            }
+            StringBuilder corrected = null;
+            int copied = 0;
+            int start = 0;
+            while (start < word.length()) {
+                if (!isWordChar(word.charAt(start))) {
+                    start++;
+                    continue;
+                }
+                int end = start;
+                while (end < word.length() && isWordChar(word.charAt(end))) {
+                    end++;
+                }
+                correction = TYPO_CORRECTIONS.get(word.substring(start, end));
+                if (correction != null) {
+                    if (corrected == null) {
+                        corrected = new StringBuilder(word.length() + 8);
+                    }
+                    corrected.append(word, copied, start).append(correction);
+                    copied = end;
+                }
+                start = end;
+            }
+            if (corrected != null) {
+                i += tokens.set(i, corrected.append(word, copied, word.length()).toString()) - 1;
+            }
+        }
+        if (!PHRASE_TYPOS.isEmpty()) {
+            String text = tokens.toString();
+            for (Map.Entry<String, Pattern> phrase : PHRASE_TYPOS.entrySet()) {
+                String correction = Matcher.quoteReplacement(TYPO_CORRECTIONS.get(phrase.getKey()));
+                text = phrase.getValue().matcher(text).replaceAll(correction);
+            }
+            tokens.reset(text);
         }
-        return corrected;
     }
 
     /**
-     * Check if input is help request
+     * True when the text is one run of word characters, so a token lookup finds it
      */
-    private boolean isHelpRequest(String input) {
-        for (String keyword : HELP_KEYWORDS) {
-            if (input.contains(keyword)) {
-                if (input.matches(".*\\b" + Pattern.quote(keyword) + "\\b.*")) {
-                    return true;
-                }
+    private static boolean isWordRun(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!isWordChar(text.charAt(i))) {
+                return false;
             }
         }
-        return false;
+        return true;
     }
 
     /**
-     * Check if input is contract creation request
+     * Characters of the regex \w, between which \b never falls
      */
-    private boolean isContractCreationRequest(String input) {
-        for (String keyword : CONTRACT_CREATION_KEYWORDS) {
-            if (input.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 
     /**
@@ -1368,9 +1607,9 @@ public class ChatbotIntentProcessor {
         ContractCreationSession session = new ContractCreationSession(sessionId);
 
         // Check if account number is provided in the initial request
-        Matcher accountMatcher = ACCOUNT_NUMBER_PATTERN.matcher(input);
-        if (accountMatcher.find()) {
-            session.setAccountNumber(accountMatcher.group());
+        String accountNumber = BusinessIdentifierLexer.scan(input).firstValue(IdentifierType.ACCOUNT_NUMBER);
+        if (accountNumber != null) {
+            session.setAccountNumber(accountNumber);
             session.setCurrentStep(2);
         }
 
@@ -1725,11 +1964,19 @@ public class ChatbotIntentProcessor {
         activeChecklistSessions.entrySet()
             .removeIf(entry -> (currentTime - entry.getValue().getLastActivity()) > thirtyMinutes);
 
+        // Clean up NER conversations, clearing their context from the finders
+        for (Map.Entry<String, EntitySession> entry : entitySessions.entrySet()) {
+            if ((currentTime - entry.getValue().lastActivity) > thirtyMinutes &&
+                entitySessions.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().release();
+            }
+        }
+
         System.out.println("? Session cleanup completed. Active contract sessions: " + activeContractSessions.size() +
                            ", Active checklist sessions: " + activeChecklistSessions.size());
     }
 
-    private double getMaxConfidence(double[] outcomes) {
+    private static double getMaxConfidence(double[] outcomes) {
         double max = 0.0;
         for (double outcome : outcomes) {
             if (outcome > max) {
@@ -1757,6 +2004,80 @@ public class ChatbotIntentProcessor {
         return false;
     }
 
+    // The NER conversation of a chat session, on the finder that was current when it started; retained
+    // inside compute, so a cleanup or a finder swap can't close it before the caller releases it
+    private static EntitySession entitySession(ContractEntityFinder finder, String sessionId) {
+        return entitySessions.compute(sessionId, (id, existing) -> {
+            EntitySession current = existing;
+            if (current == null || current.finder != finder) {
+                // Opened before the old one is released: if opening fails the mapping is left as it was
+                current = new EntitySession(finder);
+                if (existing != null) {
+                    existing.release();
+                }
+            }
+            current.lastActivity = System.currentTimeMillis();
+            current.retain();
+            return current;
+        });
+    }
+
+    /**
+     * Outcome of a model load round: the models that were not replaced and why
+     */
+    public static final class ModelReloadResult {
+        private final Map<String, String> failures;
+        private final String activeVersions;
+
+        ModelReloadResult(Map<String, String> failures, String activeVersions) {
+            this.failures = Collections.unmodifiableMap(failures);
+            this.activeVersions = activeVersions;
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+
+        /**
+         * Reason by model name for each model whose previous version is still serving
+         */
+        public Map<String, String> getFailures() {
+            return failures;
+        }
+
+        /**
+         * Active versions once the round finished, as getActiveModelVersions()
+         */
+        public String getActiveVersions() {
+            return activeVersions;
+        }
+    }
+
+    private static final class EntitySession {
+        private final ContractEntityFinder finder;
+        private final ContractEntityFinder.Session session;
+        // The map's reference plus one per call using the session
+        private final AtomicInteger references = new AtomicInteger(1);
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        EntitySession(ContractEntityFinder finder) {
+            this.finder = finder;
+            this.session = finder.openSession();
+        }
+
+        // Only called while the session is in the map, so the map's reference is still held
+        void retain() {
+            references.incrementAndGet();
+        }
+
+        // The session closes with the last reference, whether the map's or a caller's
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                session.close();
+            }
+        }
+    }
+
     public static class ChecklistCreationSession {
         private String sessionId;
         private String contractNumber;
@@ -1952,13 +2273,45 @@ public class ChatbotIntentProcessor {
     /**
      * Public API Methods
      */
-    public static void reloadModels() {
+    /**
+     * Load new versions of all models in the background; current versions serve until each is replaced.
+     * The future reports which models were not replaced, e.g. rejected by their golden set.
+     */
+    public static CompletableFuture<ModelReloadResult> reloadModels() {
         System.out.println("? Reloading NLP models...");
-        initializeModels();
+        return initializeModels();
+    }
+
+    /**
+     * Active model versions in one line, e.g. "Contracts v2, Parts v1, Help v1"
+     */
+    public static String getActiveModelVersions() {
+        StringBuilder versions = new StringBuilder();
+        for (ModelVersionRegistry registry : new ModelVersionRegistry[] { CONTRACTS_MODELS, PARTS_MODELS, HELP_MODELS }) {
+            if (versions.length() > 0) {
+                versions.append(", ");
+            }
+            versions.append(registry.getName()).append(registry.isLoaded() ? " v" + registry.getActiveVersion() : " not loaded");
+        }
+        return versions.toString();
     }
 
     public static boolean areModelsReady() {
-        return contractsClassifier != null && partsClassifier != null && helpClassifier != null;
+        return CONTRACTS_MODELS.isLoaded() && PARTS_MODELS.isLoaded() && HELP_MODELS.isLoaded();
+    }
+
+    /**
+     * True once every model load has finished, whether or not it succeeded
+     */
+    public static boolean isModelLoadingComplete() {
+        return modelsLoaded.isDone();
+    }
+
+    /**
+     * Future that completes when the current round of model loads has finished
+     */
+    public static CompletableFuture<Void> whenModelsLoaded() {
+        return modelsLoaded;
     }
 
     public static String getModelStatus() {
@@ -1966,14 +2319,20 @@ public class ChatbotIntentProcessor {
         status.append("? **Model Status Report**\n\n");
         status.append("**NLP Models:**\n");
         status.append(" Contracts Model: ")
-              .append(contractsClassifier != null ? "? Loaded" : "? Not Loaded")
+              .append(CONTRACTS_MODELS.isLoaded() ? "? Loaded v" + CONTRACTS_MODELS.getActiveVersion() : "? Not Loaded")
               .append("\n");
         status.append(" Parts Model: ")
-              .append(partsClassifier != null ? "? Loaded" : "? Not Loaded")
+              .append(PARTS_MODELS.isLoaded() ? "? Loaded v" + PARTS_MODELS.getActiveVersion() : "? Not Loaded")
               .append("\n");
         status.append(" Help Model: ")
-              .append(helpClassifier != null ? "? Loaded" : "? Not Loaded")
+              .append(HELP_MODELS.isLoaded() ? "? Loaded v" + HELP_MODELS.getActiveVersion() : "? Not Loaded")
               .append("\n\n");
+        status.append("**Categorizer Pools:**\n");
+        for (ModelVersionRegistry registry : new ModelVersionRegistry[] { CONTRACTS_MODELS, PARTS_MODELS, HELP_MODELS }) {
+            status.append("\u2022 ").append(registry.getStats()).append("\n");
+        }
+        status.append("\n");
+        status.append("**Routing:**\n").append(ROUTING_CASCADE.getStats()).append("\n");
         status.append("**System Status:**\n");
         status.append(" Active Contract Sessions: ")
               .append(activeContractSessions.size())
@@ -1991,7 +2350,13 @@ public class ChatbotIntentProcessor {
     }
 
     public static void addTypoCorrection(String typo, String correction) {
-        TYPO_CORRECTIONS.put(typo.toLowerCase(), correction.toLowerCase());
+        String key = typo.toLowerCase();
+        TYPO_CORRECTIONS.put(key, correction.toLowerCase());
+        if (isWordRun(key)) {
+            PHRASE_TYPOS.remove(key);
+        } else {
+            PHRASE_TYPOS.put(key, Pattern.compile("\\b" + Pattern.quote(key) + "\\b"));
+        }
         System.out.println("? Added typo correction: " + typo + " -> " + correction);
     }
 
@@ -2069,9 +2434,12 @@ public class ChatbotIntentProcessor {
         try {
             boolean modelsReady = areModelsReady();
             boolean sessionsManaged = activeContractSessions != null && activeChecklistSessions != null;
-            boolean patternsActive = CONTRACT_PATTERN != null && PART_NUMBER_PATTERN != null;
+            // The identifier lexer still recognises the contract and part number formats
+            BusinessIdentifierLexer.Identifiers probe = BusinessIdentifierLexer.scan("contract 123456 part AE12345-12345678");
+            boolean lexerWorking = "123456".equals(probe.firstValue(IdentifierType.CONTRACT_NUMBER)) &&
+                                   "AE12345-12345678".equals(probe.firstValue(IdentifierType.PART_NUMBER));
 
-            return modelsReady && sessionsManaged && patternsActive;
+            return modelsReady && sessionsManaged && lexerWorking;
 
         } catch (Exception e) {
             System.err.println("? Health check failed: " + e.getMessage());
@@ -2300,11 +2668,27 @@ public class ChatbotIntentProcessor {
         CONFIG_SETTINGS.put("enable_typo_correction", "true");
         CONFIG_SETTINGS.put("enable_mock_data", "true");
         CONFIG_SETTINGS.put("log_level", "INFO");
+        CONFIG_SETTINGS.put("enable_batching", "false"); // cross-session micro-batching of model scoring
+        CONFIG_SETTINGS.put("batch_max_size", "32");
+        CONFIG_SETTINGS.put("batch_max_wait_micros", "200");
+        CONFIG_SETTINGS.put("golden_min_accuracy", "0.9");
     }
 
     public static void updateConfig(String key, String value) {
         CONFIG_SETTINGS.put(key, value);
         System.out.println("?? Configuration updated: " + key + " = " + value);
+        if (key.startsWith("batch_") || key.equals("enable_batching")) {
+            applyBatchingConfig();
+        }
+    }
+
+    /**
+     * Apply the batching settings to the active model versions
+     */
+    private static void applyBatchingConfig() {
+        CONTRACTS_MODELS.reconfigure();
+        PARTS_MODELS.reconfigure();
+        HELP_MODELS.reconfigure();
     }
 
     public static String getConfig(String key) {
@@ -2752,6 +3136,7 @@ public class ChatbotIntentProcessor {
 
             // Clear typo corrections
             TYPO_CORRECTIONS.clear();
+            PHRASE_TYPOS.clear();
 
             // Reset counters
             requestCount = 0;
@@ -2800,7 +3185,13 @@ public class ChatbotIntentProcessor {
                .append("\n");
         version.append(" Max Memory: ")
                .append(Runtime.getRuntime().maxMemory() / 1024 / 1024)
-               .append(" MB\n");
+               .append(" MB\n\n");
+        version.append("**Model Versions:**\n");
+        version.append(CONTRACTS_MODELS.getVersionInfo());
+        version.append(PARTS_MODELS.getVersionInfo());
+        version.append(HELP_MODELS.getVersionInfo());
+        version.append("\n**Model Load Times:**\n");
+        version.append(ModelLoader.getLoadStats());
         return version.toString();
     }
 
@@ -0,0 +1,81 @@
+package view.practice;
+
+import view.BoundedCache;
+import view.practice.BusinessIdentifierLexer.Identifier;
+
+/**
+ * Bounded concurrent cache of categorizer results for one model.
+ *
+ * Keys are token sequences with business identifiers masked to class placeholders, so
+ * "show contract 123456" and "show contract 654321" share an entry. The pool scores the masked
+ * tokens too (see mask()), so an entry holds exactly the result any query with its key gets. The
+ * cache belongs to a CategorizerPool, and a model reload builds a new pool, so entries never
+ * outlive the model that produced them. Storage and eviction are BoundedCache's.
+ */
+public class ClassificationCache extends BoundedCache<String, CategorizerPool.Categorization> {
+
+    public ClassificationCache(int maxEntries) {
+        super("classification", maxEntries);
+    }
+
+    /**
+     * Tokens with business identifiers replaced by their class; the array itself when there are none
+     */
+    public static String[] mask(String[] tokens) {
+        String[] masked = tokens;
+        for (int i = 0; i < tokens.length; i++) {
+            String token = maskToken(tokens[i]);
+            if (token != tokens[i]) {
+                if (masked == tokens) {
+                    masked = tokens.clone();
+                }
+                masked[i] = token;
+            }
+        }
+        return masked;
+    }
+
+    /**
+     * Cache key for tokens already passed through mask()
+     */
+    public static String key(String[] maskedTokens) {
+        return String.join(" ", maskedTokens);
+    }
+
+    // Identifiers never span whitespace, so masking token by token equals masking the joined text
+    private static String maskToken(String token) {
+        StringBuilder masked = null;
+        int copied = 0;
+        for (Identifier identifier : BusinessIdentifierLexer.scan(token).asList()) {
+            String placeholder = placeholder(identifier);
+            // Components of an already masked compound identifier are skipped
+            if (placeholder == null || identifier.getStart() < copied) {
+                continue;
+            }
+            if (masked == null) {
+                masked = new StringBuilder(token.length());
+            }
+            masked.append(token, copied, identifier.getStart()).append(placeholder);
+            copied = identifier.getEnd();
+        }
+        return masked == null ? token : masked.append(token, copied, token.length()).toString();
+    }
+
+    private static String placeholder(Identifier identifier) {
+        switch (identifier.getType()) {
+        case CONTRACT_NUMBER:
+            return "<contract>";
+        case ACCOUNT_NUMBER:
+            return "<account>";
+        case NUMBER:
+            return "<number>";
+        case PART_NUMBER:
+        case PART_CODE:
+            return "<part>";
+        case INVOICE_NUMBER:
+            return "<invoice>";
+        default:
+            return null; // other alphanumerics may be words, keep them
+        }
+    }
+}
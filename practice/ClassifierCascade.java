@@ -0,0 +1,250 @@
+package view.practice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Ordered tiers of classifiers, cheapest first, with early exit.
+ *
+ * Each tier either abstains (returns null) or returns a label with a confidence. The first
+ * decision that reaches its tier's threshold is final and later tiers are skipped. When no
+ * tier is confident enough the fallback label is returned. Confidences of different tiers are
+ * not on a common scale, so rejected decisions are not compared with each other; instead one
+ * tier can be named as the fallback tier, and its decision is kept below its threshold when no
+ * later tier does better. The fallback label is then left for inputs that tier abstained on.
+ * Per-tier counters show how much traffic each tier absorbs and what it costs.
+ */
+public class ClassifierCascade<I> {
+
+    /**
+     * One tier of the cascade
+     */
+    @FunctionalInterface
+    public interface Classifier<I> {
+        /** @return a decision, or null to pass the input on to the next tier */
+        Decision classify(I input);
+    }
+
+    private final String name;
+    private final List<Tier<I>> tiers;
+    private final String fallbackLabel;
+    private final String fallbackTier;
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private ClassifierCascade(String name, List<Tier<I>> tiers, String fallbackLabel, String fallbackTier) {
+        this.name = name;
+        this.tiers = tiers;
+        this.fallbackLabel = fallbackLabel;
+        this.fallbackTier = fallbackTier;
+    }
+
+    public static <I> Builder<I> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    public Decision classify(I input) {
+        Decision kept = null;
+        Tier<I> keptTier = null;
+        for (Tier<I> tier : tiers) {
+            long start = System.nanoTime();
+            Decision decision = tier.classifier.classify(input);
+            tier.record(System.nanoTime() - start);
+
+            if (decision == null) {
+                continue;
+            }
+            decision = decision.from(tier.name);
+            if (decision.confidence >= tier.threshold) {
+                tier.absorbed.incrementAndGet();
+                return decision;
+            }
+            if (tier.name.equals(fallbackTier)) {
+                kept = decision;
+                keptTier = tier;
+            }
+        }
+        if (kept != null) {
+            keptTier.belowThreshold.incrementAndGet();
+            return kept;
+        }
+        fallbacks.incrementAndGet();
+        return new Decision(fallbackLabel, 0.0).from("fallback");
+    }
+
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        stats.append(name).append(" cascade:\n");
+        for (Tier<I> tier : tiers) {
+            long calls = tier.calls.get();
+            stats.append(String.format("  %-10s threshold %.2f  %d calls, %d absorbed%s, avg %.1f us%n", tier.name,
+                                       tier.threshold, calls, tier.absorbed.get(),
+                                       tier.name.equals(fallbackTier) ?
+                                       " (+" + tier.belowThreshold.get() + " below threshold)" : "",
+                                       calls == 0 ? 0.0 : tier.nanos.get() / 1000.0 / calls));
+        }
+        stats.append("  unresolved ").append(fallbacks.get()).append("\n");
+        return stats.toString();
+    }
+
+    /**
+     * Outcome of a cascade: label, confidence and the tier that produced it
+     */
+    public static final class Decision {
+        private final String label;
+        private final double confidence;
+        private final String tier;
+
+        public Decision(String label, double confidence) {
+            this(label, confidence, null);
+        }
+
+        private Decision(String label, double confidence, String tier) {
+            this.label = label;
+            this.confidence = confidence;
+            this.tier = tier;
+        }
+
+        private Decision from(String tierName) {
+            return tier != null ? this : new Decision(label, confidence, tierName);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public String getTier() {
+            return tier;
+        }
+
+        @Override
+        public String toString() {
+            return label + " (" + String.format("%.2f", confidence) + " via " + tier + ")";
+        }
+    }
+
+    /**
+     * Precompiled regex rules checked in order; the first rule that matches decides
+     */
+    public static final class RuleSet<I> implements Classifier<I> {
+        private final Function<I, CharSequence> text;
+        private final List<Pattern> patterns = new ArrayList<>();
+        private final List<Decision> decisions = new ArrayList<>();
+
+        public RuleSet(Function<I, CharSequence> text) {
+            this.text = text;
+        }
+
+        public RuleSet<I> rule(Pattern pattern, String label, double confidence) {
+            patterns.add(pattern);
+            decisions.add(new Decision(label, confidence));
+            return this;
+        }
+
+        /**
+         * Rule matching any of the phrases as plain substrings
+         */
+        public RuleSet<I> anyOf(String[] phrases, String label, double confidence) {
+            return rule(Pattern.compile(alternation(phrases)), label, confidence);
+        }
+
+        /**
+         * Rule matching any of the phrases as whole words
+         */
+        public RuleSet<I> anyWordOf(String[] phrases, String label, double confidence) {
+            return rule(Pattern.compile("\\b(?:" + alternation(phrases) + ")\\b"), label, confidence);
+        }
+
+        private static String alternation(String[] phrases) {
+            StringBuilder regex = new StringBuilder();
+            for (String phrase : phrases) {
+                if (regex.length() > 0) {
+                    regex.append('|');
+                }
+                regex.append(Pattern.quote(phrase));
+            }
+            return regex.toString();
+        }
+
+        @Override
+        public Decision classify(I input) {
+            CharSequence value = text.apply(input);
+            for (int i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i).matcher(value).find()) {
+                    return decisions.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final class Builder<I> {
+        private final String name;
+        private final List<Tier<I>> tiers = new ArrayList<>();
+        private String fallbackLabel = "unknown";
+        private String fallbackTier;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Add the next tier; its decisions at or above the threshold end the cascade
+         */
+        public Builder<I> tier(String tierName, double threshold, Classifier<I> classifier) {
+            tiers.add(new Tier<>(tierName, threshold, classifier));
+            return this;
+        }
+
+        public Builder<I> fallback(String label) {
+            this.fallbackLabel = label;
+            return this;
+        }
+
+        /**
+         * Keep this tier's decision when no tier reaches its threshold; the fallback label is
+         * used only when the tier abstained
+         */
+        public Builder<I> fallbackTier(String tierName) {
+            this.fallbackTier = tierName;
+            return this;
+        }
+
+        public ClassifierCascade<I> build() {
+            if (tiers.isEmpty()) {
+                throw new IllegalStateException("Cascade " + name + " has no tiers");
+            }
+            if (fallbackTier != null && tiers.stream().noneMatch(tier -> tier.name.equals(fallbackTier))) {
+                throw new IllegalStateException("Cascade " + name + " has no tier " + fallbackTier);
+            }
+            return new ClassifierCascade<>(name, new ArrayList<>(tiers), fallbackLabel, fallbackTier);
+        }
+    }
+
+    private static final class Tier<I> {
+        private final String name;
+        private final double threshold;
+        private final Classifier<I> classifier;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong absorbed = new AtomicLong();
+        private final AtomicLong belowThreshold = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        Tier(String name, double threshold, Classifier<I> classifier) {
+            this.name = name;
+            this.threshold = threshold;
+            this.classifier = classifier;
+        }
+
+        void record(long elapsed) {
+            calls.incrementAndGet();
+            nanos.addAndGet(elapsed);
+        }
+    }
+}
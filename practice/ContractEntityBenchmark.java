@@ -0,0 +1,215 @@
+package view.practice;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import opennlp.tools.namefind.NameSample;
+import opennlp.tools.namefind.NameSampleDataStream;
+import opennlp.tools.util.MarkableFileInputStreamFactory;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.Span;
+
+/**
+ * Compares the extraction paths of ContractEntityFinder on annotated sentences in the
+ * TrainContractNER format ("<START:type> tokens <END>"): the regex lexer alone, the NER model
+ * alone, and both merged.
+ *
+ * Recall counts an annotated entity as found when the path returns an entity with exactly its
+ * character offsets, whatever the type - the lexer's types are not the annotation types. Blank
+ * lines in the file separate documents; each document is one session, so the NER model keeps
+ * its adaptive data across the sentences of a document as it would across a conversation.
+ * Latency is per sentence, measured after a warm-up pass. It reads the held-out file by default;
+ * run it on sentences the model was not trained on, or NER recall will be flattered.
+ */
+public class ContractEntityBenchmark {
+
+    private static final int DEFAULT_ROUNDS = 20;
+
+    private enum Path {
+        LEXER,
+        NER,
+        MERGED
+    }
+
+    private final List<Sentence> sentences;
+
+    public ContractEntityBenchmark(List<Sentence> sentences) {
+        if (sentences.isEmpty()) {
+            throw new IllegalArgumentException("Benchmark needs annotated sentences");
+        }
+        this.sentences = sentences;
+    }
+
+    public static List<Sentence> readSentences(File file) throws IOException {
+        List<Sentence> sentences = new ArrayList<>();
+        try (ObjectStream<NameSample> samples =
+             new NameSampleDataStream(new PlainTextByLineStream(new MarkableFileInputStreamFactory(file), "UTF-8"))) {
+            NameSample sample;
+            while ((sample = samples.read()) != null) {
+                sentences.add(new Sentence(sample.getSentence(), sample.getNames(), sample.isClearAdaptiveDataSet()));
+            }
+        }
+        return sentences;
+    }
+
+    public String run(ContractEntityFinder finder, int rounds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("=== Contract entity extraction: %d sentences, %d entities, %d timed rounds ===\n",
+                                    sentences.size(), countEntities(), rounds));
+        for (Path path : Path.values()) {
+            // Warm-up pass, which is also the one recall is scored on
+            Map<String, int[]> recall = score(pass(finder, path, new long[sentences.size()], 0));
+
+            long[] nanos = new long[sentences.size() * rounds];
+            for (int round = 0; round < rounds; round++) {
+                pass(finder, path, nanos, round * sentences.size());
+            }
+            Arrays.sort(nanos);
+            long total = 0;
+            for (long value : nanos) {
+                total += value;
+            }
+
+            int[] all = recall.get("all");
+            report.append(String.format("%-6s recall %5.1f%% (%d/%d), latency %.1f us (p95 %.1f us), %.0f sentences/s\n",
+                                        path, percent(all), all[0], all[1], total / 1000.0 / nanos.length,
+                                        nanos[(int) Math.min(nanos.length - 1, Math.ceil(nanos.length * 0.95) - 1)] /
+                                        1000.0, nanos.length * 1e9 / Math.max(1, total)));
+            for (Map.Entry<String, int[]> type : recall.entrySet()) {
+                if (!"all".equals(type.getKey())) {
+                    report.append(String.format("         %-20s %5.1f%% (%d/%d)\n", type.getKey(),
+                                                percent(type.getValue()), type.getValue()[0], type.getValue()[1]));
+                }
+            }
+        }
+        report.append(finder.getStats()).append('\n');
+        return report.toString();
+    }
+
+    /**
+     * Extract every sentence once, one session per document, timing each sentence into nanos
+     */
+    private List<List<ContractEntityFinder.Entity>> pass(ContractEntityFinder finder, Path path, long[] nanos,
+                                                         int offset) {
+        List<List<ContractEntityFinder.Entity>> found = new ArrayList<>(sentences.size());
+        ContractEntityFinder.Session session = null;
+        try {
+            for (int s = 0; s < sentences.size(); s++) {
+                Sentence sentence = sentences.get(s);
+                if (session == null || sentence.newDocument) {
+                    if (session != null) {
+                        session.close();
+                    }
+                    session = finder.openSession();
+                }
+                long start = System.nanoTime();
+                found.add(extract(session, path, sentence.text));
+                nanos[offset + s] = System.nanoTime() - start;
+            }
+        } finally {
+            if (session != null) {
+                session.close();
+            }
+        }
+        return found;
+    }
+
+    private static List<ContractEntityFinder.Entity> extract(ContractEntityFinder.Session session, Path path,
+                                                             String text) {
+        switch (path) {
+        case LEXER:
+            return ContractEntityFinder.findIdentifiers(text);
+        case NER:
+            return session.findNames(text);
+        default:
+            return session.find(text);
+        }
+    }
+
+    // Found and annotated counts per annotation type, and over all types as "all"
+    private Map<String, int[]> score(List<List<ContractEntityFinder.Entity>> found) {
+        Map<String, int[]> recall = new LinkedHashMap<>();
+        recall.put("all", new int[2]);
+        for (int s = 0; s < sentences.size(); s++) {
+            Sentence sentence = sentences.get(s);
+            for (int e = 0; e < sentence.types.length; e++) {
+                boolean hit = false;
+                for (ContractEntityFinder.Entity entity : found.get(s)) {
+                    if (entity.getStart() == sentence.starts[e] && entity.getEnd() == sentence.ends[e]) {
+                        hit = true;
+                        break;
+                    }
+                }
+                for (int[] counts : Arrays.asList(recall.get("all"),
+                                                  recall.computeIfAbsent(sentence.types[e], type -> new int[2]))) {
+                    counts[0] += hit ? 1 : 0;
+                    counts[1]++;
+                }
+            }
+        }
+        return recall;
+    }
+
+    private int countEntities() {
+        int entities = 0;
+        for (Sentence sentence : sentences) {
+            entities += sentence.types.length;
+        }
+        return entities;
+    }
+
+    private static double percent(int[] counts) {
+        return counts[1] == 0 ? 0.0 : counts[0] * 100.0 / counts[1];
+    }
+
+    /**
+     * An annotated sentence, its tokens joined by single spaces, with entity character offsets
+     */
+    public static final class Sentence {
+        private final String text;
+        private final String[] types;
+        private final int[] starts;
+        private final int[] ends;
+        private final boolean newDocument;
+
+        public Sentence(String[] tokens, Span[] names, boolean newDocument) {
+            int[] tokenStarts = new int[tokens.length + 1];
+            for (int i = 0; i < tokens.length; i++) {
+                tokenStarts[i + 1] = tokenStarts[i] + tokens[i].length() + 1;
+            }
+            this.text = String.join(" ", tokens);
+            this.types = new String[names.length];
+            this.starts = new int[names.length];
+            this.ends = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                types[i] = names[i].getType() == null ? "default" : names[i].getType();
+                starts[i] = tokenStarts[names[i].getStart()];
+                ends[i] = tokenStarts[names[i].getEnd()] - 1;
+            }
+            this.newDocument = newDocument;
+        }
+    }
+
+    /**
+     * Usage: ContractEntityBenchmark [model file] [annotated sentences] [rounds]
+     */
+    public static void main(String[] args) {
+        String modelPath = args.length > 0 ? args[0] : ContractEntityFinder.DEFAULT_MODEL_PATH;
+        String samplesPath = args.length > 1 ? args[1] : TrainContractNER.DEFAULT_HELD_OUT_FILE;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+
+        try (ContractEntityFinder finder = ContractEntityFinder.open(modelPath)) {
+            ContractEntityBenchmark benchmark = new ContractEntityBenchmark(readSentences(new File(samplesPath)));
+            System.out.print(benchmark.run(finder, rounds));
+        } catch (IOException e) {
+            System.err.println("Contract entity benchmark failed: " + e.getMessage());
+        }
+    }
+}
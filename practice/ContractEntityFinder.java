@@ -0,0 +1,435 @@
+package view.practice;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import opennlp.tools.namefind.NameFinderME;
+import opennlp.tools.namefind.TokenNameFinderModel;
+import opennlp.tools.util.Span;
+
+import view.ModelRegistry;
+
+/**
+ * Contract entity extraction from the NER model trained by TrainContractNER, merged with the
+ * identifiers of BusinessIdentifierLexer.
+ *
+ * The model is loaded once through ModelRegistry and shared; every thread gets its own
+ * NameFinderME over it, since NameFinderME is not thread-safe. NameFinderME keeps adaptive data -
+ * the outcomes of earlier sentences - which helps within one conversation but must not leak into
+ * the next. So adaptive data is cleared when a session starts using a thread's finder and when it
+ * closes, not on every call: consecutive calls of one session on one thread keep their context.
+ * A session that moves to another thread starts that thread's context afresh and clears the one
+ * it left behind. A session remembers the finder holding its context, so it can be closed from
+ * any thread; each finder's find and clear run under the finder's own lock.
+ *
+ * The finder is reference counted: the owner holds one reference, released by close(), every
+ * open session holds one, and callers that may race with close() - a reload replacing the
+ * finder - retain() it around each use. The shared model is released with the last reference,
+ * so a call already under way never finds it gone.
+ *
+ * Merging: the lexer recognises identifier formats exactly, so a contract, account, part or
+ * invoice number from the lexer wins over an overlapping NER span; the NER span is dropped, or
+ * marked BOTH when it covers the same text. NER spans win over the lexer's generic NUMBER and
+ * ALPHANUMERIC runs, and add the entities no regex describes, such as customer names.
+ */
+public class ContractEntityFinder implements AutoCloseable {
+
+    public static final String DEFAULT_MODEL_PATH = "contract-ner-model.bin";
+
+    /**
+     * Which extraction path found an entity
+     */
+    public enum Source {
+        LEXER,
+        NER,
+        BOTH
+    }
+
+    private static final String PUNCTUATION = ".,;:!?()[]{}\"'";
+
+    private final ModelRegistry.Lease<TokenNameFinderModel> lease;
+    private final ThreadLocal<ThreadFinder> finders;
+    // The owner's reference plus one per open session and per retain()
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // Metrics
+    private final AtomicLong sessions = new AtomicLong();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong adaptiveClears = new AtomicLong();
+
+    private ContractEntityFinder(ModelRegistry.Lease<TokenNameFinderModel> lease) {
+        this.lease = lease;
+        this.finders = lease.perThread(model -> new ThreadFinder(new NameFinderME(model)));
+    }
+
+    public static ContractEntityFinder open(String modelPath) throws IOException {
+        return new ContractEntityFinder(ModelRegistry.acquire(modelPath, TokenNameFinderModel::new));
+    }
+
+    /**
+     * Open in the background, for callers that extract without the model until it is loaded
+     */
+    public static CompletableFuture<ContractEntityFinder> openAsync(String modelPath) {
+        return ModelRegistry.acquireAsync(modelPath, TokenNameFinderModel::new).thenApply(ContractEntityFinder::new);
+    }
+
+    /**
+     * Start a conversation; entities found in it share adaptive data until it is closed
+     */
+    public Session openSession() {
+        if (!retain()) {
+            throw new IllegalStateException("Contract entity finder already closed");
+        }
+        sessions.incrementAndGet();
+        return new Session();
+    }
+
+    /**
+     * Keep the model until release(); false when the finder has already been released for good
+     */
+    public boolean retain() {
+        while (true) {
+            int count = references.get();
+            if (count == 0) {
+                return false;
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drop a reference taken by retain(); the last one releases the shared model
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            lease.close();
+        }
+    }
+
+    /**
+     * Lexer identifiers as entities, compound identifiers without their component runs
+     */
+    public static List<Entity> findIdentifiers(String text) {
+        return findIdentifiers(BusinessIdentifierLexer.scan(text));
+    }
+
+    /**
+     * Entities of identifiers the caller already scanned
+     */
+    public static List<Entity> findIdentifiers(BusinessIdentifierLexer.Identifiers identifiers) {
+        List<Entity> entities = new ArrayList<>();
+        for (BusinessIdentifierLexer.Identifier identifier : identifiers.asList()) {
+            // Compounds are reported before their components, so a component overlaps an accepted entity
+            if (!overlapsAny(entities, identifier.getStart(), identifier.getEnd())) {
+                entities.add(new Entity(identifier.getType().name().toLowerCase(), identifier.getValue(),
+                                        identifier.getStart(), identifier.getEnd(), Source.LEXER, 1.0,
+                                        isGeneric(identifier.getType())));
+            }
+        }
+        return entities;
+    }
+
+    private static boolean isGeneric(BusinessIdentifierLexer.IdentifierType type) {
+        return type == BusinessIdentifierLexer.IdentifierType.NUMBER ||
+               type == BusinessIdentifierLexer.IdentifierType.ALPHANUMERIC;
+    }
+
+    private static boolean overlapsAny(List<Entity> entities, int start, int end) {
+        for (Entity entity : entities) {
+            if (entity.overlaps(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * NER entities merged with lexer identifiers, in order of position
+     */
+    static List<Entity> merge(List<Entity> names, List<Entity> identifiers) {
+        List<Entity> merged = new ArrayList<>();
+        boolean[] replaced = new boolean[identifiers.size()];
+        boolean[] confirmed = new boolean[identifiers.size()];
+        for (Entity name : names) {
+            int winner = -1;
+            for (int i = 0; i < identifiers.size() && winner < 0; i++) {
+                Entity identifier = identifiers.get(i);
+                if (!identifier.generic && identifier.overlaps(name.start, name.end)) {
+                    winner = i;
+                }
+            }
+            if (winner >= 0) {
+                if (identifiers.get(winner).start == name.start && identifiers.get(winner).end == name.end) {
+                    confirmed[winner] = true;
+                }
+                continue;
+            }
+            // The name is kept, so the generic runs it covers go
+            for (int i = 0; i < identifiers.size(); i++) {
+                Entity identifier = identifiers.get(i);
+                if (identifier.generic && identifier.overlaps(name.start, name.end)) {
+                    replaced[i] = true;
+                }
+            }
+            merged.add(name);
+        }
+        for (int i = 0; i < identifiers.size(); i++) {
+            Entity identifier = identifiers.get(i);
+            if (confirmed[i]) {
+                merged.add(new Entity(identifier.type, identifier.value, identifier.start, identifier.end,
+                                      Source.BOTH, identifier.probability, false));
+            } else if (!replaced[i]) {
+                merged.add(identifier);
+            }
+        }
+        merged.sort(Comparator.comparingInt((Entity entity) -> entity.start).thenComparingInt(entity -> -entity.end));
+        return merged;
+    }
+
+    /**
+     * Whitespace tokens with leading and trailing punctuation split off, as in the NER training file
+     */
+    static Tokens tokenize(String text) {
+        Tokens tokens = new Tokens(text.length() / 2 + 1);
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int end = i;
+            while (start < end && PUNCTUATION.indexOf(text.charAt(start)) >= 0) {
+                tokens.add(text, start, start + 1);
+                start++;
+            }
+            int trailing = end;
+            while (trailing > start && PUNCTUATION.indexOf(text.charAt(trailing - 1)) >= 0) {
+                trailing--;
+            }
+            if (start < trailing) {
+                tokens.add(text, start, trailing);
+            }
+            for (int p = trailing; p < end; p++) {
+                tokens.add(text, p, p + 1);
+            }
+        }
+        return tokens;
+    }
+
+    public String getStats() {
+        return String.format("contract entity finder: %d sessions, %d calls, %d adaptive data clears", sessions.get(),
+                             calls.get(), adaptiveClears.get());
+    }
+
+    /**
+     * Drop the owner's reference; the shared model is released once open sessions and retained
+     * uses are done with it
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /**
+     * One conversation. Use it from one thread at a time.
+     */
+    public final class Session implements AutoCloseable {
+
+        private volatile ThreadFinder holder; // the finder holding this session's adaptive data
+        private final AtomicBoolean sessionClosed = new AtomicBoolean();
+
+        private Session() {
+        }
+
+        /**
+         * Entities of both extraction paths, merged
+         */
+        public List<Entity> find(String text) {
+            return merge(findNames(text), findIdentifiers(text));
+        }
+
+        /**
+         * Entities of both extraction paths, merged, reusing a lexer scan of the same text
+         */
+        public List<Entity> find(String text, BusinessIdentifierLexer.Identifiers identifiers) {
+            return merge(findNames(text), findIdentifiers(identifiers));
+        }
+
+        /**
+         * Entities of the NER model alone
+         */
+        public List<Entity> findNames(String text) {
+            calls.incrementAndGet();
+            Tokens tokens = tokenize(text);
+            if (tokens.size == 0) {
+                return Collections.emptyList();
+            }
+            ThreadFinder current = finders.get();
+            Span[] spans;
+            synchronized (current) {
+                if (current.session != this) {
+                    // Another session's context is on this thread's finder
+                    current.finder.clearAdaptiveData();
+                    current.session = this;
+                    adaptiveClears.incrementAndGet();
+                }
+                spans = current.finder.find(tokens.words());
+            }
+            ThreadFinder previous = holder;
+            holder = current;
+            if (previous != null && previous != current) {
+                // Moved threads; the context left on the old thread's finder is stale
+                release(previous);
+            }
+
+            List<Entity> names = new ArrayList<>(spans.length);
+            for (Span span : spans) {
+                int start = tokens.starts[span.getStart()];
+                int end = tokens.ends[span.getEnd() - 1];
+                names.add(new Entity(span.getType(), text.substring(start, end), start, end, Source.NER,
+                                     span.getProb(), false));
+            }
+            return names;
+        }
+
+        /**
+         * End the conversation, clearing its context from the finder that holds it, on any thread
+         */
+        @Override
+        public void close() {
+            if (!sessionClosed.compareAndSet(false, true)) {
+                return;
+            }
+            ThreadFinder previous = holder;
+            holder = null;
+            if (previous != null) {
+                release(previous);
+            }
+            ContractEntityFinder.this.release();
+        }
+
+        private void release(ThreadFinder threadFinder) {
+            synchronized (threadFinder) {
+                if (threadFinder.session == this) {
+                    threadFinder.finder.clearAdaptiveData();
+                    threadFinder.session = null;
+                    adaptiveClears.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static final class ThreadFinder {
+        private final NameFinderME finder;
+        private Session session; // whose adaptive data the finder holds, guarded by this
+
+        ThreadFinder(NameFinderME finder) {
+            this.finder = finder;
+        }
+    }
+
+    static final class Tokens {
+        private String[] words;
+        private int[] starts;
+        private int[] ends;
+        private int size;
+
+        Tokens(int capacity) {
+            words = new String[capacity];
+            starts = new int[capacity];
+            ends = new int[capacity];
+        }
+
+        void add(String text, int start, int end) {
+            if (size == words.length) {
+                words = Arrays.copyOf(words, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            words[size] = text.substring(start, end);
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        String[] words() {
+            return words.length == size ? words : Arrays.copyOf(words, size);
+        }
+    }
+
+    /**
+     * An entity with its character offsets in the text
+     */
+    public static final class Entity {
+        private final String type;
+        private final String value;
+        private final int start;
+        private final int end;
+        private final double probability;
+        private final boolean generic;
+        private final Source source;
+
+        Entity(String type, String value, int start, int end, Source source, double probability, boolean generic) {
+            this.type = type;
+            this.value = value;
+            this.start = start;
+            this.end = end;
+            this.source = source;
+            this.probability = probability;
+            this.generic = generic;
+        }
+
+        boolean overlaps(int otherStart, int otherEnd) {
+            return start < otherEnd && otherStart < end;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public Source getSource() {
+            return source;
+        }
+
+        /**
+         * NER probability of the span; 1.0 for lexer identifiers
+         */
+        public double getProbability() {
+            return probability;
+        }
+
+        @Override
+        public String toString() {
+            return type + "[" + start + "," + end + "]=" + value + " (" + source + ")";
+        }
+    }
+}
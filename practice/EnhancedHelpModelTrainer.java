@@ -92,6 +92,22 @@ public class EnhancedHelpModelTrainer extends HelpModelTrainer {
     }
     
     
+    /**
+     * k-fold cross-validation of the training data above, with the Help training parameters
+     */
+    public TrainingRunner.CrossValidationReport crossValidate(int folds) throws IOException {
+        List<DocumentSample> samples = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : getOriginalTrainingData().entrySet()) {
+            for (String text : entry.getValue()) {
+                samples.add(new DocumentSample(entry.getKey(), text.toLowerCase().split("\\s+")));
+            }
+        }
+        TrainingRunner.CrossValidationReport report = HELP_TRAINING.crossValidate(samples, folds);
+        logger.info(report.toString());
+        return report;
+    }
+    
+    
     protected String extractEnhancedFeatures(String text) {
       
         StringBuilder features = new StringBuilder(null);
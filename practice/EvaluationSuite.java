@@ -0,0 +1,499 @@
+package view.practice;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs a labelled query set against a classifier on several threads and reports accuracy and latency.
+ *
+ * The query set is classified in passes: warm-up passes first, untimed, then timed passes in
+ * which every call is timed on its own. Worker threads take the next query from a shared
+ * counter, so a slow query does not hold up the others. Predictions are taken from the first
+ * timed pass; latency percentiles (nearest rank) cover every timed call.
+ *
+ * The report holds a confusion matrix, per-intent precision, recall and F1, and the outcome of
+ * every query in input order. toJson() writes it with labels sorted and queries in input order,
+ * so reports of two builds can be diffed line by line. A classifier that throws is scored as
+ * predicting "error"; one that abstains (returns null) as predicting "none".
+ */
+public class EvaluationSuite {
+
+    public static final String ERROR_LABEL = "error";
+    public static final String ABSTAIN_LABEL = "none";
+
+    private final String name;
+    private final List<String> queries = new ArrayList<>();
+    private final List<String> expected = new ArrayList<>();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int warmupPasses = 1;
+    private int timedPasses = 5;
+
+    public EvaluationSuite(String name) {
+        this.name = name;
+    }
+
+    public EvaluationSuite add(String query, String expectedLabel) {
+        queries.add(query);
+        expected.add(expectedLabel);
+        return this;
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Untimed passes before measuring, then timed passes over the whole query set
+     */
+    public void setPasses(int warmupPasses, int timedPasses) {
+        if (warmupPasses < 0 || timedPasses < 1) {
+            throw new IllegalArgumentException("Need at least one timed pass");
+        }
+        this.warmupPasses = warmupPasses;
+        this.timedPasses = timedPasses;
+    }
+
+    /**
+     * Evaluate a classifier that is safe to call from several threads at once
+     */
+    public Report run(ClassifierCascade.Classifier<String> classifier) throws IOException {
+        return run(() -> classifier);
+    }
+
+    /**
+     * Evaluate with one classifier per worker thread, for classifiers that are not thread-safe
+     */
+    public Report run(Supplier<? extends ClassifierCascade.Classifier<String>> classifierPerThread)
+        throws IOException {
+        if (queries.isEmpty()) {
+            throw new IllegalStateException("Evaluation suite " + name + " has no queries");
+        }
+        int size = queries.size();
+        String[] predicted = new String[size];
+        double[] confidences = new double[size];
+        String[] errors = new String[size];
+        long[] nanos = new long[size * timedPasses];
+
+        ThreadLocal<ClassifierCascade.Classifier<String>> classifiers = ThreadLocal.withInitial(classifierPerThread);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long timedNanos = 0;
+        try {
+            for (int pass = 0; pass < warmupPasses + timedPasses; pass++) {
+                int timedPass = pass - warmupPasses;
+                AtomicInteger next = new AtomicInteger();
+                List<Callable<Void>> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    workers.add(() -> {
+                        ClassifierCascade.Classifier<String> classifier = classifiers.get();
+                        int i;
+                        while ((i = next.getAndIncrement()) < size) {
+                            long start = System.nanoTime();
+                            String label;
+                            double confidence = 0.0;
+                            String error = null;
+                            try {
+                                ClassifierCascade.Decision decision = classifier.classify(queries.get(i));
+                                label = decision == null ? ABSTAIN_LABEL : decision.getLabel();
+                                confidence = decision == null ? 0.0 : decision.getConfidence();
+                            } catch (RuntimeException e) {
+                                label = ERROR_LABEL;
+                                error = e.toString();
+                            }
+                            long elapsed = System.nanoTime() - start;
+                            if (timedPass >= 0) {
+                                nanos[timedPass * size + i] = elapsed;
+                            }
+                            if (timedPass == 0) {
+                                predicted[i] = label;
+                                confidences[i] = confidence;
+                                errors[i] = error;
+                            }
+                        }
+                        return null;
+                    });
+                }
+                long passStart = System.nanoTime();
+                for (Future<Void> worker : pool.invokeAll(workers)) {
+                    worker.get();
+                }
+                if (timedPass >= 0) {
+                    timedNanos += System.nanoTime() - passStart;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Evaluation of " + name + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Evaluation of " + name + " failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            outcomes.add(new Outcome(queries.get(i), expected.get(i), predicted[i], confidences[i], errors[i]));
+        }
+        Arrays.sort(nanos);
+        return new Report(name, threads, timedPasses, outcomes, nanos, timedNanos);
+    }
+
+    /**
+     * Result of one query
+     */
+    public static final class Outcome {
+        private final String query;
+        private final String expected;
+        private final String predicted;
+        private final double confidence;
+        private final String error;
+
+        private Outcome(String query, String expected, String predicted, double confidence, String error) {
+            this.query = query;
+            this.expected = expected;
+            this.predicted = predicted;
+            this.confidence = confidence;
+            this.error = error;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public String getExpected() {
+            return expected;
+        }
+
+        public String getPredicted() {
+            return predicted;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public boolean isCorrect() {
+            return expected.equals(predicted);
+        }
+
+        /**
+         * Exception thrown by the classifier, or null
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    public static final class Report {
+        private final String name;
+        private final int threads;
+        private final int timedPasses;
+        private final List<Outcome> outcomes;
+        private final List<String> labels;
+        private final int[][] confusion; // [expected][predicted]
+        private final long[] sortedNanos;
+        private final long timedNanos;
+
+        private Report(String name, int threads, int timedPasses, List<Outcome> outcomes, long[] sortedNanos,
+                       long timedNanos) {
+            this.name = name;
+            this.threads = threads;
+            this.timedPasses = timedPasses;
+            this.outcomes = Collections.unmodifiableList(outcomes);
+            this.sortedNanos = sortedNanos;
+            this.timedNanos = timedNanos;
+
+            TreeSet<String> labelSet = new TreeSet<>();
+            for (Outcome outcome : outcomes) {
+                labelSet.add(outcome.expected);
+                labelSet.add(outcome.predicted);
+            }
+            this.labels = Collections.unmodifiableList(new ArrayList<>(labelSet));
+            this.confusion = new int[labels.size()][labels.size()];
+            for (Outcome outcome : outcomes) {
+                confusion[labels.indexOf(outcome.expected)][labels.indexOf(outcome.predicted)]++;
+            }
+        }
+
+        public List<Outcome> getOutcomes() {
+            return outcomes;
+        }
+
+        public List<String> getLabels() {
+            return labels;
+        }
+
+        /**
+         * Number of queries labelled expected that were classified as predicted
+         */
+        public int getCount(String expected, String predicted) {
+            int row = labels.indexOf(expected);
+            int col = labels.indexOf(predicted);
+            return row < 0 || col < 0 ? 0 : confusion[row][col];
+        }
+
+        public int getCorrectCount() {
+            int correct = 0;
+            for (int l = 0; l < labels.size(); l++) {
+                correct += confusion[l][l];
+            }
+            return correct;
+        }
+
+        public double getAccuracy() {
+            return (double) getCorrectCount() / outcomes.size();
+        }
+
+        /**
+         * Share of the predictions of label that were right; 0 when it was never predicted
+         */
+        public double getPrecision(String label) {
+            int col = labels.indexOf(label);
+            if (col < 0) {
+                return 0.0;
+            }
+            int predicted = 0;
+            for (int[] row : confusion) {
+                predicted += row[col];
+            }
+            return predicted == 0 ? 0.0 : (double) confusion[col][col] / predicted;
+        }
+
+        /**
+         * Share of the queries labelled label that were found; 0 when there are none
+         */
+        public double getRecall(String label) {
+            int row = labels.indexOf(label);
+            int support = row < 0 ? 0 : support(row);
+            return support == 0 ? 0.0 : (double) confusion[row][row] / support;
+        }
+
+        public double getF1(String label) {
+            double precision = getPrecision(label);
+            double recall = getRecall(label);
+            return precision + recall == 0.0 ? 0.0 : 2 * precision * recall / (precision + recall);
+        }
+
+        /**
+         * F1 averaged over the labels that occur in the query set
+         */
+        public double getMacroF1() {
+            double sum = 0.0;
+            int count = 0;
+            for (int l = 0; l < labels.size(); l++) {
+                if (support(l) > 0) {
+                    sum += getF1(labels.get(l));
+                    count++;
+                }
+            }
+            return count == 0 ? 0.0 : sum / count;
+        }
+
+        private int support(int row) {
+            int support = 0;
+            for (int count : confusion[row]) {
+                support += count;
+            }
+            return support;
+        }
+
+        /**
+         * Latency percentile over every timed call, in microseconds
+         */
+        public double getLatencyMicros(double percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+            return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, rank - 1))] / 1000.0;
+        }
+
+        public double getMeanLatencyMicros() {
+            long total = 0;
+            for (long value : sortedNanos) {
+                total += value;
+            }
+            return total / 1000.0 / sortedNanos.length;
+        }
+
+        /**
+         * Queries classified per second during the timed passes, all threads together
+         */
+        public double getThroughput() {
+            return timedNanos == 0 ? 0.0 : sortedNanos.length * 1e9 / timedNanos;
+        }
+
+        public void writeJson(Path path) throws IOException {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Machine-readable report; labels sorted and queries in input order so builds can be diffed
+         */
+        public String toJson() {
+            StringBuilder json = new StringBuilder();
+            json.append("{\n");
+            json.append("  \"name\": ").append(quote(name)).append(",\n");
+            json.append("  \"queries\": ").append(outcomes.size()).append(",\n");
+            json.append("  \"correct\": ").append(getCorrectCount()).append(",\n");
+            json.append("  \"accuracy\": ").append(number(getAccuracy())).append(",\n");
+            json.append("  \"macroF1\": ").append(number(getMacroF1())).append(",\n");
+            json.append("  \"latencyMicros\": {\"p50\": ").append(number(getLatencyMicros(50)))
+                .append(", \"p95\": ").append(number(getLatencyMicros(95)))
+                .append(", \"p99\": ").append(number(getLatencyMicros(99)))
+                .append(", \"max\": ").append(number(getLatencyMicros(100)))
+                .append(", \"mean\": ").append(number(getMeanLatencyMicros()))
+                .append(", \"threads\": ").append(threads)
+                .append(", \"timedCalls\": ").append(sortedNanos.length).append("},\n");
+
+            json.append("  \"labels\": {\n");
+            for (int l = 0; l < labels.size(); l++) {
+                String label = labels.get(l);
+                json.append("    ").append(quote(label)).append(": {\"support\": ").append(support(l))
+                    .append(", \"precision\": ").append(number(getPrecision(label)))
+                    .append(", \"recall\": ").append(number(getRecall(label)))
+                    .append(", \"f1\": ").append(number(getF1(label))).append("}")
+                    .append(l < labels.size() - 1 ? ",\n" : "\n");
+            }
+            json.append("  },\n");
+
+            // Only non-zero cells, so adding a label does not change every row
+            json.append("  \"confusion\": [\n");
+            List<String> cells = new ArrayList<>();
+            for (int row = 0; row < labels.size(); row++) {
+                for (int col = 0; col < labels.size(); col++) {
+                    if (confusion[row][col] > 0) {
+                        cells.add("    {\"expected\": " + quote(labels.get(row)) + ", \"predicted\": " +
+                                  quote(labels.get(col)) + ", \"count\": " + confusion[row][col] + "}");
+                    }
+                }
+            }
+            json.append(String.join(",\n", cells)).append(cells.isEmpty() ? "" : "\n");
+            json.append("  ],\n");
+
+            json.append("  \"results\": [\n");
+            for (int i = 0; i < outcomes.size(); i++) {
+                Outcome outcome = outcomes.get(i);
+                json.append("    {\"query\": ").append(quote(outcome.query))
+                    .append(", \"expected\": ").append(quote(outcome.expected))
+                    .append(", \"predicted\": ").append(quote(outcome.predicted))
+                    .append(", \"correct\": ").append(outcome.isCorrect());
+                if (outcome.error != null) {
+                    json.append(", \"error\": ").append(quote(outcome.error));
+                }
+                json.append("}").append(i < outcomes.size() - 1 ? ",\n" : "\n");
+            }
+            json.append("  ]\n");
+            json.append("}\n");
+            return json.toString();
+        }
+
+        private static String number(double value) {
+            return String.format(Locale.ROOT, "%.4f", value);
+        }
+
+        private static String quote(String value) {
+            StringBuilder quoted = new StringBuilder("\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+            return quoted.append('"').toString();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("=== %s evaluation: %d/%d correct (%.1f%%), macro F1 %.3f ===\n", name,
+                                        getCorrectCount(), outcomes.size(), getAccuracy() * 100, getMacroF1()));
+            report.append(String.format("Latency p50 %.1f us, p95 %.1f us, p99 %.1f us, max %.1f us; %.0f queries/s on %d thread(s)\n",
+                                        getLatencyMicros(50), getLatencyMicros(95), getLatencyMicros(99),
+                                        getLatencyMicros(100), getThroughput(), threads));
+
+            int width = 8;
+            for (String label : labels) {
+                width = Math.max(width, label.length());
+            }
+            report.append(String.format("\n%-" + width + "s  %9s  %6s  %6s  %7s\n", "intent", "precision", "recall",
+                                        "f1", "support"));
+            for (int l = 0; l < labels.size(); l++) {
+                String label = labels.get(l);
+                report.append(String.format("%-" + width + "s  %9.3f  %6.3f  %6.3f  %7d\n", label,
+                                            getPrecision(label), getRecall(label), getF1(label), support(l)));
+            }
+
+            // Columns are numbered to keep the matrix narrow; column n is row n's label
+            report.append("\nConfusion matrix (rows expected, columns predicted):\n");
+            report.append(String.format("%" + (width + 5) + "s", ""));
+            for (int col = 0; col < labels.size(); col++) {
+                report.append(String.format("%4d", col + 1));
+            }
+            report.append('\n');
+            for (int row = 0; row < labels.size(); row++) {
+                report.append(String.format("%2d. %-" + width + "s ", row + 1, labels.get(row)));
+                for (int col = 0; col < labels.size(); col++) {
+                    report.append(confusion[row][col] == 0 ? "   ." : String.format("%4d", confusion[row][col]));
+                }
+                report.append('\n');
+            }
+
+            List<Outcome> wrong = new ArrayList<>();
+            for (Outcome outcome : outcomes) {
+                if (!outcome.isCorrect()) {
+                    wrong.add(outcome);
+                }
+            }
+            if (!wrong.isEmpty()) {
+                report.append("\nMisclassified:\n");
+                for (Outcome outcome : wrong) {
+                    report.append(String.format("  \"%s\": expected %s, got %s (%.2f)%s\n", outcome.query,
+                                                outcome.expected, outcome.predicted, outcome.confidence,
+                                                outcome.error == null ? "" : " " + outcome.error));
+                }
+            }
+            return report.toString();
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package view.practice;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import opennlp.tools.doccat.DoccatModel;
 import opennlp.tools.doccat.DocumentCategorizerME;
+import opennlp.tools.doccat.DocumentSample;
 public class HelpIntentClassifier {
     
     private static final Logger logger = Logger.getLogger(HelpIntentClassifier.class.getName());
@@ -22,6 +27,13 @@ public class HelpIntentClassifier {
     // Intent confidence threshold
     private static final double CONFIDENCE_THRESHOLD = 0.6;
     
+    // Learns from feedback at runtime, in the shadow of the OpenNLP model until it proves better
+    private static final String ONLINE_CHECKPOINT_PATH = "./models/online-help.bin";
+    private static final int ONLINE_TRAINING_EPOCHS = 5;
+    private static final long CHECKPOINT_MINUTES = 5;
+    private final ShadowIntentModel.Lease onlineModel =
+        ShadowIntentModel.open("Help", new File(ONLINE_CHECKPOINT_PATH));
+    
     // Predefined categories since we can't get them from the model directly
     private static final String[] HELP_CATEGORIES = {
         "help_create_contract",
@@ -69,6 +81,8 @@ public class HelpIntentClassifier {
             model = new DoccatModel(modelIn);
             categorizer = new DocumentCategorizerME(model);
             isModelLoaded = true;
+            onlineModel.get().seed(createOnlineSeedSamples(), ONLINE_TRAINING_EPOCHS);
+            onlineModel.get().startCheckpointing(CHECKPOINT_MINUTES, TimeUnit.MINUTES);
             
             logger.info("? Help Intent Model loaded successfully");
             
@@ -101,6 +115,11 @@ public class HelpIntentClassifier {
             // Get confidence for the best category
             double confidence = getBestCategoryConfidence(outcomes, bestCategory);
             
+            // The online model answers instead once it has proven better on feedback
+            ClassifierCascade.Decision decision = onlineModel.get().decide(tokens, bestCategory, confidence);
+            bestCategory = decision.getLabel();
+            confidence = decision.getConfidence();
+            
             // Apply confidence threshold
             if (confidence < CONFIDENCE_THRESHOLD) {
                 logger.info("?? Low confidence (" + String.format("%.2f", confidence * 100) + "%), treating as unknown");
@@ -122,6 +141,40 @@ public class HelpIntentClassifier {
         }
     }
     
+    /**
+     * Correct or confirm the help category of an input; the online model learns it right away
+     */
+    public void reportFeedback(String userInput, String category) {
+        if (!isModelLoaded || userInput == null || userInput.trim().isEmpty()) {
+            return;
+        }
+        String[] tokens = preprocessor.preprocessText(userInput).split("\\s+");
+        String primaryCategory = categorizer.getBestCategory(categorizer.categorize(tokens));
+        onlineModel.get().feedback(tokens, primaryCategory, category);
+    }
+    
+    public String getOnlineModelStats() {
+        return onlineModel.get().getStats();
+    }
+    
+    /**
+     * Release the online model; its last checkpoint is written once no other classifier shares it
+     */
+    public void close() {
+        onlineModel.close();
+    }
+    
+    // The generated help training data, in the token form classifyIntent gives the models
+    private List<DocumentSample> createOnlineSeedSamples() {
+        List<DocumentSample> samples = new ArrayList<>();
+        for (String line : HelpTrainingDataGenerator.createHelpTrainingData()) {
+            int tab = line.lastIndexOf('\t');
+            samples.add(new DocumentSample(line.substring(tab + 1),
+                                           preprocessor.preprocessText(line.substring(0, tab)).split("\\s+")));
+        }
+        return samples;
+    }
+    
     /**
      * Get confidence for the best category by finding the highest score in outcomes
      */
@@ -1,14 +1,22 @@
 package view.practice;
 import opennlp.tools.doccat.*;
 import opennlp.tools.util.*;
-import opennlp.tools.util.model.ModelUtil;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 public class HelpModelTrainer {
     
+    // Training parameters shared with EnhancedHelpModelTrainer
+    protected static final TrainingRunner HELP_TRAINING = new TrainingRunner("Help", "NAIVEBAYES", 100, 1);
+    
     public static void main(String[] args) {
         trainHelpModel();
+        if (args.length > 0 && args[0].equals("--cross-validate")) {
+            crossValidateHelpModel(5);
+        }
+        if (args.length > 0 && args[0].equals("--sweep")) {
+            sweepHelpParameters();
+        }
     }
     
     public static void trainHelpModel() {
@@ -22,20 +30,14 @@ public class HelpModelTrainer {
                 HelpTrainingDataGenerator.generateHelpTrainingData();
             }
             
-            // Load training data
-            InputStreamFactory dataIn = new MarkableFileInputStreamFactory(trainingFile);
-            ObjectStream<String> lineStream = new PlainTextByLineStream(dataIn, StandardCharsets.UTF_8);
-            ObjectStream<DocumentSample> sampleStream = new DocumentSampleStream(lineStream);
-            
-            // Set training parameters
-            TrainingParameters params = ModelUtil.createDefaultTrainingParameters();
-            params.put(TrainingParameters.CUTOFF_PARAM, 1);
-            params.put(TrainingParameters.ITERATIONS_PARAM, 100);
-            params.put(TrainingParameters.ALGORITHM_PARAM, "NAIVEBAYES");
-            
-            // Train the model
+            // Train the model, streaming the training data from disk
             System.out.println("? Training Help classification model...");
-            DoccatModel model = DocumentCategorizerME.train("en", sampleStream, params, new DoccatFactory());
+            TrainingRunner.TrainingResult result;
+            try (ObjectStream<DocumentSample> samples = WeightedSampleStream.fromFile(trainingFile)) {
+                result = HELP_TRAINING.train(samples);
+            }
+            DoccatModel model = result.getModel();
+            System.out.println("? " + result);
             
             // Create models directory if it doesn't exist
             File modelsDir = new File("models");
@@ -61,6 +63,40 @@ public class HelpModelTrainer {
         }
     }
     
+    /**
+     * k-fold cross-validation of the help training data, folds trained concurrently
+     */
+    public static void crossValidateHelpModel(int folds) {
+        try {
+            List<DocumentSample> samples = loadTrainingSamples(new File("training/help-training-data.txt"));
+            System.out.println("\n" + HELP_TRAINING.crossValidate(samples, folds));
+        } catch (Exception e) {
+            System.err.println("? Error cross-validating Help model: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Train every parameter combination on the help training data and rank them on held-out samples
+     */
+    public static void sweepHelpParameters() {
+        try {
+            List<DocumentSample> samples = loadTrainingSamples(new File("training/help-training-data.txt"));
+            ParameterSweep.SweepReport report = new ParameterSweep("Help", samples).run();
+            report.writeTo(new File("models/help-parameter-sweep.txt").toPath());
+            System.out.println("\n" + report);
+        } catch (Exception e) {
+            System.err.println("? Error sweeping Help model parameters: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    private static List<DocumentSample> loadTrainingSamples(File trainingFile) throws IOException {
+        try (ObjectStream<DocumentSample> sampleStream = WeightedSampleStream.fromFile(trainingFile)) {
+            return TrainingRunner.readAll(sampleStream);
+        }
+    }
+    
     private static void testHelpModel(DoccatModel model) {
         System.out.println("\n? Testing Help model...");
         
@@ -1,5 +1,6 @@
 package view.practice;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -7,11 +8,56 @@ import java.util.List;
 
 public class HelpTrainingDataGenerator {
     
+    // Fixed so regenerated files are identical
+    private static final long AUGMENTATION_SEED = 42L;
+    
     public static void main(String[] args) {
-        generateHelpTrainingData();
+        if (args.length > 1 && args[0].equals("--augment")) {
+            generateAugmentedHelpTrainingData("training/help-training-data-augmented.txt", Integer.parseInt(args[1]));
+        } else {
+            generateHelpTrainingData();
+        }
     }
     
     public static void generateHelpTrainingData() {
+        List<String> trainingData = createHelpTrainingData();
+        
+        try {
+            FileWriter writer = new FileWriter("training/help-training-data.txt");
+            for (String line : trainingData) {
+                writer.write(line + "\n");
+            }
+            writer.close();
+            System.out.println("? Help training data generated successfully!");
+            System.out.println("? File: training/help-training-data.txt");
+            System.out.println("? Total samples: " + trainingData.size());
+        } catch (IOException e) {
+            System.err.println("? Error generating training data: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * The help training data plus misspelled variants of every phrase, streamed to the file in the same format
+     */
+    public static void generateAugmentedHelpTrainingData(String path, int variantsPerPhrase) {
+        TypoAugmenter augmenter = new TypoAugmenter(AUGMENTATION_SEED);
+        augmenter.setVariantsPerPhrase(variantsPerPhrase);
+        for (String line : createHelpTrainingData()) {
+            int tab = line.lastIndexOf('\t');
+            augmenter.addPhrases(line.substring(tab + 1), line.substring(0, tab));
+        }
+        
+        try {
+            long start = System.currentTimeMillis();
+            long lines = augmenter.writeTo(new File(path), TypoAugmenter.LineFormat.TEXT_TAB_CATEGORY);
+            System.out.println("? Augmented help training data generated: " + path);
+            System.out.println("? Total samples: " + lines + " in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException e) {
+            System.err.println("? Error generating augmented training data: " + e.getMessage());
+        }
+    }
+    
+    static List<String> createHelpTrainingData() {
         List<String> trainingData = new ArrayList<>();
         
         // General help requests
@@ -78,17 +124,6 @@ public class HelpTrainingDataGenerator {
         trainingData.add("not finding results\ttroubleshooting_help");
         trainingData.add("no results\ttroubleshooting_help");
         
-        try {
-            FileWriter writer = new FileWriter("training/help-training-data.txt");
-            for (String line : trainingData) {
-                writer.write(line + "\n");
-            }
-            writer.close();
-            System.out.println("? Help training data generated successfully!");
-            System.out.println("? File: training/help-training-data.txt");
-            System.out.println("? Total samples: " + trainingData.size());
-        } catch (IOException e) {
-            System.err.println("? Error generating training data: " + e.getMessage());
-        }
+        return trainingData;
     }
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package view.practice;
 import java.util.*;
 import java.util.regex.Pattern;
 
+import view.practice.BusinessIdentifierLexer.IdentifierType;
+import view.practice.BusinessIdentifierLexer.Identifiers;
+
 public class IntentAnalyzer {
     
     public enum Intent {
@@ -79,6 +82,10 @@ public class IntentAnalyzer {
         "(?i).*(help|how).*create.*contract.*?(\\d{8,})?|show.*how.*create"
     );
     
+    private static final Pattern PART_FALLBACK_PATTERN = Pattern.compile(
+        "(?:part|product).*?(?:number|id)?\\s+([A-Z0-9]+)|([A-Z0-9]+)(?=\\s|$)", Pattern.CASE_INSENSITIVE
+    );
+    
     public static AnalysisResult analyzeIntent(String query) {
         if (query == null || query.trim().isEmpty()) {
             return new AnalysisResult(Intent.UNKNOWN, null, null, null, "Please provide a valid query.");
@@ -87,38 +94,41 @@ public class IntentAnalyzer {
         // Normalize the query (handle typos)
         String normalizedQuery = normalizeQuery(query);
         
+        // Contract, account and part numbers from one lexer pass
+        Identifiers identifiers = BusinessIdentifierLexer.scan(normalizedQuery);
+        
         // Check for help/create contract patterns first
         if (HELP_CREATE_PATTERN.matcher(normalizedQuery).find()) {
             return handleHelpCreateContract(normalizedQuery);
         }
         
         if (CREATE_CONTRACT_PATTERN.matcher(normalizedQuery).find()) {
-            return handleCreateContract(normalizedQuery);
+            return handleCreateContract(identifiers);
         }
         
         // Check for failed parts
         if (FAILED_PARTS_PATTERN.matcher(normalizedQuery).find()) {
-            return handleFailedParts(normalizedQuery);
+            return handleFailedParts(identifiers);
         }
         
         // Check for parts by contract
         if (PARTS_BY_CONTRACT_PATTERN.matcher(normalizedQuery).find()) {
-            return handlePartsByContract(normalizedQuery);
+            return handlePartsByContract(identifiers);
         }
         
         // Check for parts queries
         if (PARTS_PATTERN.matcher(normalizedQuery).find()) {
-            return handlePartsQuery(normalizedQuery);
+            return handlePartsQuery(normalizedQuery, identifiers);
         }
         
         // Check for contract queries
         if (CONTRACT_PATTERN.matcher(normalizedQuery).find()) {
-            return handleContractQuery(normalizedQuery);
+            return handleContractQuery(normalizedQuery, identifiers);
         }
         
         // Check for status queries
         if (STATUS_PATTERN.matcher(normalizedQuery).find()) {
-            return handleStatusQuery(normalizedQuery);
+            return handleStatusQuery(normalizedQuery, identifiers);
         }
         
         // Check for customer queries
@@ -140,8 +150,8 @@ public class IntentAnalyzer {
                    .trim();
     }
     
-    private static AnalysisResult handleContractQuery(String query) {
-        String contractId = extractContractId(query);
+    private static AnalysisResult handleContractQuery(String query, Identifiers identifiers) {
+        String contractId = extractContractId(identifiers);
         String person = extractPerson(query);
         
         Map<String, String> params = new HashMap<>();
@@ -155,8 +165,8 @@ public class IntentAnalyzer {
         return new AnalysisResult(Intent.CONTRACT_QUERY, contractId, person, params, response);
     }
     
-    private static AnalysisResult handleStatusQuery(String query) {
-        String contractId = extractContractId(query);
+    private static AnalysisResult handleStatusQuery(String query, Identifiers identifiers) {
+        String contractId = extractContractId(identifiers);
         String statusType = null;
         
         if (query.contains("expired")) statusType = "expired";
@@ -187,8 +197,8 @@ public class IntentAnalyzer {
         return new AnalysisResult(Intent.CUSTOMER_QUERY, accountId, customer, params, response);
     }
     
-    private static AnalysisResult handlePartsQuery(String query) {
-        String partNumber = extractPartNumber(query);
+    private static AnalysisResult handlePartsQuery(String query, Identifiers identifiers) {
+        String partNumber = extractPartNumber(query, identifiers);
         String queryType = determinePartQueryType(query);
         
         Map<String, String> params = new HashMap<>();
@@ -201,8 +211,8 @@ public class IntentAnalyzer {
         return new AnalysisResult(Intent.PARTS_QUERY, partNumber, queryType, params, response);
     }
     
-    private static AnalysisResult handlePartsByContract(String query) {
-        String contractId = extractContractId(query);
+    private static AnalysisResult handlePartsByContract(Identifiers identifiers) {
+        String contractId = extractContractId(identifiers);
         
         Map<String, String> params = new HashMap<>();
         if (contractId != null) params.put("contractId", contractId);
@@ -212,8 +222,8 @@ public class IntentAnalyzer {
         return new AnalysisResult(Intent.PARTS_BY_CONTRACT, contractId, null, params, response);
     }
     
-    private static AnalysisResult handleFailedParts(String query) {
-        String contractId = extractContractId(query);
+    private static AnalysisResult handleFailedParts(Identifiers identifiers) {
+        String contractId = extractContractId(identifiers);
         
         Map<String, String> params = new HashMap<>();
         if (contractId != null) params.put("contractId", contractId);
@@ -225,8 +235,8 @@ public class IntentAnalyzer {
         return new AnalysisResult(Intent.FAILED_PARTS_QUERY, contractId, null, params, response);
     }
     
-    private static AnalysisResult handleCreateContract(String query) {
-        String accountNumber = extractAccountNumber(query);
+    private static AnalysisResult handleCreateContract(Identifiers identifiers) {
+        String accountNumber = extractAccountNumber(identifiers);
         
         Map<String, String> params = new HashMap<>();
         if (accountNumber != null) {
@@ -253,16 +263,12 @@ public class IntentAnalyzer {
     }
     
     // Helper methods for extraction
-    private static String extractContractId(String query) {
-        Pattern pattern = Pattern.compile("\\b\\d{6,}\\b");
-        java.util.regex.Matcher matcher = pattern.matcher(query);
-        return matcher.find() ? matcher.group() : null;
+    private static String extractContractId(Identifiers identifiers) {
+        return identifiers.firstNumber(6, Integer.MAX_VALUE);
     }
     
-    private static String extractAccountNumber(String query) {
-        Pattern pattern = Pattern.compile("\\b\\d{8,}\\b");
-        java.util.regex.Matcher matcher = pattern.matcher(query);
-        return matcher.find() ? matcher.group() : null;
+    private static String extractAccountNumber(Identifiers identifiers) {
+        return identifiers.firstNumber(8, Integer.MAX_VALUE);
     }
     
     private static String extractAccountId(String query) {
@@ -293,9 +299,13 @@ public class IntentAnalyzer {
         return null;
     }
     
-    private static String extractPartNumber(String query) {
-        Pattern pattern = Pattern.compile("(?:part|product).*?(?:number|id)?\\s+([A-Z0-9]+)|([A-Z0-9]+)(?=\\s|$)", Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher matcher = pattern.matcher(query);
+    private static String extractPartNumber(String query, Identifiers identifiers) {
+        // Prefer a real part number shape; fall back to the word after "part"/"product"
+        String partNumber = identifiers.firstValue(IdentifierType.PART_NUMBER, IdentifierType.PART_CODE);
+        if (partNumber != null) {
+            return partNumber;
+        }
+        java.util.regex.Matcher matcher = PART_FALLBACK_PATTERN.matcher(query);
         if (matcher.find()) {
             return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
         }
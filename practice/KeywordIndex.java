@@ -0,0 +1,417 @@
+package view.practice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from words to keyword groups (intents), with typo tolerance.
+ *
+ * Two questions are answered per query without looping over every keyword:
+ * <ul>
+ * <li>phrase matches: which keywords occur anywhere in the sentence as substrings. All keywords
+ * sit in one Aho-Corasick automaton, so the sentence is scanned once.</li>
+ * <li>token matches: which keywords a token equals or typo-matches. A token typo-matches a
+ * keyword when their lengths differ by at most maxLengthDifference and their edit distance
+ * is at most max(1, keyword length / 3). Keywords allowing up to INDEXED_DISTANCE edits are
+ * indexed under all strings reachable by deleting that many characters. A token within
+ * distance d of a keyword shares one of those strings (a substitution is one deletion on each
+ * side), so looking up the token's own deletion strings finds every candidate, and only those
+ * few are checked with a bounded edit distance. The token's deletion strings grow
+ * combinatorially with the distance, so the few longer keywords - mostly multi-word phrases -
+ * are checked directly, and only those whose length is within reach of the token.</li>
+ * </ul>
+ * A token whose length is out of reach of every keyword matches nothing and is answered
+ * without a lookup. Other token results are cached, so a repeated token costs one hash lookup.
+ */
+public class KeywordIndex {
+
+    private static final int MAX_CACHED_TOKENS = 8192;
+    // Deletion depth of the index: a token of length n looks up about n^2 / 2 strings
+    private static final int INDEXED_DISTANCE = 2;
+    private static final int[] NONE = new int[0];
+
+    private final String[] groups;
+    private final String[] keywords;
+    // For each keyword, the group of every list it appears in (repeated when listed twice)
+    private final int[][] keywordGroups;
+    private final int maxLengthDifference;
+    private final int maxDistance;
+    private final int shortestKeyword;
+    private final int longestKeyword;
+    private final int longestIndexed;
+    private final Map<String, int[]> deletions;
+    // Keywords allowing more than INDEXED_DISTANCE edits, by length
+    private final int[][] unindexedByLength;
+    private final Map<String, int[]> tokenCache = new ConcurrentHashMap<>();
+
+    // Aho-Corasick automaton over all keywords
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private int[] failure;
+    private int[][] outputs;
+
+    /**
+     * @param groups keyword lists by group name; iteration order is kept for getGroups()
+     */
+    public KeywordIndex(Map<String, ? extends Collection<String>> groups, int maxLengthDifference) {
+        this.groups = groups.keySet().toArray(new String[0]);
+        this.maxLengthDifference = maxLengthDifference;
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> keywordList = new ArrayList<>();
+        List<List<Integer>> groupLists = new ArrayList<>();
+        for (int g = 0; g < this.groups.length; g++) {
+            for (String keyword : groups.get(this.groups[g])) {
+                String lower = keyword.toLowerCase(Locale.ROOT);
+                Integer id = ids.get(lower);
+                if (id == null) {
+                    id = keywordList.size();
+                    ids.put(lower, id);
+                    keywordList.add(lower);
+                    groupLists.add(new ArrayList<>());
+                }
+                groupLists.get(id).add(g);
+            }
+        }
+        this.keywords = keywordList.toArray(new String[0]);
+        this.keywordGroups = new int[keywords.length][];
+        for (int k = 0; k < keywords.length; k++) {
+            keywordGroups[k] = toArray(groupLists.get(k));
+        }
+
+        Map<String, List<Integer>> variants = new HashMap<>();
+        List<List<Integer>> unindexed = new ArrayList<>();
+        int widest = 0;
+        int shortest = Integer.MAX_VALUE;
+        int longest = -1;
+        int longestIndexedKeyword = -1;
+        for (int k = 0; k < keywords.length; k++) {
+            int length = keywords[k].length();
+            shortest = Math.min(shortest, length);
+            longest = Math.max(longest, length);
+            int distance = maxDistance(keywords[k]);
+            if (distance > INDEXED_DISTANCE) {
+                while (unindexed.size() <= length) {
+                    unindexed.add(new ArrayList<>());
+                }
+                unindexed.get(length).add(k);
+                continue;
+            }
+            widest = Math.max(widest, distance);
+            longestIndexedKeyword = Math.max(longestIndexedKeyword, length);
+            for (String variant : deletionVariants(keywords[k], distance)) {
+                variants.computeIfAbsent(variant, key -> new ArrayList<>()).add(k);
+            }
+        }
+        this.maxDistance = widest;
+        this.shortestKeyword = shortest;
+        this.longestKeyword = longest;
+        this.longestIndexed = longestIndexedKeyword;
+        this.deletions = new HashMap<>(variants.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : variants.entrySet()) {
+            deletions.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        this.unindexedByLength = new int[unindexed.size()][];
+        for (int length = 0; length < unindexedByLength.length; length++) {
+            unindexedByLength[length] = toArray(unindexed.get(length));
+        }
+
+        buildAutomaton();
+    }
+
+    /**
+     * Single-group index over a keyword list
+     */
+    public static KeywordIndex of(String[] keywords, int maxLengthDifference) {
+        return new KeywordIndex(Collections.singletonMap("", Arrays.asList(keywords)), maxLengthDifference);
+    }
+
+    /**
+     * Edit distance a keyword tolerates: longer keywords allow more errors
+     */
+    public static int maxDistance(String keyword) {
+        return Math.max(1, keyword.length() / 3);
+    }
+
+    public String[] getGroups() {
+        return groups.clone();
+    }
+
+    public int getKeywordCount() {
+        return keywords.length;
+    }
+
+    /**
+     * Keywords the token equals or typo-matches, in index order
+     */
+    public List<String> matchingKeywords(String token) {
+        int[] ids = matchToken(token);
+        List<String> matches = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            matches.add(keywords[id]);
+        }
+        return matches;
+    }
+
+    /**
+     * Phrase and token matches of a query, counted per group
+     *
+     * @param sentence lowercased text searched for keyword substrings
+     */
+    public Matches match(String[] tokens, String sentence) {
+        int[] phraseCounts = new int[groups.length];
+        boolean[] seen = new boolean[keywords.length];
+        int state = 0;
+        for (int i = 0; i < sentence.length(); i++) {
+            state = next(state, sentence.charAt(i));
+            for (int k : outputs[state]) {
+                if (!seen[k]) {
+                    seen[k] = true;
+                    for (int g : keywordGroups[k]) {
+                        phraseCounts[g]++;
+                    }
+                }
+            }
+        }
+
+        int[] tokenCounts = new int[groups.length];
+        boolean[] counted = new boolean[groups.length];
+        for (String token : tokens) {
+            Arrays.fill(counted, false);
+            for (int k : matchToken(token)) {
+                for (int g : keywordGroups[k]) {
+                    if (!counted[g]) {
+                        counted[g] = true;
+                        tokenCounts[g]++;
+                    }
+                }
+            }
+        }
+        return new Matches(phraseCounts, tokenCounts, tokens.length);
+    }
+
+    /**
+     * True when any keyword occurs in the sentence or matches one of the tokens
+     */
+    public boolean matchesAny(String[] tokens, String sentence) {
+        int state = 0;
+        for (int i = 0; i < sentence.length(); i++) {
+            state = next(state, sentence.charAt(i));
+            if (outputs[state].length > 0) {
+                return true;
+            }
+        }
+        for (String token : tokens) {
+            if (matchToken(token).length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] matchToken(String token) {
+        String lower = token.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        if (length < shortestKeyword - maxLengthDifference || length > longestKeyword + maxLengthDifference) {
+            // Long identifiers and the like: unique per query, so not worth a cache slot either
+            return NONE;
+        }
+        int[] cached = tokenCache.get(lower);
+        if (cached != null) {
+            return cached;
+        }
+
+        Set<Integer> candidates = new LinkedHashSet<>();
+        if (length - maxLengthDifference <= longestIndexed) {
+            // Keywords longer than the token by maxLengthDifference still allow only their own distance
+            int reach = Math.min(maxDistance,
+                                 Math.max(1, Math.min(length + maxLengthDifference, longestIndexed) / 3));
+            for (String variant : deletionVariants(lower, reach)) {
+                int[] ids = deletions.get(variant);
+                if (ids != null) {
+                    for (int id : ids) {
+                        candidates.add(id);
+                    }
+                }
+            }
+        }
+        int from = Math.max(0, length - maxLengthDifference);
+        int to = Math.min(unindexedByLength.length - 1, length + maxLengthDifference);
+        for (int keywordLength = from; keywordLength <= to; keywordLength++) {
+            for (int id : unindexedByLength[keywordLength]) {
+                candidates.add(id);
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>(candidates.size());
+        for (int id : candidates) {
+            String keyword = keywords[id];
+            int allowed = maxDistance(keyword);
+            if (Math.abs(lower.length() - keyword.length()) <= maxLengthDifference &&
+                boundedDistance(lower, keyword, allowed) <= allowed) {
+                matches.add(id);
+            }
+        }
+        Collections.sort(matches);
+        int[] result = matches.isEmpty() ? NONE : toArray(matches);
+
+        if (tokenCache.size() >= MAX_CACHED_TOKENS) {
+            tokenCache.clear();
+        }
+        tokenCache.put(lower, result);
+        return result;
+    }
+
+    /**
+     * All strings obtained by deleting up to maxDeletions characters, including the word itself
+     */
+    private static Set<String> deletionVariants(String word, int maxDeletions) {
+        Set<String> variants = new LinkedHashSet<>();
+        variants.add(word);
+        List<String> frontier = Collections.singletonList(word);
+        for (int d = 0; d < maxDeletions; d++) {
+            List<String> nextFrontier = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String shorter = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(shorter)) {
+                        nextFrontier.add(shorter);
+                    }
+                }
+            }
+            frontier = nextFrontier;
+        }
+        return variants;
+    }
+
+    /**
+     * Levenshtein distance, or limit + 1 as soon as it is known to exceed limit
+     */
+    static int boundedDistance(String s1, String s2, int limit) {
+        if (Math.abs(s1.length() - s2.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[s2.length() + 1];
+        int[] current = new int[s2.length() + 1];
+        for (int j = 0; j <= s2.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[s2.length()];
+    }
+
+    private void buildAutomaton() {
+        transitions.add(new HashMap<>());
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        nodeOutputs.add(new ArrayList<>());
+        for (int k = 0; k < keywords.length; k++) {
+            int state = 0;
+            for (char c : keywords[k].toCharArray()) {
+                Integer target = transitions.get(state).get(c);
+                if (target == null) {
+                    target = transitions.size();
+                    transitions.get(state).put(c, target);
+                    transitions.add(new HashMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                }
+                state = target;
+            }
+            nodeOutputs.get(state).add(k);
+        }
+
+        // Breadth-first failure links; each node also reports the keywords of its failure chain
+        failure = new int[transitions.size()];
+        List<Integer> queue = new ArrayList<>(transitions.get(0).values());
+        for (int head = 0; head < queue.size(); head++) {
+            int state = queue.get(head);
+            for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                int child = edge.getValue();
+                int fallback = failure[state];
+                while (fallback != 0 && !transitions.get(fallback).containsKey(edge.getKey())) {
+                    fallback = failure[fallback];
+                }
+                Integer target = transitions.get(fallback).get(edge.getKey());
+                failure[child] = target != null && target != child ? target : 0;
+                nodeOutputs.get(child).addAll(nodeOutputs.get(failure[child]));
+                queue.add(child);
+            }
+        }
+
+        outputs = new int[nodeOutputs.size()][];
+        for (int s = 0; s < outputs.length; s++) {
+            outputs[s] = toArray(nodeOutputs.get(s));
+        }
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            Integer target = transitions.get(state).get(c);
+            if (target != null) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Per-group match counts for one query, indexed like getGroups()
+     */
+    public static final class Matches {
+        private final int[] phraseMatches;
+        private final int[] tokenMatches;
+        private final int tokenCount;
+
+        private Matches(int[] phraseMatches, int[] tokenMatches, int tokenCount) {
+            this.phraseMatches = phraseMatches;
+            this.tokenMatches = tokenMatches;
+            this.tokenCount = tokenCount;
+        }
+
+        /** Distinct keywords of the group found as substrings of the sentence */
+        public int getPhraseMatches(int group) {
+            return phraseMatches[group];
+        }
+
+        /** Tokens matching at least one keyword of the group */
+        public int getTokenMatches(int group) {
+            return tokenMatches[group];
+        }
+
+        public int getTokenCount() {
+            return tokenCount;
+        }
+    }
+}
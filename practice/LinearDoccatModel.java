@@ -0,0 +1,392 @@
+package view.practice;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import opennlp.tools.doccat.DoccatModel;
+import opennlp.tools.doccat.DocumentCategorizerME;
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.Context;
+import opennlp.tools.ml.model.MaxentModel;
+
+/**
+ * A MAXENT bag-of-words DoccatModel flattened into a hashed-feature weight matrix.
+ *
+ * DocumentCategorizerME builds "bow=token" strings, looks each up in the model's predicate
+ * map and allocates context and probability arrays on every call. For our models (default
+ * DoccatFactory, MAXENT) the same probabilities are a sum of one weight row per known token
+ * followed by a softmax, so export() copies the weights into a dense float[] matrix indexed
+ * through an open-addressing table of 64-bit token hashes. score() hashes tokens straight
+ * from the input characters and accumulates into a caller-supplied outcome array, with no
+ * allocation per call. Tokens are matched by hash alone; collisions within a model's own
+ * vocabulary are rejected at export. Instances are immutable and can be shared between threads.
+ *
+ * Only MAXENT (GIS or QN) models whose features are all bag-of-words are accepted; NAIVEBAYES,
+ * PERCEPTRON and n-gram models are rejected by export(). verify() checks parity with
+ * OpenNLP's own probabilities.
+ */
+public final class LinearDoccatModel {
+
+    private static final String BOW_PREFIX = "bow=";
+    private static final int FORMAT_MAGIC = 0x4C444331; // "LDC1"
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Largest acceptable difference from OpenNLP's probabilities (weights are stored as floats) */
+    public static final double DEFAULT_TOLERANCE = 1e-4;
+
+    private final String[] outcomes;
+    private final int numOutcomes;
+    private final int numFeatures;
+    private final long[] keys; // token hash per slot, 0 = empty
+    private final int[] rows; // weight row per slot
+    private final float[] weights; // numFeatures x numOutcomes
+    private final int mask;
+
+    private LinearDoccatModel(String[] outcomes, long[] featureHashes, float[] weights) {
+        this.outcomes = outcomes;
+        this.numOutcomes = outcomes.length;
+        this.numFeatures = featureHashes.length;
+        this.weights = weights;
+
+        int capacity = Integer.highestOneBit(Math.max(4, numFeatures * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.rows = new int[capacity];
+        this.mask = capacity - 1;
+        for (int row = 0; row < numFeatures; row++) {
+            int slot = slotFor(featureHashes[row]);
+            if (keys[slot] == featureHashes[row]) {
+                throw new IllegalStateException("Feature hash collision in row " + row);
+            }
+            keys[slot] = featureHashes[row];
+            rows[slot] = row;
+        }
+    }
+
+    /**
+     * Flatten a trained MAXENT bag-of-words doccat model
+     */
+    @SuppressWarnings("unchecked")
+    public static LinearDoccatModel export(DoccatModel model) {
+        MaxentModel maxent = model.getMaxentModel();
+        if (!(maxent instanceof AbstractModel)) {
+            throw new IllegalArgumentException("Unsupported model implementation: " + maxent.getClass().getName());
+        }
+        AbstractModel.ModelType type = ((AbstractModel) maxent).getModelType();
+        if (type != AbstractModel.ModelType.Maxent && type != AbstractModel.ModelType.MaxentQn) {
+            throw new IllegalArgumentException("Only MAXENT models can be flattened, not " + type);
+        }
+
+        // {Context[] params, Map<String, Context|Integer> predicates, String[] outcomes}
+        Object[] data = ((AbstractModel) maxent).getDataStructures();
+        Context[] params = (Context[]) data[0];
+        Map<String, ?> predicates = (Map<String, ?>) data[1];
+        String[] outcomeNames = ((String[]) data[2]).clone();
+
+        int numOutcomes = outcomeNames.length;
+        long[] featureHashes = new long[predicates.size()];
+        float[] weights = new float[predicates.size() * numOutcomes];
+        int row = 0;
+        for (Map.Entry<String, ?> predicate : predicates.entrySet()) {
+            String label = predicate.getKey();
+            if (!label.startsWith(BOW_PREFIX)) {
+                throw new IllegalArgumentException("Feature '" + label + "' is not bag-of-words");
+            }
+            Object value = predicate.getValue();
+            Context context = value instanceof Context ? (Context) value : params[(Integer) value];
+
+            featureHashes[row] = hash(label, BOW_PREFIX.length(), label.length());
+            int[] active = context.getOutcomes();
+            double[] parameters = context.getParameters();
+            for (int i = 0; i < active.length; i++) {
+                weights[row * numOutcomes + active[i]] += (float) parameters[i];
+            }
+            row++;
+        }
+        return new LinearDoccatModel(outcomeNames, featureHashes, weights);
+    }
+
+    /**
+     * Export and verify against the model's own vocabulary; null when the model cannot be flattened
+     */
+    public static LinearDoccatModel tryExport(String name, DoccatModel model) {
+        try {
+            LinearDoccatModel linear = export(model);
+            linear.verify(model, linear.vocabularySamples(model), DEFAULT_TOLERANCE);
+            return linear;
+        } catch (RuntimeException e) {
+            System.err.println(name + " model stays on DocumentCategorizerME: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Score pre-split tokens, exactly like DocumentCategorizerME.categorize(tokens)
+     * @return index of the best outcome
+     */
+    public int score(String[] tokens, double[] probabilities) {
+        Arrays.fill(probabilities, 0, numOutcomes, 0.0);
+        for (String token : tokens) {
+            accumulate(token, 0, token.length(), probabilities);
+        }
+        return normalize(probabilities);
+    }
+
+    /**
+     * Score raw text split on whitespace (same tokens as text.split("\\s+"))
+     * @return index of the best outcome
+     */
+    public int score(CharSequence text, double[] probabilities) {
+        Arrays.fill(probabilities, 0, numOutcomes, 0.0);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isSpace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isSpace(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                accumulate(text, start, i, probabilities);
+            }
+        }
+        return normalize(probabilities);
+    }
+
+    private void accumulate(CharSequence text, int start, int end, double[] scores) {
+        long hash = hash(text, start, end);
+        int slot = slotFor(hash);
+        if (keys[slot] != hash) {
+            return; // unknown token
+        }
+        int base = rows[slot] * numOutcomes;
+        for (int o = 0; o < numOutcomes; o++) {
+            scores[o] += weights[base + o];
+        }
+    }
+
+    // Softmax in place; returns the first index with the highest probability, like getBestCategory
+    private int normalize(double[] scores) {
+        int best = 0;
+        for (int o = 1; o < numOutcomes; o++) {
+            if (scores[o] > scores[best]) {
+                best = o;
+            }
+        }
+        double max = scores[best];
+        double sum = 0.0;
+        for (int o = 0; o < numOutcomes; o++) {
+            scores[o] = Math.exp(scores[o] - max);
+            sum += scores[o];
+        }
+        for (int o = 0; o < numOutcomes; o++) {
+            scores[o] /= sum;
+        }
+        return best;
+    }
+
+    private int slotFor(long hash) {
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // FNV-1a over UTF-16 chars; 0 marks an empty slot so it is never returned
+    private static long hash(CharSequence text, int start, int end) {
+        long hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // Same characters as the regex class \s
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    /**
+     * Compare against DocumentCategorizerME on the given token arrays
+     * @return largest absolute probability difference seen
+     * @throws IllegalStateException if a difference exceeds the tolerance or a best category differs
+     */
+    public double verify(DoccatModel model, List<String[]> samples, double tolerance) {
+        DocumentCategorizerME reference = new DocumentCategorizerME(model);
+        double[] probabilities = newOutcomeArray();
+        double maxDifference = 0.0;
+
+        for (String[] tokens : samples) {
+            double[] expected = reference.categorize(tokens);
+            int best = score(tokens, probabilities);
+            for (int o = 0; o < numOutcomes; o++) {
+                maxDifference = Math.max(maxDifference, Math.abs(expected[o] - probabilities[o]));
+            }
+            if (maxDifference > tolerance) {
+                throw new IllegalStateException(String.format("Probability mismatch %.6f on '%s'", maxDifference,
+                                                              String.join(" ", tokens)));
+            }
+            int expectedBest = reference.getIndex(reference.getBestCategory(expected));
+            if (expectedBest != best && expected[expectedBest] - expected[best] > tolerance) {
+                throw new IllegalStateException("Best category mismatch on '" + String.join(" ", tokens) + "'");
+            }
+        }
+        return maxDifference;
+    }
+
+    /**
+     * Samples built from the model's own vocabulary: every known token alone, plus running
+     * multi-token windows so that accumulation across rows is exercised too
+     */
+    private List<String[]> vocabularySamples(DoccatModel model) {
+        @SuppressWarnings("unchecked")
+        Map<String, ?> predicates = (Map<String, ?>) ((AbstractModel) model.getMaxentModel()).getDataStructures()[1];
+        List<String> vocabulary = new ArrayList<>();
+        for (String label : predicates.keySet()) {
+            vocabulary.add(label.substring(BOW_PREFIX.length()));
+        }
+
+        List<String[]> samples = new ArrayList<>();
+        samples.add(new String[] { "zzz-unknown-token" });
+        for (int i = 0; i < vocabulary.size(); i++) {
+            samples.add(new String[] { vocabulary.get(i) });
+            if (i + 4 <= vocabulary.size() && i % 4 == 0) {
+                samples.add(vocabulary.subList(i, i + 4).toArray(new String[0]));
+            }
+        }
+        return samples;
+    }
+
+    public double[] newOutcomeArray() {
+        return new double[numOutcomes];
+    }
+
+    public String getOutcome(int index) {
+        return outcomes[index];
+    }
+
+    public int getNumOutcomes() {
+        return numOutcomes;
+    }
+
+    public int getNumFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * Write the flattened weights (outcome names, then one hash and weight row per feature)
+     */
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(FORMAT_MAGIC);
+        data.writeInt(numOutcomes);
+        for (String outcome : outcomes) {
+            data.writeUTF(outcome);
+        }
+        data.writeInt(numFeatures);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                data.writeLong(keys[slot]);
+                int base = rows[slot] * numOutcomes;
+                for (int o = 0; o < numOutcomes; o++) {
+                    data.writeFloat(weights[base + o]);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    public static LinearDoccatModel load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not a flattened doccat model");
+        }
+        String[] outcomes = new String[data.readInt()];
+        for (int o = 0; o < outcomes.length; o++) {
+            outcomes[o] = data.readUTF();
+        }
+        int numFeatures = data.readInt();
+        long[] featureHashes = new long[numFeatures];
+        float[] weights = new float[numFeatures * outcomes.length];
+        for (int row = 0; row < numFeatures; row++) {
+            featureHashes[row] = data.readLong();
+            for (int o = 0; o < outcomes.length; o++) {
+                weights[row * outcomes.length + o] = data.readFloat();
+            }
+        }
+        return new LinearDoccatModel(outcomes, featureHashes, weights);
+    }
+
+    /**
+     * Parity check: LinearDoccatModel <model.bin> [training-data.txt]
+     * Lines of the data file are "category text..." as used by our trainers.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: LinearDoccatModel <model.bin> [training-data.txt]");
+            return;
+        }
+
+        DoccatModel model;
+        try (InputStream in = new FileInputStream(args[0])) {
+            model = new DoccatModel(in);
+        }
+        LinearDoccatModel linear = export(model);
+        System.out.println("Flattened " + linear.getNumFeatures() + " features x " + linear.getNumOutcomes() +
+                           " outcomes");
+
+        List<String[]> samples = linear.vocabularySamples(model);
+        if (args.length > 1) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(args[1]))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.trim().split("\\s+");
+                    if (parts.length > 1) {
+                        samples.add(Arrays.copyOfRange(parts, 1, parts.length));
+                    }
+                }
+            }
+        }
+
+        double difference = linear.verify(model, samples, DEFAULT_TOLERANCE);
+        System.out.println("Parity OK on " + samples.size() + " samples, max difference " + difference);
+
+        // Rough timing against OpenNLP
+        DocumentCategorizerME reference = new DocumentCategorizerME(model);
+        double[] probabilities = linear.newOutcomeArray();
+        int rounds = 20;
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String[] tokens : samples) {
+                reference.categorize(tokens);
+            }
+        }
+        long openNlpNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String[] tokens : samples) {
+                linear.score(tokens, probabilities);
+            }
+        }
+        long linearNanos = System.nanoTime() - start;
+        int calls = rounds * samples.size();
+        System.out.printf("OpenNLP %.2f us/call, linear %.2f us/call%n", openNlpNanos / 1000.0 / calls,
+                          linearNanos / 1000.0 / calls);
+    }
+}
@@ -10,6 +10,7 @@ import org.apache.commons.text.similarity.FuzzyScore;
 import org.apache.commons.text.similarity.CosineDistance;
 import org.apache.commons.text.similarity.JaccardSimilarity;
 
+import view.TokenView;
 import view.practice.ContractIntent;
 
 import org.apache.commons.text.similarity.LevenshteinDistance;
@@ -42,6 +43,8 @@ import view.practice.ParsedQuery.QueryType;
 import view.practice.ParsedQuery;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -61,8 +64,15 @@ public class MLIntentClassifierImproved {
     private Map<String, List<String>> fieldSynonyms;
     private static final Logger logger = Logger.getLogger(MLIntentClassifierImproved.class.getName());
 
-    private DocumentCategorizerME categorizer;
-    private DoccatModel model;
+    // The active model; a reload publishes a new immutable version and requests stay on the one they started with
+    private final ModelVersionRegistry modelVersions = new ModelVersionRegistry("Enhanced contracts", pool -> { });
+    private final TrainingRunner trainingRunner = new TrainingRunner("Enhanced contracts", "MAXENT", 250, 1);
+    // Learns from feedback at runtime, in the shadow of the OpenNLP model until it proves better
+    private static final String ONLINE_CHECKPOINT_PATH = "./models/online-contracts.bin";
+    private static final int ONLINE_TRAINING_EPOCHS = 5;
+    private static final long CHECKPOINT_MINUTES = 5;
+    private final ShadowIntentModel.Lease onlineModel =
+        ShadowIntentModel.open("Enhanced contracts", new File(ONLINE_CHECKPOINT_PATH));
     private Map<String, Double> intentThresholds;
     private Map<String, List<String>> intentKeywords;
     private Map<String, String> abbreviationMap;
@@ -92,14 +102,13 @@ public class MLIntentClassifierImproved {
      * Initialize with enhanced training data including creation and guidance
      */
     public void initializeWithTrainingData() throws IOException {
-        ObjectStream<DocumentSample> sampleStream = createEnhancedTrainingDataWithCreation();
+        List<DocumentSample> samples = TrainingRunner.readAll(createEnhancedTrainingDataWithCreation());
 
-        TrainingParameters params = new TrainingParameters();
-        params.put(TrainingParameters.ITERATIONS_PARAM, "250");
-        params.put(TrainingParameters.CUTOFF_PARAM, "1");
-
-        this.model = DocumentCategorizerME.train("en", sampleStream, params, new DoccatFactory());
-        this.categorizer = new DocumentCategorizerME(model);
+        TrainingRunner.TrainingResult result = trainingRunner.train(samples);
+        logger.info(result.toString());
+        DoccatModel trained = result.getModel();
+        modelVersions.publish(trained, "training data");
+        startOnlineModel(samples);
 
         // Initialize dictionary
         initializeDictionary();
@@ -108,6 +117,72 @@ public class MLIntentClassifierImproved {
         logger.info("Enhanced intent classifier initialized with contract creation and guidance support");
     }
 
+    /**
+     * k-fold cross-validation of the built-in training data, folds trained concurrently
+     */
+    public TrainingRunner.CrossValidationReport crossValidateTrainingData(int folds) throws IOException {
+        List<DocumentSample> samples = TrainingRunner.readAll(createEnhancedTrainingDataWithCreation());
+        return trainingRunner.crossValidate(samples, folds);
+    }
+
+    /**
+     * Train every parameter combination on the built-in training data and rank them on held-out samples
+     */
+    public ParameterSweep.SweepReport sweepTrainingParameters() throws IOException {
+        List<DocumentSample> samples = TrainingRunner.readAll(createEnhancedTrainingDataWithCreation());
+        return new ParameterSweep("Enhanced contracts", samples).run();
+    }
+
+    // Seed the online model from the training data unless its checkpoint was seeded from the same data
+    private void startOnlineModel(List<DocumentSample> trainingSamples) {
+        onlineModel.get().seed(trainingSamples, ONLINE_TRAINING_EPOCHS);
+        onlineModel.get().startCheckpointing(CHECKPOINT_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Intent category of a query from the trained model, or from the online model once it has been promoted
+     */
+    public ClassifierCascade.Decision classifyWithModel(String query) {
+        if (!initialized) {
+            throw new IllegalStateException("Enhanced intent classifier not initialized");
+        }
+        String[] tokens = modelTokens(query);
+        // Pooled categorizers of the active model version, so concurrent callers are safe
+        CategorizerPool.Categorization categorization = modelVersions.categorize(tokens);
+        double confidence = 0.0;
+        for (double outcome : categorization.getOutcomes()) {
+            confidence = Math.max(confidence, outcome);
+        }
+        return onlineModel.get().decide(tokens, categorization.getBestCategory(), confidence);
+    }
+
+    /**
+     * Correct or confirm the intent category of a query; the online model learns it right away
+     */
+    public void reportFeedback(String query, String category) {
+        if (!initialized) {
+            throw new IllegalStateException("Enhanced intent classifier not initialized");
+        }
+        String[] tokens = modelTokens(query);
+        onlineModel.get().feedback(tokens, modelVersions.categorize(tokens).getBestCategory(), category);
+    }
+
+    public String getOnlineModelStats() {
+        return onlineModel.get().getStats();
+    }
+
+    /**
+     * Number of seed and feedback examples the online model has learned
+     */
+    public long getOnlineExampleCount() {
+        return onlineModel.get().getOnlineModel().getExampleCount();
+    }
+
+    // Same token form as the training samples
+    private String[] modelTokens(String query) {
+        return query.trim().toLowerCase().split("\\s+");
+    }
+
     /**
      * Extract business customer names
      */
@@ -1146,10 +1221,18 @@ public class MLIntentClassifierImproved {
      */
 
     public void saveModel(String modelPath) throws IOException {
-        if (!initialized || model == null) {
+        ModelVersionRegistry.Version version = initialized ? modelVersions.acquire() : null;
+        if (version == null) {
             throw new IllegalStateException("Enhanced model not trained or initialized");
         }
+        try {
+            saveModel(modelPath, version.getPool().getModel());
+        } finally {
+            version.release();
+        }
+    }
 
+    private void saveModel(String modelPath, DoccatModel model) throws IOException {
         File modelDir = new File(modelPath);
         if (!modelDir.exists()) {
             modelDir.mkdirs();
@@ -1173,7 +1256,8 @@ public class MLIntentClassifierImproved {
     }
 
     /**
-     * Enhanced model loading with fallback
+     * Enhanced model loading with fallback. The new model is read and warmed up completely before it
+     * replaces the current one, so concurrent requests never see a half-loaded model.
      */
 
     public void loadModel(String modelPath) throws IOException {
@@ -1186,11 +1270,14 @@ public class MLIntentClassifierImproved {
             throw new FileNotFoundException("No model file found in: " + modelPath);
         }
 
+        DoccatModel loaded;
         try (FileInputStream modelIn = new FileInputStream(modelFile)) {
-            this.model = new DoccatModel(modelIn);
-            this.categorizer = new DocumentCategorizerME(model);
-            this.initialized = true;
+            loaded = new DoccatModel(modelIn);
         }
+        modelVersions.publish(loaded, modelFile.getPath());
+        this.initialized = true;
+        // The saved model comes without its training data; the online model starts from the built-in set
+        startOnlineModel(TrainingRunner.readAll(createEnhancedTrainingDataWithCreation()));
 
         // Load configuration if available
         File configFile = new File(modelPath + "/enhanced-config.json");
@@ -1201,6 +1288,19 @@ public class MLIntentClassifierImproved {
         logger.info("Enhanced intent classifier model loaded from: " + modelFile.getAbsolutePath());
     }
 
+    /**
+     * loadModel in the background; the current model keeps serving until the new one is swapped in
+     */
+    public CompletableFuture<Void> reloadModel(String modelPath) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                loadModel(modelPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     /**
      * Generate configuration JSON
      */
@@ -1295,7 +1395,7 @@ public class MLIntentClassifierImproved {
                "Features: Contract Creation, Step-by-Step Guidance, Entity Extraction, Field Validation\n" +
                "Training samples: 300+, Supported intents: " + ContractIntent.values().length + "\n" +
                "Enhanced capabilities: JSON output, Missing field detection, Business validation\n" + "Build date: " +
-               new java.util.Date().toString();
+               new java.util.Date().toString() + "\n" + modelVersions.getVersionInfo();
     }
 
     /**
@@ -1358,6 +1458,25 @@ public class MLIntentClassifierImproved {
                                       results);
     }
 
+    /**
+     * The comprehensive test cases run concurrently, scored on "action/query type" labels, with latency percentiles
+     */
+    public EvaluationSuite.Report evaluateComprehensiveTests() throws IOException {
+        if (!initialized) {
+            throw new IllegalStateException("Enhanced classifier not initialized");
+        }
+
+        EvaluationSuite suite = new EvaluationSuite("Enhanced contracts");
+        for (EnhancedTestCase testCase : createEnhancedTestCases()) {
+            suite.add(testCase.query, testCase.expectedAction + "/" + testCase.expectedQueryType);
+        }
+        return suite.run(query -> {
+            ContractCreationResult result = classifyContractIntent(query);
+            return new ClassifierCascade.Decision(result.getActionType() + "/" + result.getQueryType(),
+                                                  result.getConfidence());
+        });
+    }
+
     /**
      * Create enhanced test cases
      */
@@ -2425,9 +2544,67 @@ public class MLIntentClassifierImproved {
      */
     public static void main(String[] args) {
         generateEnhancedModel();
+        if (args.length > 0 && args[0].equals("--evaluate")) {
+            try {
+                MLIntentClassifierImproved classifier = new MLIntentClassifierImproved();
+                classifier.initializeWithTrainingData();
+                EvaluationSuite.Report report = classifier.evaluateComprehensiveTests();
+                report.writeJson(new File("./models/contracts-evaluation.json").toPath());
+                System.out.println("\n" + report);
+            } catch (IOException e) {
+                System.err.println("? Error evaluating enhanced model: " + e.getMessage());
+            }
+        }
+        if (args.length > 0 && args[0].equals("--check-reload")) {
+            try {
+                System.out.println(checkFeedbackSurvivesReload() ? "? Online feedback kept across reloads"
+                                                                 : "? Online feedback lost on reload");
+            } catch (IOException e) {
+                System.err.println("? Error checking model reload: " + e.getMessage());
+            }
+        }
+        if (args.length > 0 && args[0].equals("--sweep")) {
+            try {
+                ParameterSweep.SweepReport report = new MLIntentClassifierImproved().sweepTrainingParameters();
+                report.writeTo(new File("./models/contracts-parameter-sweep.txt").toPath());
+                System.out.println("\n" + report);
+            } catch (IOException e) {
+                System.err.println("? Error sweeping training parameters: " + e.getMessage());
+            }
+        }
     }
 
 
+    /**
+     * Report feedback, then loadModel and reloadModel from the saved model; the online model must
+     * still hold what it learned, in this classifier and in a second one on the same checkpoint
+     */
+    public static boolean checkFeedbackSurvivesReload() throws IOException {
+        String modelPath = "./models";
+        MLIntentClassifierImproved classifier = new MLIntentClassifierImproved();
+        MLIntentClassifierImproved other = new MLIntentClassifierImproved();
+        try {
+            classifier.initializeWithTrainingData();
+            classifier.saveModel(modelPath);
+            String query = "show contract 123456";
+            classifier.reportFeedback(query, classifier.classifyWithModel(query).getLabel());
+            long learned = classifier.getOnlineExampleCount();
+
+            classifier.loadModel(modelPath);
+            boolean kept = classifier.getOnlineExampleCount() == learned;
+            classifier.reloadModel(modelPath).join();
+            kept &= classifier.getOnlineExampleCount() == learned;
+            other.loadModel(modelPath);
+            kept &= classifier.getOnlineExampleCount() == learned && other.getOnlineExampleCount() == learned;
+            System.out.println(String.format("Online examples: %d after feedback, %d after reloads", learned,
+                                             classifier.getOnlineExampleCount()));
+            return kept;
+        } finally {
+            classifier.shutdown();
+            other.shutdown();
+        }
+    }
+
     /**
      * Generate enhanced model
      */
@@ -2781,6 +2958,9 @@ public class MLIntentClassifierImproved {
             requiredContractFields = null;
         }
 
+        // Last checkpoint of the online model once no other classifier shares it
+        onlineModel.close();
+
         // Call parent cleanup
 
         logger.info("Enhanced MLIntentClassifierImproved shutdown complete");
@@ -3195,10 +3375,8 @@ public class MLIntentClassifierImproved {
         // Check all required components
         if (!initialized)
             issues.add("Classifier not initialized");
-        if (model == null)
+        if (!modelVersions.isLoaded())
             issues.add("Model not loaded");
-        if (categorizer == null)
-            issues.add("Categorizer not available");
         if (intentThresholds == null)
             issues.add("Intent thresholds not configured");
         if (intentKeywords == null)
@@ -3262,15 +3440,10 @@ public class MLIntentClassifierImproved {
         }
 
         // Check model
-        if (model == null) {
+        if (!modelVersions.isLoaded()) {
             issues.add("Model not loaded");
         }
 
-        // Check categorizer
-        if (categorizer == null) {
-            issues.add("Categorizer not available");
-        }
-
         boolean isHealthy = issues.isEmpty();
         return new EnhancedHealthCheckResult(isHealthy, issues, warnings, enhancements);
     }
@@ -3811,28 +3984,29 @@ public class MLIntentClassifierImproved {
      * Custom spell correction implementation
      */
     private String correctTypos(String input) {
-        String[] words = input.split("\\s+");
-        StringBuilder corrected = new StringBuilder();
+        TokenView tokens = TokenView.of(input);
+        correctTypos(tokens);
+        return tokens.toString();
+    }
 
-        for (String word : words) {
+    /**
+     * Correct the tokens in place, so later stages reuse them without re-splitting
+     */
+    private void correctTypos(TokenView tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
             // Skip numbers and special patterns
-            if (shouldSkipWord(word)) {
-                corrected.append(word).append(" ");
+            if (tokens.isNumeric(i) || shouldSkipWord(tokens.get(i))) {
                 continue;
             }
 
             // Check if word is in dictionary (case insensitive)
-            if (isInDictionary(word)) {
-                corrected.append(word).append(" ");
+            if (isInDictionary(tokens.lower(i))) {
                 continue;
             }
 
             // Find best match from dictionary
-            String correctedWord = findBestMatch(word);
-            corrected.append(correctedWord).append(" ");
+            tokens.set(i, findBestMatch(tokens.get(i)));
         }
-
-        return corrected.toString().trim();
     }
 
     private boolean shouldSkipWord(String word) {
@@ -1455,31 +1455,46 @@ public class MLIntentClassifierImproved {
             throw new IllegalStateException("Classifier not initialized");
         }
 
-        Map<String, ContractIntent> testCases = createComprehensiveTestCases();
-        List<ValidationResult> results = new ArrayList<>();
-
-        int correct = 0;
-        int total = testCases.size();
-
-        for (Map.Entry<String, ContractIntent> testCase : testCases.entrySet()) {
-            String query = testCase.getKey();
-            ContractIntent expected = testCase.getValue();
-
-            String[] tokens = query.toLowerCase().split("\\s+");
-            NLPProcessingResult nlpResult =
-                new NLPProcessingResult(query, tokens, new String[tokens.length], new opennlp.tools.util.Span[0]);
-
-            IntentResult result = classifyIntent(nlpResult);
-            boolean isCorrect = result.getIntent() == expected;
+        EvaluationSuite.Report report;
+        try {
+            report = evaluateClassifier();
+        } catch (IOException e) {
+            throw new IllegalStateException("Validation failed: " + e.getMessage(), e);
+        }
 
-            if (isCorrect)
-                correct++;
+        List<ValidationResult> results = new ArrayList<>();
+        for (EvaluationSuite.Outcome outcome : report.getOutcomes()) {
+            ContractIntent actual = outcome.getError() == null ? ContractIntent.valueOf(outcome.getPredicted())
+                                                               : ContractIntent.UNKNOWN;
+            results.add(new ValidationResult(outcome.getQuery(), ContractIntent.valueOf(outcome.getExpected()), actual,
+                                             outcome.getConfidence(), outcome.isCorrect()));
+        }
+        return new ValidationSummary(report.getAccuracy(), report.getCorrectCount(), results.size(), results);
+    }
 
-            results.add(new ValidationResult(query, expected, result.getIntent(), result.getConfidence(), isCorrect));
+    /**
+     * Comprehensive test suite with confusion matrix, per-intent precision/recall and latency percentiles
+     */
+    public EvaluationSuite.Report evaluateClassifier() throws IOException {
+        if (!initialized) {
+            throw new IllegalStateException("Classifier not initialized");
         }
 
-        double accuracy = (double) correct / total;
-        return new ValidationSummary(accuracy, correct, total, results);
+        EvaluationSuite suite = new EvaluationSuite("Contract intents");
+        for (Map.Entry<String, ContractIntent> testCase : createComprehensiveTestCases().entrySet()) {
+            suite.add(testCase.getKey(), testCase.getValue().name());
+        }
+        // DocumentCategorizerME is not thread-safe: one per worker, all on the same model
+        return suite.run(() -> {
+            DocumentCategorizer workerCategorizer = new DocumentCategorizerME(model);
+            return query -> {
+                String[] tokens = query.toLowerCase().split("\\s+");
+                NLPProcessingResult nlpResult =
+                    new NLPProcessingResult(query, tokens, new String[tokens.length], new opennlp.tools.util.Span[0]);
+                IntentResult result = classifyIntent(nlpResult, workerCategorizer);
+                return new ClassifierCascade.Decision(result.getIntent().name(), result.getConfidence());
+            };
+        });
     }
 
     /**
@@ -1713,28 +1728,28 @@ public class MLIntentClassifierImproved {
             this.totalTime = totalTime;
         }
 
-        public double getAverageProcessingTime() {
+        public synchronized double getAverageProcessingTime() {
             return processingTimes.stream()
                                   .mapToDouble(Double::doubleValue)
                                   .average()
                                   .orElse(0.0);
         }
 
-        public double getMinProcessingTime() {
+        public synchronized double getMinProcessingTime() {
             return processingTimes.stream()
                                   .mapToDouble(Double::doubleValue)
                                   .min()
                                   .orElse(0.0);
         }
 
-        public double getMaxProcessingTime() {
+        public synchronized double getMaxProcessingTime() {
             return processingTimes.stream()
                                   .mapToDouble(Double::doubleValue)
                                   .max()
                                   .orElse(0.0);
         }
 
-        public double getSuccessRate() {
+        public synchronized double getSuccessRate() {
             return totalIterations > 0 ? (double) successfulClassifications / totalIterations * 100 : 0.0;
         }
 
@@ -2351,7 +2366,7 @@ public class MLIntentClassifierImproved {
         private long totalProcessingTime = 0; // in nanoseconds
         private final List<Double> processingTimes = new ArrayList<>();
 
-        public void recordQuery(boolean successful, long processingTimeNanos) {
+        public synchronized void recordQuery(boolean successful, long processingTimeNanos) {
             totalQueries++;
             if (successful) {
                 successfulClassifications++;
@@ -2360,11 +2375,11 @@ public class MLIntentClassifierImproved {
             processingTimes.add(processingTimeNanos / 1_000_000.0); // Convert to milliseconds
         }
 
-        public int getTotalQueries() {
+        public synchronized int getTotalQueries() {
             return totalQueries;
         }
 
-        public int getSuccessfulClassifications() {
+        public synchronized int getSuccessfulClassifications() {
             return successfulClassifications;
         }
 
@@ -2411,6 +2426,11 @@ public class MLIntentClassifierImproved {
 
     // Update classifyIntent method to record statistics
     public IntentResult classifyIntent(NLPProcessingResult nlpResult) {
+        return classifyIntent(nlpResult, categorizer);
+    }
+
+    // Classify with the given categorizer over the model, so concurrent callers can each bring their own
+    private IntentResult classifyIntent(NLPProcessingResult nlpResult, DocumentCategorizer categorizer) {
         if (!initialized) {
             throw new IllegalStateException("Intent classifier not initialized");
         }
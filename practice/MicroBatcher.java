@@ -0,0 +1,211 @@
+package view.practice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects categorization requests from many sessions and scores them in batches.
+ *
+ * A single daemon worker takes the first waiting request, then keeps collecting until either
+ * maxBatchSize requests are in hand or maxWaitMicros have passed since the first one arrived,
+ * and scores the whole batch back to back on the flattened weight matrix, so the weights stay
+ * hot in one core's cache instead of being pulled into every request thread. Each request's
+ * future completes as soon as its batch is scored.
+ *
+ * Larger batches and longer waits raise throughput under load at the cost of up to
+ * maxWaitMicros added latency per request; getStats() shows the batch sizes actually reached.
+ *
+ * A batch that fails to score completes its futures exceptionally. If the worker itself dies,
+ * it stops accepting requests and fails everything still queued, so no caller waits forever.
+ */
+public class MicroBatcher {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final String name;
+    private final LinearDoccatModel model;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong fullBatches = new AtomicLong();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+
+    public MicroBatcher(String name, LinearDoccatModel model, int maxBatchSize, long maxWaitMicros) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        if (maxWaitMicros < 0) {
+            throw new IllegalArgumentException("Wait time cannot be negative");
+        }
+        this.name = name;
+        this.model = model;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+
+        this.worker = new Thread(this::run, "micro-batcher-" + name + "-" + THREAD_COUNTER.incrementAndGet());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue tokens for scoring; null once the batcher is closed (score directly instead)
+     */
+    public CompletableFuture<CategorizerPool.Categorization> submit(String[] tokens) {
+        if (!running) {
+            return null;
+        }
+        Request request = new Request(tokens);
+        queue.add(request);
+        // Closed meanwhile: if the worker has not taken it, hand it back to the caller
+        if (!running && queue.remove(request)) {
+            return null;
+        }
+        return request.future;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            collect(batch);
+        } finally {
+            running = false;
+            IllegalStateException stopped = new IllegalStateException(name + " batcher stopped");
+            fail(batch, stopped);
+            Request request;
+            while ((request = queue.poll()) != null) {
+                request.future.completeExceptionally(stopped);
+            }
+        }
+    }
+
+    private void collect(List<Request> batch) {
+        while (running) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedNanos + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                score(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                fail(batch, e);
+            }
+            batch.clear();
+        }
+
+        // Closed: finish whatever is still queued
+        Request request;
+        while ((request = queue.poll()) != null) {
+            batch.add(request);
+            if (batch.size() == maxBatchSize) {
+                scoreOrFail(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            scoreOrFail(batch);
+        }
+    }
+
+    private void scoreOrFail(List<Request> batch) {
+        try {
+            score(batch);
+        } catch (Throwable e) {
+            fail(batch, e);
+        }
+        batch.clear();
+    }
+
+    private static void fail(List<Request> batch, Throwable error) {
+        for (Request request : batch) {
+            request.future.completeExceptionally(error);
+        }
+    }
+
+    private void score(List<Request> batch) {
+        long now = System.nanoTime();
+        for (Request request : batch) {
+            totalQueueNanos.addAndGet(now - request.enqueuedNanos);
+            double[] outcomes = model.newOutcomeArray();
+            int best = model.score(request.tokens, outcomes);
+            request.future.complete(new CategorizerPool.Categorization(outcomes, model.getOutcome(best)));
+        }
+
+        int size = batch.size();
+        batches.incrementAndGet();
+        requests.addAndGet(size);
+        if (size == maxBatchSize) {
+            fullBatches.incrementAndGet();
+        }
+        long max = maxBatch.get();
+        while (size > max && !maxBatch.compareAndSet(max, size)) {
+            max = maxBatch.get();
+        }
+    }
+
+    /**
+     * Stop accepting requests; queued requests are still scored
+     */
+    public void close() {
+        running = false;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxWaitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos);
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0.0 : (double) requests.get() / count;
+    }
+
+    public double getAverageQueueMicros() {
+        long count = requests.get();
+        return count == 0 ? 0.0 : totalQueueNanos.get() / 1000.0 / count;
+    }
+
+    public String getStats() {
+        return String.format("%s batcher (max %d / %d us): %d requests in %d batches, avg size %.1f, max %d, " +
+                             "%d full, avg queue wait %.1f us", name, maxBatchSize, getMaxWaitMicros(),
+                             requests.get(), batches.get(), getAverageBatchSize(), maxBatch.get(), fullBatches.get(),
+                             getAverageQueueMicros());
+    }
+
+    private static final class Request {
+        private final String[] tokens;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<CategorizerPool.Categorization> future = new CompletableFuture<>();
+
+        Request(String[] tokens) {
+            this.tokens = tokens;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package view.practice;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import opennlp.tools.doccat.DoccatModel;
+
+import view.ModelLoader;
+
+/**
+ * Versioned slot for one doccat model, swapped without downtime.
+ *
+ * A new model is loaded in the background, wrapped in its own CategorizerPool, warmed up and
+ * (when a golden set is configured) validated before a single volatile write makes it the
+ * active version. Until then, and if validation fails, requests keep using the old version.
+ *
+ * Requests acquire() the active version and release() it when done, so a request that started
+ * on the old version finishes on it. A replaced version is retired and its pool is closed once
+ * the last request holding it releases it. Loads finishing out of order never roll back to an
+ * older version. The history keeps only a summary of each version, so a retired model is
+ * unreachable once released.
+ */
+public class ModelVersionRegistry {
+
+    private static final int HISTORY_SIZE = 5;
+
+    private final String name;
+    private final Consumer<CategorizerPool> configure;
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final Deque<Summary> history = new ArrayDeque<>();
+    private volatile Version active;
+    private volatile GoldenSet goldenSet;
+    private volatile double minGoldenAccuracy;
+
+    // Metrics
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param configure applied to every new pool before it is warmed up, and again on reconfigure()
+     */
+    public ModelVersionRegistry(String name, Consumer<CategorizerPool> configure) {
+        this.name = name;
+        this.configure = configure;
+    }
+
+    /**
+     * Validate every new version against the golden set; null turns validation off
+     */
+    public void setGoldenSet(GoldenSet goldenSet, double minAccuracy) {
+        this.goldenSet = goldenSet;
+        this.minGoldenAccuracy = minAccuracy;
+    }
+
+    /**
+     * Load, warm up and publish the model file in the background; the active version keeps
+     * serving meanwhile. Fails with IllegalStateException when the golden set rejects it.
+     */
+    public CompletableFuture<Version> loadAsync(String path) {
+        long number = versionCounter.incrementAndGet();
+        return ModelLoader.loadAsync(path, DoccatModel::new)
+                          .thenApplyAsync(model -> stage(number, model, path));
+    }
+
+    /**
+     * Warm up, validate and publish an already loaded model on the calling thread
+     */
+    public Version publish(DoccatModel model, String source) {
+        return stage(versionCounter.incrementAndGet(), model, source);
+    }
+
+    private Version stage(long number, DoccatModel model, String source) {
+        long start = System.nanoTime();
+        CategorizerPool pool = new CategorizerPool(name, model);
+        configure.accept(pool);
+        pool.prewarm(pool.getMaxSize());
+
+        GoldenSet golden = goldenSet;
+        double accuracy = golden != null ? golden.evaluate(pool) : -1.0;
+        if (golden != null && accuracy < minGoldenAccuracy) {
+            pool.close();
+            rejected.incrementAndGet();
+            throw new IllegalStateException(String.format("%s model v%d rejected: golden accuracy %.2f below %.2f",
+                                                          name, number, accuracy, minGoldenAccuracy));
+        }
+
+        Version version = new Version(number, source, pool, accuracy, (System.nanoTime() - start) / 1_000_000);
+        return activate(version);
+    }
+
+    private synchronized Version activate(Version version) {
+        Version previous = active;
+        if (previous != null && previous.number > version.number) {
+            // A later load already won; drop this one rather than roll back
+            version.retire();
+            return previous;
+        }
+
+        version.publishedAt = System.currentTimeMillis();
+        active = version;
+        published.incrementAndGet();
+        history.addFirst(new Summary(version));
+        while (history.size() > HISTORY_SIZE) {
+            history.removeLast();
+        }
+        if (previous != null) {
+            previous.retire();
+        }
+        System.out.println("? " + name + " model v" + version.number + " active (" + version.source + ")");
+        return version;
+    }
+
+    /**
+     * The active version, held until release() is called; null while no model has loaded
+     */
+    public Version acquire() {
+        while (true) {
+            Version version = active;
+            if (version == null) {
+                return null;
+            }
+            if (version.retain()) {
+                return version;
+            }
+            // Retired and drained between the read and the retain; a newer version is active
+        }
+    }
+
+    /**
+     * Categorize on the active version; null while no model has loaded
+     */
+    public CategorizerPool.Categorization categorize(String[] tokens) {
+        Version version = acquire();
+        if (version == null) {
+            return null;
+        }
+        try {
+            return version.pool.categorize(tokens);
+        } finally {
+            version.release();
+        }
+    }
+
+    /**
+     * Re-apply the configuration callback to the active version's pool
+     */
+    public void reconfigure() {
+        Version version = acquire();
+        if (version != null) {
+            try {
+                configure.accept(version.pool);
+            } finally {
+                version.release();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isLoaded() {
+        return active != null;
+    }
+
+    /**
+     * Active version number, 0 before the first publish
+     */
+    public long getActiveVersion() {
+        Version version = active;
+        return version != null ? version.number : 0;
+    }
+
+    public String getStats() {
+        Version version = active;
+        return version != null ? "v" + version.number + " " + version.pool.getStats() : name + ": not loaded";
+    }
+
+    public synchronized String getVersionInfo() {
+        StringBuilder info = new StringBuilder();
+        info.append(name).append(" model: ");
+        if (active == null) {
+            info.append("not loaded");
+        } else {
+            info.append("v").append(active.number).append(" active since ").append(new Date(active.publishedAt));
+        }
+        info.append(" (").append(published.get()).append(" published, ").append(rejected.get())
+            .append(" rejected)\n");
+        for (Summary summary : history) {
+            info.append("  ");
+            if (active != null && summary.number == active.number) {
+                info.append(active);
+            } else {
+                info.append(summary);
+            }
+            info.append("\n");
+        }
+        return info.toString();
+    }
+
+    /**
+     * One published model: its pool and how many requests still hold it
+     */
+    public static final class Version {
+        private final long number;
+        private final String source;
+        private final CategorizerPool pool;
+        private final double goldenAccuracy;
+        private final long warmupMillis;
+        // One reference for being active plus one per request holding it
+        private final AtomicInteger refs = new AtomicInteger(1);
+        private volatile long publishedAt;
+        private volatile boolean retired;
+
+        private Version(long number, String source, CategorizerPool pool, double goldenAccuracy, long warmupMillis) {
+            this.number = number;
+            this.source = source;
+            this.pool = pool;
+            this.goldenAccuracy = goldenAccuracy;
+            this.warmupMillis = warmupMillis;
+        }
+
+        private boolean retain() {
+            while (true) {
+                int count = refs.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (refs.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        public void release() {
+            if (refs.decrementAndGet() == 0) {
+                pool.close();
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            release();
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public CategorizerPool getPool() {
+            return pool;
+        }
+
+        public int getInFlight() {
+            int count = refs.get();
+            return retired ? count : Math.max(0, count - 1);
+        }
+
+        public String getState() {
+            if (!retired) {
+                return "active";
+            }
+            return refs.get() == 0 ? "released" : "draining";
+        }
+
+        @Override
+        public String toString() {
+            return String.format("v%d %s: %s, %d in flight, warm-up %d ms%s", number, getState(), source,
+                                 getInFlight(), warmupMillis,
+                                 goldenAccuracy >= 0 ? String.format(", golden %.2f", goldenAccuracy) : "");
+        }
+    }
+
+    /**
+     * What the history remembers of a published version, without its model
+     */
+    public static final class Summary {
+        private final long number;
+        private final String source;
+        private final long publishedAt;
+        private final double goldenAccuracy;
+        private final long warmupMillis;
+
+        private Summary(Version version) {
+            this.number = version.number;
+            this.source = version.source;
+            this.publishedAt = version.publishedAt;
+            this.goldenAccuracy = version.goldenAccuracy;
+            this.warmupMillis = version.warmupMillis;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getPublishedAt() {
+            return publishedAt;
+        }
+
+        /**
+         * Golden set accuracy, -1 when no golden set was configured
+         */
+        public double getGoldenAccuracy() {
+            return goldenAccuracy;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("v%d retired: %s, published %s, warm-up %d ms%s", number, source,
+                                 new Date(publishedAt), warmupMillis,
+                                 goldenAccuracy >= 0 ? String.format(", golden %.2f", goldenAccuracy) : "");
+        }
+    }
+
+    /**
+     * Queries with known categories, in doccat training format: category, then the text
+     */
+    public static final class GoldenSet {
+        private final List<String[]> queries = new ArrayList<>();
+        private final List<String> expected = new ArrayList<>();
+
+        public GoldenSet add(String category, String query) {
+            queries.add(query.trim().split("\\s+"));
+            expected.add(category);
+            return this;
+        }
+
+        /**
+         * Read a golden file; null when it does not exist
+         */
+        public static GoldenSet load(String path) throws IOException {
+            File file = new File(path);
+            if (!file.exists()) {
+                return null;
+            }
+            GoldenSet golden = new GoldenSet();
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    int split = line.indexOf(' ');
+                    if (line.isEmpty() || line.startsWith("#") || split < 0) {
+                        continue;
+                    }
+                    golden.add(line.substring(0, split), line.substring(split + 1));
+                }
+            }
+            return golden.size() > 0 ? golden : null;
+        }
+
+        public int size() {
+            return queries.size();
+        }
+
+        /**
+         * Fraction of queries the pool assigns to their expected category
+         */
+        public double evaluate(CategorizerPool pool) {
+            if (queries.isEmpty()) {
+                return 1.0;
+            }
+            int correct = 0;
+            for (int i = 0; i < queries.size(); i++) {
+                if (expected.get(i).equals(pool.categorize(queries.get(i)).getBestCategory())) {
+                    correct++;
+                }
+            }
+            return (double) correct / queries.size();
+        }
+    }
+}
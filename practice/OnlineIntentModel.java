@@ -0,0 +1,327 @@
+package view.practice;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import opennlp.tools.doccat.DocumentSample;
+
+/**
+ * Intent classifier that learns one labelled example at a time.
+ *
+ * An averaged perceptron over hashed features: every token and every pair of adjacent tokens
+ * is hashed into one of 2^bits buckets, with one weight per bucket and label. learn() scores the
+ * example and, on a mistake, moves the features of the example towards the right label and
+ * away from the predicted one. That costs a few array writes per feature, so corrections can be
+ * applied while serving, without retraining. predict() uses the weights averaged over every
+ * example seen, which is much less sensitive to the order of the examples than the last
+ * weights. Its confidence is a softmax over the averaged scores, not a calibrated probability.
+ *
+ * Labels are added the first time they are seen. Only non-zero buckets are written by save(),
+ * so checkpoints stay small; the checkpoint also keeps the fingerprint of the data the model was
+ * seeded with, so an owner can tell whether its training data changed since. Predictions may run
+ * concurrently with each other; learning takes an exclusive lock.
+ */
+public final class OnlineIntentModel {
+
+    private static final int FORMAT_MAGIC = 0x4F494D33; // "OIM3"
+    public static final long NOT_SEEDED = -1L;
+    public static final int DEFAULT_BITS = 16;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int bits;
+    private final int mask;
+    private final List<String> labels = new ArrayList<>();
+    private final Map<String, Integer> labelIndex = new HashMap<>();
+    private final List<float[]> weights = new ArrayList<>(); // current weights, one row per label
+    // Sum of step * update, for averaging; double, since step keeps growing while the model serves
+    // and a float sum would round the updates away
+    private final List<double[]> totals = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long step = 1; // examples seen + 1
+    private long mistakes;
+    private volatile long seedFingerprint = NOT_SEEDED;
+
+    public OnlineIntentModel() {
+        this(DEFAULT_BITS);
+    }
+
+    /**
+     * @param bits log2 of the number of feature buckets
+     */
+    public OnlineIntentModel(int bits) {
+        if (bits < 8 || bits > 24) {
+            throw new IllegalArgumentException("Feature bits must be between 8 and 24");
+        }
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Best label with its confidence; null until the first example has been learned
+     */
+    public ClassifierCascade.Decision predict(String[] tokens) {
+        int[] features = features(tokens);
+        lock.readLock().lock();
+        try {
+            if (labels.isEmpty()) {
+                return null;
+            }
+            double[] scores = new double[labels.size()];
+            for (int l = 0; l < scores.length; l++) {
+                float[] w = weights.get(l);
+                double[] t = totals.get(l);
+                double score = 0.0;
+                for (int f : features) {
+                    score += w[f] - t[f] / step;
+                }
+                scores[l] = score;
+            }
+            int best = argmax(scores);
+            return new ClassifierCascade.Decision(labels.get(best), softmax(scores, best));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Learn one labelled example
+     * @return true if the current weights got it wrong and were updated
+     */
+    public boolean learn(String[] tokens, String label) {
+        int[] features = features(tokens);
+        lock.writeLock().lock();
+        try {
+            int target = indexOf(label);
+            int predicted = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int l = 0; l < labels.size(); l++) {
+                float[] w = weights.get(l);
+                double score = 0.0;
+                for (int f : features) {
+                    score += w[f];
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    predicted = l;
+                }
+            }
+
+            boolean mistake = predicted != target;
+            if (mistake) {
+                update(target, features, 1.0f);
+                update(predicted, features, -1.0f);
+                mistakes++;
+            }
+            step++;
+            return mistake;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(int label, int[] features, float delta) {
+        float[] w = weights.get(label);
+        double[] t = totals.get(label);
+        for (int f : features) {
+            w[f] += delta;
+            t[f] += (double) step * delta;
+        }
+    }
+
+    /**
+     * Learn a training set in order, several passes
+     */
+    public void train(List<DocumentSample> samples, int epochs) {
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (DocumentSample sample : samples) {
+                learn(sample.getText(), sample.getCategory());
+            }
+        }
+    }
+
+    /**
+     * Fingerprint of the training data the model was seeded with, NOT_SEEDED if unknown
+     */
+    public long getSeedFingerprint() {
+        return seedFingerprint;
+    }
+
+    public void setSeedFingerprint(long seedFingerprint) {
+        this.seedFingerprint = seedFingerprint;
+    }
+
+    int getBits() {
+        return bits;
+    }
+
+    private int indexOf(String label) {
+        Integer index = labelIndex.get(label);
+        if (index == null) {
+            index = labels.size();
+            labels.add(label);
+            labelIndex.put(label, index);
+            weights.add(new float[mask + 1]);
+            totals.add(new double[mask + 1]);
+        }
+        return index;
+    }
+
+    // Bucket of every token and of every pair of adjacent tokens; duplicates count twice, like bag-of-words
+    private int[] features(String[] tokens) {
+        int[] features = new int[tokens.length * 2 - (tokens.length > 0 ? 1 : 0)];
+        long previous = 0;
+        int n = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            long hash = hash(tokens[i]);
+            features[n++] = bucket(hash);
+            if (i > 0) {
+                features[n++] = bucket((previous * FNV_PRIME) ^ hash ^ 0x9e3779b97f4a7c15L);
+            }
+            previous = hash;
+        }
+        return features;
+    }
+
+    private int bucket(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    // FNV-1a over UTF-16 chars
+    private static long hash(String token) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static int argmax(double[] scores) {
+        int best = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static double softmax(double[] scores, int best) {
+        double sum = 0.0;
+        for (double score : scores) {
+            sum += Math.exp(score - scores[best]);
+        }
+        return 1.0 / sum;
+    }
+
+    /**
+     * Examples learned so far, including the ones that needed no update
+     */
+    public long getExampleCount() {
+        lock.readLock().lock();
+        try {
+            return step - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getStats() {
+        lock.readLock().lock();
+        try {
+            return String.format("online model: %d labels, %d buckets, %d examples, %d updates", labels.size(),
+                                 mask + 1, step - 1, mistakes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write a checkpoint; the file is replaced in one move, so readers never see half a file
+     */
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out =
+             new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_MAGIC);
+            out.writeInt(bits);
+            out.writeLong(seedFingerprint);
+            out.writeLong(step);
+            out.writeLong(mistakes);
+            out.writeInt(labels.size());
+            for (int l = 0; l < labels.size(); l++) {
+                out.writeUTF(labels.get(l));
+                float[] w = weights.get(l);
+                double[] t = totals.get(l);
+                int used = 0;
+                for (int f = 0; f <= mask; f++) {
+                    if (w[f] != 0.0f || t[f] != 0.0) {
+                        used++;
+                    }
+                }
+                out.writeInt(used);
+                for (int f = 0; f <= mask; f++) {
+                    if (w[f] != 0.0f || t[f] != 0.0) {
+                        out.writeInt(f);
+                        out.writeFloat(w[f]);
+                        out.writeDouble(t[f]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static OnlineIntentModel load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int magic = in.readInt();
+            if (magic != FORMAT_MAGIC) {
+                throw new IOException("Not an online intent model: " + file);
+            }
+            OnlineIntentModel model = new OnlineIntentModel(in.readInt());
+            model.seedFingerprint = in.readLong();
+            model.step = in.readLong();
+            model.mistakes = in.readLong();
+            int labelCount = in.readInt();
+            for (int l = 0; l < labelCount; l++) {
+                int index = model.indexOf(in.readUTF());
+                float[] w = model.weights.get(index);
+                double[] t = model.totals.get(index);
+                int used = in.readInt();
+                for (int i = 0; i < used; i++) {
+                    int f = in.readInt();
+                    w[f] = in.readFloat();
+                    t[f] = in.readDouble();
+                }
+            }
+            return model;
+        }
+    }
+}
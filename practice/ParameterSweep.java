@@ -0,0 +1,332 @@
+package view.practice;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import opennlp.tools.doccat.DoccatModel;
+import opennlp.tools.doccat.DocumentCategorizer;
+import opennlp.tools.doccat.DocumentCategorizerME;
+import opennlp.tools.doccat.DocumentSample;
+
+/**
+ * Grid search over doccat training parameters.
+ *
+ * Every combination of algorithm, iteration count and cutoff is trained on the training samples
+ * and scored on a held-out set: accuracy, plus mean and 95th percentile latency of one
+ * categorize() call measured after a warm-up pass. Naive Bayes does not iterate, so it gets one
+ * candidate per cutoff. Candidates train and score accuracy concurrently on a fork/join pool, one
+ * training thread each; memory stays bounded because at most maxConcurrent candidates hold
+ * training events at once. Latency is timed only after all training has finished, one candidate
+ * at a time, so no candidate is timed while others compete for the cores. The report gives the
+ * peak heap of the training phase as a whole - per-candidate peaks cannot be told apart while
+ * candidates train side by side.
+ *
+ * Results are ranked by accuracy, then mean latency, then training time. Only the top-ranked
+ * model is kept. A candidate that fails to train is reported with its error instead of stopping
+ * the sweep.
+ */
+public class ParameterSweep {
+
+    private static final int HELD_OUT_FOLDS = 5;
+    private static final int LATENCY_ROUNDS = 20;
+    // Algorithms that ignore the iteration count
+    private static final Set<String> NON_ITERATIVE_ALGORITHMS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("NAIVEBAYES")));
+
+    private final String name;
+    private final List<DocumentSample> training;
+    private final List<DocumentSample> heldOut;
+    private List<String> algorithms = Arrays.asList("MAXENT", "NAIVEBAYES");
+    private List<Integer> iterations = Arrays.asList(100, 250, 1000);
+    private List<Integer> cutoffs = Arrays.asList(0, 1);
+    private int maxConcurrent = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Hold out every fifth sample of each category for scoring
+     */
+    public ParameterSweep(String name, List<DocumentSample> samples) {
+        this(name, split(samples, false), split(samples, true));
+    }
+
+    public ParameterSweep(String name, List<DocumentSample> training, List<DocumentSample> heldOut) {
+        if (training.isEmpty() || heldOut.isEmpty()) {
+            throw new IllegalArgumentException("Sweep needs training and held-out samples");
+        }
+        this.name = name;
+        this.training = training;
+        this.heldOut = heldOut;
+    }
+
+    private static List<DocumentSample> split(List<DocumentSample> samples, boolean heldOut) {
+        List<List<DocumentSample>> folds = TrainingRunner.partition(samples, HELD_OUT_FOLDS);
+        if (heldOut) {
+            return folds.get(0);
+        }
+        List<DocumentSample> rest = new ArrayList<>();
+        for (int i = 1; i < folds.size(); i++) {
+            rest.addAll(folds.get(i));
+        }
+        return rest;
+    }
+
+    public void setAlgorithms(String... algorithms) {
+        this.algorithms = Arrays.asList(algorithms);
+    }
+
+    public void setIterations(Integer... iterations) {
+        this.iterations = Arrays.asList(iterations);
+    }
+
+    public void setCutoffs(Integer... cutoffs) {
+        this.cutoffs = Arrays.asList(cutoffs);
+    }
+
+    /**
+     * Candidates in training at the same time; each holds its own copy of the training events
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("At least one candidate must train at a time");
+        }
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public SweepReport run() throws IOException {
+        List<Candidate> candidates = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            boolean iterative = !NON_ITERATIVE_ALGORITHMS.contains(algorithm.toUpperCase());
+            List<Integer> algorithmIterations = iterative || iterations.isEmpty() ? iterations : iterations.subList(0, 1);
+            for (int iterationCount : algorithmIterations) {
+                for (int cutoff : cutoffs) {
+                    TrainingRunner runner = new TrainingRunner(name, algorithm, iterationCount, cutoff);
+                    runner.setThreads(1);
+                    candidates.add(new Candidate(runner, iterative ?
+                                                         String.format("%s iterations=%d cutoff=%d", algorithm,
+                                                                       iterationCount, cutoff) :
+                                                         String.format("%s cutoff=%d", algorithm, cutoff)));
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        TrainingRunner.MemoryPeak memory = TrainingRunner.MemoryPeak.start();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(maxConcurrent, candidates.size()));
+        long trainingPeakHeapBytes;
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (Candidate candidate : candidates) {
+                tasks.add(pool.submit(() -> candidate.train(training, heldOut)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parameter sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parameter sweep failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+            trainingPeakHeapBytes = memory.stop();
+        }
+
+        // Training is over; time the candidates one after another on this thread
+        Candidate best = null;
+        List<CandidateResult> results = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            candidate.result = score(candidate);
+            results.add(candidate.result);
+            if (!candidate.result.isFailed() &&
+                (best == null || CandidateResult.RANKING.compare(candidate.result, best.result) < 0)) {
+                best = candidate;
+            }
+        }
+        results.sort(CandidateResult.RANKING);
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        return new SweepReport(name, training.size(), heldOut.size(), results,
+                               best != null ? best.trained.getModel() : null, wallMillis, trainingPeakHeapBytes);
+    }
+
+    private CandidateResult score(Candidate candidate) {
+        if (candidate.error != null) {
+            return CandidateResult.failed(candidate.parameters, candidate.error);
+        }
+
+        DocumentCategorizer categorizer = new DocumentCategorizerME(candidate.trained.getModel());
+        for (DocumentSample sample : heldOut) {
+            categorizer.categorize(sample.getText());
+        }
+
+        // Latency after the warm-up pass above, every held-out sample LATENCY_ROUNDS times
+        long[] nanos = new long[heldOut.size() * LATENCY_ROUNDS];
+        int n = 0;
+        for (int round = 0; round < LATENCY_ROUNDS; round++) {
+            for (DocumentSample sample : heldOut) {
+                long callStart = System.nanoTime();
+                categorizer.categorize(sample.getText());
+                nanos[n++] = System.nanoTime() - callStart;
+            }
+        }
+        Arrays.sort(nanos);
+        long total = 0;
+        for (long value : nanos) {
+            total += value;
+        }
+
+        return new CandidateResult(candidate.parameters, (double) candidate.correct / heldOut.size(),
+                                   total / 1000.0 / nanos.length,
+                                   nanos[(int) Math.min(nanos.length - 1, Math.ceil(nanos.length * 0.95) - 1)] /
+                                   1000.0, candidate.trained.getWallMillis(), null);
+    }
+
+    /**
+     * One grid point; trained and scored for accuracy on a pool thread, timed afterwards by run()
+     */
+    private static final class Candidate {
+        private final TrainingRunner runner;
+        private final String parameters;
+        private TrainingRunner.TrainingResult trained;
+        private int correct;
+        private Exception error;
+        private CandidateResult result;
+
+        Candidate(TrainingRunner runner, String parameters) {
+            this.runner = runner;
+            this.parameters = parameters;
+        }
+
+        void train(List<DocumentSample> training, List<DocumentSample> heldOut) {
+            try {
+                trained = runner.train(training);
+                correct = TrainingRunner.countCorrect(trained.getModel(), heldOut);
+            } catch (Exception e) {
+                trained = null;
+                error = e;
+            }
+        }
+    }
+
+    public static final class CandidateResult {
+        static final Comparator<CandidateResult> RANKING =
+            Comparator.comparing((CandidateResult result) -> result.error != null)
+                      .thenComparing(Comparator.comparingDouble((CandidateResult result) -> result.accuracy)
+                                               .reversed())
+                      .thenComparingDouble(result -> result.meanLatencyMicros)
+                      .thenComparingLong(result -> result.trainMillis);
+
+        private final String parameters;
+        private final double accuracy;
+        private final double meanLatencyMicros;
+        private final double p95LatencyMicros;
+        private final long trainMillis;
+        private final String error;
+
+        private CandidateResult(String parameters, double accuracy, double meanLatencyMicros,
+                                double p95LatencyMicros, long trainMillis, String error) {
+            this.parameters = parameters;
+            this.accuracy = accuracy;
+            this.meanLatencyMicros = meanLatencyMicros;
+            this.p95LatencyMicros = p95LatencyMicros;
+            this.trainMillis = trainMillis;
+            this.error = error;
+        }
+
+        static CandidateResult failed(String parameters, Exception e) {
+            return new CandidateResult(parameters, 0.0, 0.0, 0.0, 0, e.toString());
+        }
+
+        public String getParameters() {
+            return parameters;
+        }
+
+        public double getAccuracy() {
+            return accuracy;
+        }
+
+        public double getMeanLatencyMicros() {
+            return meanLatencyMicros;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return parameters + " FAILED: " + error;
+            }
+            return String.format("%s accuracy %.1f%%, latency %.1f us (p95 %.1f us), trained in %d ms", parameters,
+                                 accuracy * 100, meanLatencyMicros, p95LatencyMicros, trainMillis);
+        }
+    }
+
+    public static final class SweepReport {
+        private final String name;
+        private final int trainingSize;
+        private final int heldOutSize;
+        private final List<CandidateResult> ranking;
+        private final DoccatModel bestModel;
+        private final long wallMillis;
+        private final long trainingPeakHeapBytes;
+
+        private SweepReport(String name, int trainingSize, int heldOutSize, List<CandidateResult> ranking,
+                            DoccatModel bestModel, long wallMillis, long trainingPeakHeapBytes) {
+            this.name = name;
+            this.trainingSize = trainingSize;
+            this.heldOutSize = heldOutSize;
+            this.ranking = Collections.unmodifiableList(ranking);
+            this.bestModel = bestModel;
+            this.wallMillis = wallMillis;
+            this.trainingPeakHeapBytes = trainingPeakHeapBytes;
+        }
+
+        /**
+         * Candidates best first, failed candidates last
+         */
+        public List<CandidateResult> getRanking() {
+            return ranking;
+        }
+
+        /**
+         * Model of the top-ranked candidate; null when every candidate failed
+         */
+        public DoccatModel getBestModel() {
+            return bestModel;
+        }
+
+        public void writeTo(Path path) throws IOException {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("=== %s parameter sweep: %d candidates, %d training / %d held-out samples, %d ms ===\n",
+                                        name, ranking.size(), trainingSize, heldOutSize, wallMillis));
+            report.append(String.format("Peak heap while training: %.1f MB\n",
+                                        trainingPeakHeapBytes / (1024.0 * 1024.0)));
+            for (int i = 0; i < ranking.size(); i++) {
+                report.append(String.format("%2d. %s\n", i + 1, ranking.get(i)));
+            }
+            return report.toString();
+        }
+    }
+}
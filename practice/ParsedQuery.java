@@ -15,6 +15,8 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import view.TokenView;
+
 /**
  * ParsedQuery - Comprehensive query parsing and entity extraction for contract management
  *
@@ -40,6 +42,8 @@ public class ParsedQuery implements Serializable, Cloneable {
     // Core query information
     private String originalQuery;
     private String normalizedQuery;
+    // Tokens of normalizedQuery, kept from normalization for keyword extraction
+    private transient TokenView normalizedTokens;
     private double confidence;
     private Date timestamp;
 
@@ -68,6 +72,16 @@ public class ParsedQuery implements Serializable, Cloneable {
     // Static patterns for entity extraction
     private static final Map<String, Pattern> ENTITY_PATTERNS = initializePatterns();
 
+    // Characters a normalized query does not keep
+    private static final Pattern NON_QUERY_CHARS = Pattern.compile("[^a-zA-Z0-9\\s#$.-]");
+
+    // Common contract-related keywords, matched exactly or within typo distance
+    private static final KeywordIndex KEYWORD_INDEX = KeywordIndex.of(new String[] {
+        "contract", "agreement", "customer", "client", "account", "user", "status", "active", "inactive", "expired",
+        "pending", "create", "make", "new", "update", "modify", "show", "display", "list", "search", "find", "help",
+        "guide"
+    }, 2);
+
     /**
      * Query Type enumeration - defines the nature of the query
      */
@@ -241,7 +255,7 @@ public class ParsedQuery implements Serializable, Cloneable {
     public ParsedQuery(String originalQuery) {
         this();
         this.originalQuery = originalQuery;
-        this.normalizedQuery = normalizeQuery(originalQuery);
+        normalizeQuery(originalQuery);
     }
 
     /**
@@ -264,13 +278,7 @@ public class ParsedQuery implements Serializable, Cloneable {
     private static Map<String, Pattern> initializePatterns() {
         Map<String, Pattern> patterns = new HashMap<>();
 
-        // Contract number patterns (6-8 digits)
-        patterns.put("contractNumber",
-                     Pattern.compile("\\b(?:contract\\s+)?(?:#)?([0-9]{6,8})\\b", Pattern.CASE_INSENSITIVE));
-
-        // Account number patterns (6-10 digits)
-        patterns.put("accountNumber",
-                     Pattern.compile("\\b(?:account\\s+)?(?:#)?([0-9]{6,10})\\b", Pattern.CASE_INSENSITIVE));
+        // Contract (6-8 digits) and account (6-10 digits) numbers come from BusinessIdentifierLexer
 
         // Customer name patterns
         patterns.put("customerName",
@@ -311,17 +319,12 @@ public class ParsedQuery implements Serializable, Cloneable {
     }
 
     /**
-     * Normalize query text for processing
+     * Normalize query text for processing; its tokens are kept for extractKeywords
      */
-    private String normalizeQuery(String query) {
-        if (query == null)
-            return "";
-
-        return query.toLowerCase()
-                    .trim()
-                    .replaceAll("\\s+", " ")
-                    .replaceAll("[^a-zA-Z0-9\\s#$.-]", " ")
-                    .trim();
+    private void normalizeQuery(String query) {
+        String text = query == null ? "" : NON_QUERY_CHARS.matcher(query.toLowerCase()).replaceAll(" ");
+        this.normalizedTokens = TokenView.of(text);
+        this.normalizedQuery = normalizedTokens.toString();
     }
 
     /**
@@ -334,7 +337,12 @@ public class ParsedQuery implements Serializable, Cloneable {
 
         String queryText = originalQuery;
 
-        // Extract each entity type
+        // Extract identifiers in one lexer pass
+        BusinessIdentifierLexer.Identifiers identifiers = BusinessIdentifierLexer.scan(queryText);
+        extractIdentifier("contractNumber", identifiers.firstNumber(6, 8), queryText);
+        extractIdentifier("accountNumber", identifiers.firstNumber(6, 10), queryText);
+
+        // Extract each remaining entity type
         for (Map.Entry<String, Pattern> entry : ENTITY_PATTERNS.entrySet()) {
             String entityType = entry.getKey();
             Pattern pattern = entry.getValue();
@@ -357,6 +365,16 @@ public class ParsedQuery implements Serializable, Cloneable {
         validateEntities();
     }
 
+    /**
+     * Record an identifier found by the lexer
+     */
+    private void extractIdentifier(String entityType, String value, String queryText) {
+        if (value != null) {
+            setEntityValue(entityType, value);
+            entityConfidences.put(entityType, calculateExtractionConfidence(entityType, value, queryText));
+        }
+    }
+
     /**
      * Set entity value based on type
      */
@@ -440,66 +458,18 @@ public class ParsedQuery implements Serializable, Cloneable {
             return;
         }
 
-        String[] words = normalizedQuery.split("\\s+");
+        // A deserialized query has no tokens yet
+        if (normalizedTokens == null) {
+            normalizedTokens = TokenView.of(normalizedQuery);
+        }
         Set<String> keywords = new HashSet<>();
-
-        // Common contract-related keywords
-        String[] importantKeywords = {
-            "contract", "agreement", "customer", "client", "account", "user", "status", "active", "inactive", "expired",
-            "pending", "create", "make", "new", "update", "modify", "show", "display", "list", "search", "find", "help",
-            "guide"
-        };
-
-        for (String word : words) {
-            for (String keyword : importantKeywords) {
-                if (word.equals(keyword) || isTypoMatch(word, keyword)) {
-                    keywords.add(keyword);
-                }
-            }
+        for (int i = 0; i < normalizedTokens.size(); i++) {
+            keywords.addAll(KEYWORD_INDEX.matchingKeywords(normalizedTokens.get(i)));
         }
 
         this.extractedKeywords = new ArrayList<>(keywords);
     }
 
-    /**
-     * Simple typo matching using edit distance
-     */
-    private boolean isTypoMatch(String word, String keyword) {
-        if (Math.abs(word.length() - keyword.length()) > 2) {
-            return false;
-        }
-
-        int distance = calculateEditDistance(word, keyword);
-        return distance <= Math.max(1, keyword.length() / 3);
-    }
-
-    /**
-     * Calculate edit distance between two strings
-     */
-    private int calculateEditDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
-        }
-
-
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]), dp[i - 1][j - 1]);
-                }
-            }
-        }
-
-        return dp[s1.length()][s2.length()];
-    }
-
     /**
      * Normalize date format
      */
@@ -736,7 +706,7 @@ public class ParsedQuery implements Serializable, Cloneable {
 
     public void setOriginalQuery(String originalQuery) {
         this.originalQuery = originalQuery;
-        this.normalizedQuery = normalizeQuery(originalQuery);
+        normalizeQuery(originalQuery);
     }
 
     public String getNormalizedQuery() {
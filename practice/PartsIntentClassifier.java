@@ -6,9 +6,12 @@ import opennlp.tools.util.*;
 import java.io.*;
 
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import view.practice.BusinessIdentifierLexer.IdentifierType;
+import view.practice.BusinessIdentifierLexer.Identifiers;
+
 public class PartsIntentClassifier {
     private static final Logger logger = Logger.getLogger(PartsIntentClassifier.class.getName());
 
@@ -32,10 +35,12 @@ public class PartsIntentClassifier {
     private DocumentCategorizer categorizer;
     private boolean initialized = false;
 
-    // Patterns for entity extraction
-    private final Pattern contractNumberPattern = Pattern.compile("\\b\\d{6}\\b");
-    private final Pattern partNumberPattern = Pattern.compile("\\b[A-Z]{2}\\d{5}-\\d{8}\\b");
-    private final Pattern invoicePattern = Pattern.compile("\\b\\d{4,8}-[A-Z]+\\b");
+    // Learns from feedback at runtime, in the shadow of the OpenNLP model until it proves better
+    private static final String ONLINE_CHECKPOINT_PATH = "./models/online-parts.bin";
+    private static final int ONLINE_TRAINING_EPOCHS = 5;
+    private static final long CHECKPOINT_MINUTES = 5;
+    private final ShadowIntentModel.Lease onlineModel =
+        ShadowIntentModel.open("Parts", new File(ONLINE_CHECKPOINT_PATH));
 
     // Typo correction and synonyms
     private Map<String, String> partsTypoMap;
@@ -129,7 +134,8 @@ public class PartsIntentClassifier {
     }
 
     public void initializeWithTrainingData() throws IOException {
-        ObjectStream<DocumentSample> samples = createPartsTrainingData();
+        List<DocumentSample> trainingSamples = TrainingRunner.readAll(createPartsTrainingData());
+        ObjectStream<DocumentSample> samples = new CollectionObjectStream<>(trainingSamples);
 
         TrainingParameters params = new TrainingParameters();
         params.put(TrainingParameters.ITERATIONS_PARAM, 200);
@@ -138,6 +144,7 @@ public class PartsIntentClassifier {
         this.model = DocumentCategorizerME.train("en", samples, params, new DoccatFactory());
         this.categorizer = new DocumentCategorizerME(model);
         this.initialized = true;
+        startOnlineModel(trainingSamples);
 
         logger.info("Parts Intent Classifier initialized successfully");
         logger.info("Supported intents: " + Arrays.toString(PartsIntent.values()));
@@ -257,6 +264,9 @@ public class PartsIntentClassifier {
             // Apply typo correction and synonym mapping
             String correctedInput = correctTyposAndSynonyms(input);
 
+            // Contract, part and invoice numbers from one lexer pass over the raw input
+            Identifiers identifiers = BusinessIdentifierLexer.scan(input);
+
             // Tokenize and classify
             String[] tokens = correctedInput.toLowerCase().split("\\s+");
             double[] outcomes = categorizer.categorize(tokens);
@@ -265,17 +275,23 @@ public class PartsIntentClassifier {
             String bestCategory = categorizer.getBestCategory(outcomes);
             double confidence = getMaxConfidence(outcomes);
 
+            // The online model answers instead once it has proven better on feedback
+            ClassifierCascade.Decision decision = onlineModel.get().decide(tokens, bestCategory, confidence);
+            bestCategory = decision.getLabel();
+            confidence = decision.getConfidence();
+
             // Apply keyword boosting
-            PartsIntentConfidencePair boosted = applyKeywordBoosting(correctedInput, bestCategory, confidence);
+            PartsIntentConfidencePair boosted =
+                applyKeywordBoosting(correctedInput, identifiers, bestCategory, confidence);
 
             // Apply threshold filtering
             PartsIntent finalIntent = applyThresholdFiltering(boosted.intent, boosted.confidence);
 
             // Extract entities
-            String contractNumber = extractContractNumber(input);
-            String partNumber = extractPartNumber(input);
+            String contractNumber = extractContractNumber(identifiers);
+            String partNumber = extractPartNumber(identifiers);
             String customerName = extractCustomerName(correctedInput);
-            String invoiceNumber = extractInvoiceNumber(input);
+            String invoiceNumber = extractInvoiceNumber(identifiers);
 
             String actionRequired = determineActionRequired(finalIntent, contractNumber, partNumber);
 
@@ -318,7 +334,8 @@ public class PartsIntentClassifier {
         return max;
     }
 
-    private PartsIntentConfidencePair applyKeywordBoosting(String input, String category, double confidence) {
+    private PartsIntentConfidencePair applyKeywordBoosting(String input, Identifiers identifiers, String category,
+                                                           double confidence) {
         PartsIntent intent = mapCategoryToIntent(category);
         double boostedConfidence = confidence;
 
@@ -348,7 +365,7 @@ public class PartsIntentClassifier {
         }
 
         // Part number pattern boost
-        if (partNumberPattern.matcher(input).find()) {
+        if (identifiers.contains(IdentifierType.PART_NUMBER)) {
             if (intent == PartsIntent.GET_PART_DETAILS) {
                 boostedConfidence += 0.5;
             }
@@ -399,14 +416,12 @@ public class PartsIntentClassifier {
         return intent;
     }
 
-    private String extractContractNumber(String input) {
-        java.util.regex.Matcher matcher = contractNumberPattern.matcher(input);
-        return matcher.find() ? matcher.group() : null;
+    private String extractContractNumber(Identifiers identifiers) {
+        return identifiers.firstValue(IdentifierType.CONTRACT_NUMBER);
     }
 
-    private String extractPartNumber(String input) {
-        java.util.regex.Matcher matcher = partNumberPattern.matcher(input);
-        return matcher.find() ? matcher.group() : null;
+    private String extractPartNumber(Identifiers identifiers) {
+        return identifiers.firstValue(IdentifierType.PART_NUMBER);
     }
 
     private String extractCustomerName(String input) {
@@ -424,9 +439,8 @@ public class PartsIntentClassifier {
         return null;
     }
 
-    private String extractInvoiceNumber(String input) {
-        java.util.regex.Matcher matcher = invoicePattern.matcher(input);
-        return matcher.find() ? matcher.group() : null;
+    private String extractInvoiceNumber(Identifiers identifiers) {
+        return identifiers.firstValue(IdentifierType.INVOICE_NUMBER);
     }
 
     private boolean containsCustomerName(String input) {
@@ -484,10 +498,42 @@ public class PartsIntentClassifier {
             this.model = new DoccatModel(fis);
             this.categorizer = new DocumentCategorizerME(model);
             this.initialized = true;
+            // The saved model comes without its training data; the online model starts from the built-in set
+            startOnlineModel(TrainingRunner.readAll(createPartsTrainingData()));
             logger.info("Parts intent classifier model loaded from: " + modelPath);
         }
     }
 
+    // Seed the online model from the training data unless its checkpoint was seeded from the same data
+    private void startOnlineModel(List<DocumentSample> trainingSamples) {
+        onlineModel.get().seed(trainingSamples, ONLINE_TRAINING_EPOCHS);
+        onlineModel.get().startCheckpointing(CHECKPOINT_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Correct or confirm the category of an input; the online model learns it right away
+     * @param category training category, e.g. "get_part_details"
+     */
+    public void reportFeedback(String input, String category) {
+        if (!initialized) {
+            throw new IllegalStateException("Parts Intent Classifier not initialized");
+        }
+        String[] tokens = correctTyposAndSynonyms(input).toLowerCase().split("\\s+");
+        String primaryCategory = categorizer.getBestCategory(categorizer.categorize(tokens));
+        onlineModel.get().feedback(tokens, primaryCategory, category);
+    }
+
+    public String getOnlineModelStats() {
+        return onlineModel.get().getStats();
+    }
+
+    /**
+     * Release the online model; its last checkpoint is written once no other classifier shares it
+     */
+    public void close() {
+        onlineModel.close();
+    }
+
     // Helper classes
 
     private static class PartsIntentConfidencePair {
@@ -11,10 +11,22 @@ import java.util.logging.Logger;
 public class PartsModelTrainer {
     private static final Logger logger = Logger.getLogger(PartsModelTrainer.class.getName());
     private static final String ENHANCED_PARTS_MODEL_PATH = "./models/en-parts.bin";
+    private static final int CROSS_VALIDATION_FOLDS = 5;
+    private static final String PARAMETER_SWEEP_REPORT_PATH = "./models/parts-parameter-sweep.txt";
+    private static final int TYPO_VARIANTS_PER_SAMPLE = 20;
+    private static final String EVALUATION_REPORT_PATH = "./models/parts-evaluation.json";
+    private static final long TYPO_SEED = 20240101L;
+
+    // Enhanced training parameters
+    private final TrainingRunner runner = new TrainingRunner("Parts", "MAXENT", 1000, 0);
+    private int typoVariants = 1; // 1 = original samples only
 
     public static void main(String[] args) {
         try {
             PartsModelTrainer trainer = new PartsModelTrainer();
+            if (Arrays.asList(args).contains("--typo-augment")) {
+                trainer.setTypoVariants(TYPO_VARIANTS_PER_SAMPLE);
+            }
 
             System.out.println("=== Enhanced Parts/Lines Intent Model Training ===");
 
@@ -27,6 +39,13 @@ public class PartsModelTrainer {
             // Test the model
             trainer.testEnhancedModel(model);
 
+            if (Arrays.asList(args).contains("--cross-validate")) {
+                trainer.crossValidateEnhancedPartsModel(CROSS_VALIDATION_FOLDS);
+            }
+            if (Arrays.asList(args).contains("--sweep")) {
+                trainer.sweepEnhancedPartsParameters();
+            }
+
             System.out.println("? Enhanced Parts model training completed successfully!");
 
         } catch (Exception e) {
@@ -35,27 +54,24 @@ public class PartsModelTrainer {
         }
     }
 
-    private ObjectStream<DocumentSample> createWeightedTrainingData() {
-        List<DocumentSample> samples = new ArrayList<>();
+    /**
+     * Train on this many samples per training sample: the original plus generated misspellings
+     */
+    public void setTypoVariants(int typoVariants) {
+        this.typoVariants = typoVariants;
+    }
 
-        // Get regular samples
-        ObjectStream<DocumentSample> regularSamples = createEnhancedPartsTrainingData();
-        try {
-            DocumentSample sample;
-            while ((sample = regularSamples.read()) != null) {
-                samples.add(sample);
-
-                // TRIPLE the part number samples for stronger learning
-                if (sample.getCategory().equals("get_part_details")) {
-                    samples.add(sample); // Add duplicate
-                    samples.add(sample); // Add another duplicate
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private ObjectStream<DocumentSample> createWeightedTrainingData() throws IOException {
+        ObjectStream<DocumentSample> samples = createEnhancedPartsTrainingData();
+        if (typoVariants > 1) {
+            // Generated while training reads them, in place of the hand-written addEnhancedTypoSamples
+            TypoAugmenter augmenter = new TypoAugmenter(TYPO_SEED);
+            augmenter.setVariantsPerPhrase(typoVariants);
+            augmenter.addSamples(TrainingRunner.readAll(samples));
+            samples = augmenter.stream();
         }
-
-        return new CollectionObjectStream<>(samples);
+        // TRIPLE the part number samples for stronger learning - replayed while training, not copied
+        return new WeightedSampleStream(samples, Collections.singletonMap("get_part_details", 3));
     }
 
     public DoccatModel trainEnhancedPartsModel() throws IOException {
@@ -65,19 +81,38 @@ public class PartsModelTrainer {
         //ObjectStream<DocumentSample> samples = createEnhancedPartsTrainingData();
         ObjectStream<DocumentSample> samples = createWeightedTrainingData();
 
-        // Enhanced training parameters
-        TrainingParameters params = new TrainingParameters();
-        params.put(TrainingParameters.ITERATIONS_PARAM, 1000); // Increased iterations
-        params.put(TrainingParameters.CUTOFF_PARAM, 0);
-        params.put(TrainingParameters.ALGORITHM_PARAM, "MAXENT");
-
         System.out.println("? Training enhanced parts intent classification model...");
 
         // Train the model
-        DoccatModel model = DocumentCategorizerME.train("en", samples, params, new DoccatFactory());
+        TrainingRunner.TrainingResult result = runner.train(samples);
 
         System.out.println("? Enhanced parts model training completed");
-        return model;
+        System.out.println("  " + result);
+        return result.getModel();
+    }
+
+    /**
+     * k-fold cross-validation of the parts training data, folds trained concurrently
+     */
+    public TrainingRunner.CrossValidationReport crossValidateEnhancedPartsModel(int folds) throws IOException {
+        // Unweighted samples: the duplicated part number samples would otherwise sit in the
+        // training and test folds at the same time and inflate the accuracy
+        List<DocumentSample> samples = TrainingRunner.readAll(createEnhancedPartsTrainingData());
+        TrainingRunner.CrossValidationReport report = runner.crossValidate(samples, folds);
+        System.out.println("\n" + report);
+        return report;
+    }
+
+    /**
+     * Train every parameter combination on the parts training data and rank them on held-out samples
+     */
+    public ParameterSweep.SweepReport sweepEnhancedPartsParameters() throws IOException {
+        // Unweighted for the same reason as cross-validation
+        List<DocumentSample> samples = TrainingRunner.readAll(createEnhancedPartsTrainingData());
+        ParameterSweep.SweepReport report = new ParameterSweep("Parts", samples).run();
+        report.writeTo(new File(PARAMETER_SWEEP_REPORT_PATH).toPath());
+        System.out.println("\n" + report);
+        return report;
     }
 
     private void addSpecificFailingCaseSamples(List<DocumentSample> samples) {
@@ -460,8 +495,6 @@ public class PartsModelTrainer {
     public void testEnhancedModel(DoccatModel model) {
         System.out.println("\n=== Testing Enhanced Parts Model ===");
 
-        DocumentCategorizer categorizer = new DocumentCategorizerME(model);
-
         // Same test cases as before but with improved expected results
         String[] testQueries = {
             "show the loaded parts contract 123456", "show the failed parts contract 123456", "parts details 123456", // Should be show_all_parts
@@ -503,39 +536,33 @@ public class PartsModelTrainer {
 
         System.out.println("? Testing " + testQueries.length + " queries with enhanced model...\n");
 
-        int correctPredictions = 0;
-        int totalTests = testQueries.length;
-
+        EvaluationSuite suite = new EvaluationSuite("Enhanced parts");
         for (int i = 0; i < testQueries.length; i++) {
-            String query = testQueries[i];
-            String expectedIntent = expectedResults[i];
-
-            // Apply enhanced typo correction
-            String correctedQuery = applyEnhancedTypoCorrection(query);
-
-            String[] tokens = correctedQuery.toLowerCase().split("\\s+");
-            double[] outcomes = categorizer.categorize(tokens);
-            String bestCategory = categorizer.getBestCategory(outcomes);
-            double confidence = getMaxConfidence(outcomes);
-
-            boolean isCorrect = bestCategory.equals(expectedIntent);
-            if (isCorrect)
-                correctPredictions++;
+            suite.add(testQueries[i], expectedResults[i]);
+        }
 
-            System.out.printf("Test %2d: \"%s\"\n", (i + 1), query);
-            if (!correctedQuery.equals(query.toLowerCase())) {
-                System.out.printf("  Corrected: \"%s\"\n", correctedQuery);
-            }
-            System.out.printf("  Intent: %s\n", bestCategory);
-            System.out.printf("  Confidence: %.2f\n", confidence);
-            System.out.printf("  Expected: %s\n", expectedIntent);
-            System.out.printf("  Status: %s\n\n", isCorrect ? "? CORRECT" : "? INCORRECT");
+        EvaluationSuite.Report report;
+        try {
+            // DocumentCategorizerME is not thread-safe: one per worker, all on the same model
+            report = suite.run(() -> {
+                DocumentCategorizer categorizer = new DocumentCategorizerME(model);
+                return query -> {
+                    // Apply enhanced typo correction
+                    String[] tokens = applyEnhancedTypoCorrection(query).toLowerCase().split("\\s+");
+                    double[] outcomes = categorizer.categorize(tokens);
+                    return new ClassifierCascade.Decision(categorizer.getBestCategory(outcomes),
+                                                          getMaxConfidence(outcomes));
+                };
+            });
+            report.writeJson(new File(EVALUATION_REPORT_PATH).toPath());
+        } catch (IOException e) {
+            System.err.println("? Error evaluating enhanced parts model: " + e.getMessage());
+            return;
         }
+        System.out.println(report);
 
-        double accuracy = (double) correctPredictions / totalTests * 100;
-        System.out.printf("=== Enhanced Test Results ===\n");
-        System.out.printf("Correct Predictions: %d/%d\n", correctPredictions, totalTests);
-        System.out.printf("Accuracy: %.1f%%\n", accuracy);
+        double accuracy = report.getAccuracy() * 100;
+        System.out.println("? Report: " + EVALUATION_REPORT_PATH);
 
         if (accuracy >= 85.0) {
             System.out.println("? Enhanced model performance is EXCELLENT");
@@ -0,0 +1,361 @@
+package view.practice;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import opennlp.tools.doccat.DocumentSample;
+
+/**
+ * Runs an OnlineIntentModel in the shadow of an existing classifier until it proves better.
+ *
+ * decide() is given the primary classifier's answer. The online model scores the same tokens,
+ * and agreement is counted, but the primary answer is returned while the online model is in
+ * shadow. feedback() takes the correct label for an input: both classifiers are scored on it
+ * before the online model learns from it, so every example tests the online model on data it
+ * has not seen yet. Once a full window of feedback has been scored, the online model is promoted
+ * when its accuracy over the window beats the primary's by the margin, and demoted again if it
+ * falls behind. Feedback should include confirmed answers as well as corrections - with
+ * corrections alone the primary looks wrong on every example.
+ *
+ * The online model's softmax is not a probability, so a promoted answer carries a calibrated
+ * confidence instead: the online model's accuracy over the window on the feedback examples whose
+ * softmax fell in the same tenth, pulled towards its accuracy over the whole window while that
+ * tenth has few examples. It can be compared with the thresholds the primary's confidence is.
+ *
+ * seed() trains the model from the owner's training data and keeps a fingerprint of that data in
+ * the checkpoint. Seeding again with the same data keeps the model and everything it learned
+ * since; seeding with other data replaces it, feedback included, and starts the evaluation over.
+ * Seeding with no data keeps the model as it is.
+ *
+ * open() shares one instance per checkpoint file across the process, so the file has a single
+ * writer and a single checkpoint thread; owners hold a Lease and close it from their shutdown
+ * path. Checkpoints are written by a background daemon thread, only when the model has learned
+ * something since the last one, and once more when the last lease is closed.
+ */
+public class ShadowIntentModel {
+
+    public static final int DEFAULT_WINDOW = 200;
+    public static final double DEFAULT_MARGIN = 0.02;
+
+    private static final int CALIBRATION_BINS = 10;
+    private static final double CALIBRATION_PRIOR = 5.0; // examples' worth of weight on the window accuracy
+
+    // One instance per checkpoint file, guarded by itself
+    private static final Map<String, ShadowIntentModel> SHARED = new HashMap<>();
+
+    private final String name;
+    private volatile OnlineIntentModel online;
+    private final File checkpointFile;
+    private final boolean[] primaryHits;
+    private final boolean[] onlineHits;
+    private final int[] onlineBins; // calibration bin of each online prediction, -1 without one
+    private final int[] binCounts = new int[CALIBRATION_BINS];
+    private final int[] binHits = new int[CALIBRATION_BINS];
+    private final double margin;
+
+    private int evaluated;
+    private int next;
+    private volatile boolean promoted;
+    private ScheduledExecutorService checkpointer;
+    private long checkpointedExamples = -1;
+    private String sharedKey;
+    private int references; // guarded by SHARED
+
+    // Metrics
+    private final AtomicLong shadowed = new AtomicLong();
+    private final AtomicLong agreements = new AtomicLong();
+    private final AtomicLong promotions = new AtomicLong();
+    private final AtomicLong checkpoints = new AtomicLong();
+
+    public ShadowIntentModel(String name, OnlineIntentModel online, File checkpointFile, int window,
+                             double margin) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Evaluation window must hold at least one example");
+        }
+        this.name = name;
+        this.online = online;
+        this.checkpointFile = checkpointFile;
+        this.primaryHits = new boolean[window];
+        this.onlineHits = new boolean[window];
+        this.onlineBins = new int[window];
+        this.margin = margin;
+    }
+
+    /**
+     * Lease the process-wide model of a checkpoint file, loading it on first use
+     */
+    public static Lease open(String name, File checkpointFile) {
+        String key = checkpointFile.getAbsoluteFile().toPath().normalize().toString();
+        synchronized (SHARED) {
+            ShadowIntentModel shared = SHARED.get(key);
+            if (shared == null) {
+                shared = load(name, checkpointFile);
+                shared.sharedKey = key;
+                SHARED.put(key, shared);
+            }
+            shared.references++;
+            return new Lease(shared);
+        }
+    }
+
+    private static void release(ShadowIntentModel shared) {
+        synchronized (SHARED) {
+            if (--shared.references > 0) {
+                return;
+            }
+            SHARED.remove(shared.sharedKey);
+        }
+        shared.close();
+    }
+
+    /**
+     * Resume from the checkpoint file when there is one, otherwise start with an empty model
+     */
+    public static ShadowIntentModel load(String name, File checkpointFile) {
+        OnlineIntentModel online = null;
+        if (checkpointFile.exists()) {
+            try {
+                online = OnlineIntentModel.load(checkpointFile);
+            } catch (IOException e) {
+                System.err.println(name + " online model checkpoint not loaded: " + e.getMessage());
+            }
+        }
+        if (online == null) {
+            online = new OnlineIntentModel();
+        }
+        return new ShadowIntentModel(name, online, checkpointFile, DEFAULT_WINDOW, DEFAULT_MARGIN);
+    }
+
+    public OnlineIntentModel getOnlineModel() {
+        return online;
+    }
+
+    /**
+     * Train the online model from training data, unless it was already seeded from the same data
+     */
+    public synchronized void seed(List<DocumentSample> samples, int epochs) {
+        if (samples.isEmpty()) {
+            // Nothing to seed from; keep the checkpointed model and what it learned
+            return;
+        }
+        long fingerprint = fingerprint(samples, epochs);
+        if (online.getSeedFingerprint() == fingerprint) {
+            return;
+        }
+        OnlineIntentModel seeded = new OnlineIntentModel(online.getBits());
+        seeded.train(samples, epochs);
+        seeded.setSeedFingerprint(fingerprint);
+        online = seeded;
+
+        // The window scored the replaced model
+        evaluated = 0;
+        next = 0;
+        promoted = false;
+        Arrays.fill(binCounts, 0);
+        Arrays.fill(binHits, 0);
+        checkpointedExamples = -1;
+        System.out.println(String.format("%s online model seeded from %d training samples", name, samples.size()));
+    }
+
+    // CRC32 over categories and tokens in order, with the epochs
+    static long fingerprint(List<DocumentSample> samples, int epochs) {
+        CRC32 crc = new CRC32();
+        crc.update(Integer.toString(epochs).getBytes(StandardCharsets.UTF_8));
+        for (DocumentSample sample : samples) {
+            crc.update('\n');
+            crc.update(sample.getCategory().getBytes(StandardCharsets.UTF_8));
+            for (String token : sample.getText()) {
+                crc.update('\t');
+                crc.update(token.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * The answer to serve: the primary's while in shadow, the online model's once promoted
+     */
+    public ClassifierCascade.Decision decide(String[] tokens, String primaryLabel, double primaryConfidence) {
+        ClassifierCascade.Decision candidate = online.predict(tokens);
+        if (candidate == null) {
+            return new ClassifierCascade.Decision(primaryLabel, primaryConfidence);
+        }
+        shadowed.incrementAndGet();
+        if (candidate.getLabel().equals(primaryLabel)) {
+            agreements.incrementAndGet();
+        }
+        if (!promoted) {
+            return new ClassifierCascade.Decision(primaryLabel, primaryConfidence);
+        }
+        return new ClassifierCascade.Decision(candidate.getLabel(), calibrate(candidate.getConfidence()));
+    }
+
+    private synchronized double calibrate(double softmax) {
+        int counted = 0;
+        int hits = 0;
+        for (int b = 0; b < CALIBRATION_BINS; b++) {
+            counted += binCounts[b];
+            hits += binHits[b];
+        }
+        double windowAccuracy = counted == 0 ? 0.0 : (double) hits / counted;
+        int bin = bin(softmax);
+        return (binHits[bin] + CALIBRATION_PRIOR * windowAccuracy) / (binCounts[bin] + CALIBRATION_PRIOR);
+    }
+
+    private static int bin(double softmax) {
+        return Math.max(0, Math.min(CALIBRATION_BINS - 1, (int) (softmax * CALIBRATION_BINS)));
+    }
+
+    /**
+     * Record the correct label for an input the primary classified as primaryLabel, then learn it
+     */
+    public void feedback(String[] tokens, String primaryLabel, String label) {
+        OnlineIntentModel model = online;
+        ClassifierCascade.Decision before = model.predict(tokens);
+        record(label.equals(primaryLabel), before != null && label.equals(before.getLabel()),
+               before == null ? -1 : bin(before.getConfidence()));
+        model.learn(tokens, label);
+    }
+
+    private synchronized void record(boolean primaryHit, boolean onlineHit, int onlineBin) {
+        if (evaluated == primaryHits.length && onlineBins[next] >= 0) {
+            // The slot's old example leaves the window
+            binCounts[onlineBins[next]]--;
+            binHits[onlineBins[next]] -= onlineHits[next] ? 1 : 0;
+        }
+        primaryHits[next] = primaryHit;
+        onlineHits[next] = onlineHit;
+        onlineBins[next] = onlineBin;
+        if (onlineBin >= 0) {
+            binCounts[onlineBin]++;
+            binHits[onlineBin] += onlineHit ? 1 : 0;
+        }
+        next = (next + 1) % primaryHits.length;
+        if (evaluated < primaryHits.length) {
+            evaluated++;
+        }
+        if (evaluated < primaryHits.length) {
+            return;
+        }
+
+        double primaryAccuracy = accuracy(primaryHits);
+        double onlineAccuracy = accuracy(onlineHits);
+        if (!promoted && onlineAccuracy >= primaryAccuracy + margin) {
+            promoted = true;
+            promotions.incrementAndGet();
+            System.out.println(String.format("%s online model promoted: %.1f%% vs %.1f%% over the last %d examples",
+                                             name, onlineAccuracy * 100, primaryAccuracy * 100, evaluated));
+        } else if (promoted && onlineAccuracy < primaryAccuracy) {
+            promoted = false;
+            System.out.println(String.format("%s online model back in shadow: %.1f%% vs %.1f%%", name,
+                                             onlineAccuracy * 100, primaryAccuracy * 100));
+        }
+    }
+
+    private double accuracy(boolean[] hits) {
+        int correct = 0;
+        for (int i = 0; i < evaluated; i++) {
+            if (hits[i]) {
+                correct++;
+            }
+        }
+        return evaluated == 0 ? 0.0 : (double) correct / evaluated;
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    /**
+     * Write a checkpoint every period in the background, skipping periods without new examples
+     */
+    public synchronized void startCheckpointing(long period, TimeUnit unit) {
+        if (checkpointer != null) {
+            return;
+        }
+        checkpointer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, name + "-online-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(this::checkpoint, period, period, unit);
+    }
+
+    /**
+     * Write a checkpoint now if the model changed since the last one
+     */
+    public synchronized void checkpoint() {
+        long examples = online.getExampleCount();
+        if (examples == checkpointedExamples) {
+            return;
+        }
+        try {
+            online.save(checkpointFile);
+            checkpointedExamples = examples;
+            checkpoints.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println(name + " online model checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop background checkpoints and write a last one; shared models are closed by their last lease
+     */
+    public void close() {
+        synchronized (this) {
+            if (checkpointer != null) {
+                checkpointer.shutdown();
+                checkpointer = null;
+            }
+        }
+        checkpoint();
+    }
+
+    public synchronized String getStats() {
+        long shadowedCount = shadowed.get();
+        return String.format("%s %s, %s; agreement %.1f%% over %d queries; window accuracy online %.1f%% vs primary %.1f%% (%d examples); %d promotions, %d checkpoints",
+                             name, online.getStats(), promoted ? "promoted" : "in shadow",
+                             shadowedCount == 0 ? 0.0 : agreements.get() * 100.0 / shadowedCount, shadowedCount,
+                             accuracy(onlineHits) * 100, accuracy(primaryHits) * 100, evaluated, promotions.get(),
+                             checkpoints.get());
+    }
+
+    /**
+     * A reference to a shared model; close it from the owning component's shutdown path
+     */
+    public static final class Lease implements AutoCloseable {
+        private final ShadowIntentModel model;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Lease(ShadowIntentModel model) {
+            this.model = model;
+        }
+
+        public ShadowIntentModel get() {
+            if (closed.get()) {
+                throw new IllegalStateException("Online model lease already closed: " + model.name);
+            }
+            return model;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(model);
+            }
+        }
+    }
+}
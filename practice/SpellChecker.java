@@ -6,6 +6,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import view.TokenView;
+
 public class SpellChecker {
     private Map<String, Integer> dictionary;
     private static final int MAX_EDIT_DISTANCE = 2; // Reduced from 3 to be more strict
@@ -306,42 +308,33 @@ public class SpellChecker {
     }
     
     public String correctText(String text) {
-        String[] words = text.split("\\s+");
-        StringBuilder correctedText = new StringBuilder();
-        
-        for (String word : words) {
-            String originalWord = word;
+        TokenView tokens = TokenView.of(text);
+        for (int i = 0; i < tokens.size(); i++) {
+            String word = tokens.get(i);
+            String lowerWord = tokens.lower(i);
             
             // Handle special contractions
-            if (word.matches(".*[;].*")) {
-                word = word.replaceAll(";", "'");
+            if (word.indexOf(';') >= 0) {
+                word = word.replace(';', '\'');
                 if (word.toLowerCase().startsWith("i'")) {
                     word = "I" + word.substring(1);
                 }
-                correctedText.append(word);
-                correctedText.append(" ");
+                tokens.set(i, word);
 				continue;
             }
             
             // Handle contractions with apostrophes - preserve them as-is
-            if (word.toLowerCase().equals("who's") || word.toLowerCase().equals("it's") || 
-                word.toLowerCase().equals("i'm") || word.toLowerCase().equals("don't") ||
-                word.toLowerCase().equals("can't") || word.toLowerCase().equals("won't")) {
-                correctedText.append(word);
-                correctedText.append(" ");
+            if (lowerWord.equals("who's") || lowerWord.equals("it's") || 
+                lowerWord.equals("i'm") || lowerWord.equals("don't") ||
+                lowerWord.equals("can't") || lowerWord.equals("won't")) {
                 continue;
             }
             
             // Handle common abbreviations and typos with direct mapping
-            String lowerWord = word.toLowerCase();
             String replacement = getDirectReplacement(lowerWord);
             
             if (replacement != null) {
-                correctedText.append(replacement);
-                if (!replacement.equals(originalWord)) {
-                    //System.out.println("Corrected: " + originalWord + " -> " + replacement);
-                }
-                correctedText.append(" ");
+                tokens.set(i, replacement);
                 continue;
             }
             
@@ -350,59 +343,39 @@ public class SpellChecker {
             String punctuation = word.replaceAll("[a-zA-Z0-9]", "");
             
             if (cleanWord.isEmpty()) {
-                correctedText.append(word).append(" ");
                 continue;
             }
             
             // Skip numbers and part numbers
-            if (cleanWord.matches("^\\d+$") || cleanWord.toLowerCase().matches("^[a-z]{1,3}\\d+$")) {
-                correctedText.append(word);
-                correctedText.append(" ");
+            String lowerClean = cleanWord.toLowerCase();
+            if (cleanWord.matches("^\\d+$") || lowerClean.matches("^[a-z]{1,3}\\d+$")) {
                 continue;
             }
             
             // Skip likely proper names (capitalized words that aren't at sentence start)
-            if (Character.isUpperCase(cleanWord.charAt(0)) && !isFirstWordOfSentence(word, correctedText.toString())) {
-                correctedText.append(word);
-                correctedText.append(" ");
+            if (Character.isUpperCase(cleanWord.charAt(0)) && !isFirstWordOfSentence(tokens, i)) {
                 continue;
             }
             
             try {
-                List<Suggestion> suggestions = findSuggestions(cleanWord.toLowerCase());
+                List<Suggestion> suggestions = findSuggestions(lowerClean);
                 
-                if (!suggestions.isEmpty()) {
-                    if (suggestions.get(0).distance == 0) {
-                        // Word is correct
-                        correctedText.append(word);
-                    } else if (suggestions.get(0).distance <= MAX_EDIT_DISTANCE) {
-                        // Apply correction only if it makes sense
-                        String bestSuggestion = suggestions.get(0).word;
-                        
-                        // Additional validation: don't replace if the original word is much longer
-                        // and the suggestion is much shorter (likely wrong)
-                        if (shouldApplyCorrection(cleanWord.toLowerCase(), bestSuggestion)) {
-                            String corrected = bestSuggestion + punctuation;
-                            correctedText.append(corrected);
-                            if (!cleanWord.toLowerCase().equals(bestSuggestion)) {
-                                //System.out.println("Corrected: " + originalWord + " -> " + corrected);
-                            }
-                        } else {
-                            correctedText.append(word);
-                        }
-                    } else {
-                        correctedText.append(word);
+                if (!suggestions.isEmpty() && suggestions.get(0).distance > 0 &&
+                    suggestions.get(0).distance <= MAX_EDIT_DISTANCE) {
+                    // Apply correction only if it makes sense
+                    String bestSuggestion = suggestions.get(0).word;
+                    
+                    // Additional validation: don't replace if the original word is much longer
+                    // and the suggestion is much shorter (likely wrong)
+                    if (shouldApplyCorrection(lowerClean, bestSuggestion)) {
+                        tokens.set(i, bestSuggestion + punctuation);
                     }
-                } else {
-                    correctedText.append(word);
                 }
-                correctedText.append(" ");
             } catch (Exception e) {
-                correctedText.append(word).append(" ");
+                // Keep the word as typed
             }
         }
-        
-        return correctedText.toString().trim();
+        return tokens.toString();
     }
     
     private String getDirectReplacement(String word) {
@@ -565,9 +538,15 @@ public class SpellChecker {
         return true;
     }
     
-    private boolean isFirstWordOfSentence(String word, String previousText) {
-        if (previousText.trim().isEmpty()) return true;
-        return previousText.matches(".*[.!?]\\s*$");
+    private boolean isFirstWordOfSentence(TokenView tokens, int index) {
+        for (int i = index - 1; i >= 0; i--) {
+            String previous = tokens.get(i);
+            if (!previous.isEmpty()) {
+                char last = previous.charAt(previous.length() - 1);
+                return last == '.' || last == '!' || last == '?';
+            }
+        }
+        return true;
     }
     
     // Inner class to represent a suggestion
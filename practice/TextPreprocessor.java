@@ -2,8 +2,12 @@ package view.practice;
 import java.util.*;
 import java.util.regex.Pattern;
 
+import view.TokenView;
+
 public class TextPreprocessor {
     
+    private static final Set<String> IMPORTANT_STOP_WORDS = new HashSet<>(Arrays.asList("how", "to", "with"));
+    
     private final Map<String, String> commonTypos;
     private final Set<String> stopWords;
     private final Pattern specialCharsPattern;
@@ -71,32 +75,31 @@ public class TextPreprocessor {
         // Remove special characters except spaces
         processed = specialCharsPattern.matcher(processed).replaceAll(" ");
         
-        // Normalize multiple spaces to single space
-        processed = processed.replaceAll("\\s+", " ");
-        
-        // Split into words and process each
-        String[] words = processed.split("\\s+");
-        List<String> processedWords = new ArrayList<>();
-        
-        for (String word : words) {
-            if (word != null && !word.trim().isEmpty()) {
-                // Apply typo corrections
-                String correctedWord = commonTypos.getOrDefault(word.trim(), word.trim());
-                
-                // Keep important words (not stop words for intent classification)
-                if (!stopWords.contains(correctedWord) || isImportantWord(correctedWord)) {
-                    processedWords.add(correctedWord);
-                }
+        // Typo-correct and drop stop words in place
+        TokenView tokens = TokenView.of(processed);
+        int i = 0;
+        while (i < tokens.size()) {
+            // Apply typo corrections
+            String correctedWord = commonTypos.get(tokens.get(i));
+            if (correctedWord != null) {
+                tokens.set(i, correctedWord);
+            } else {
+                correctedWord = tokens.get(i);
+            }
+            
+            // Keep important words (not stop words for intent classification)
+            if (!stopWords.contains(correctedWord) || isImportantWord(correctedWord)) {
+                i++;
+            } else {
+                tokens.remove(i);
             }
         }
-        
-        return String.join(" ", processedWords);
+        return tokens.toString();
     }
     
     private boolean isImportantWord(String word) {
         // Keep certain stop words that might be important for intent classification
-        Set<String> importantStopWords = new HashSet<>(Arrays.asList("how", "to", "with"));
-        return importantStopWords.contains(word);
+        return IMPORTANT_STOP_WORDS.contains(word);
     }
     
     public double calculateSimilarity(String text1, String text2) {
@@ -5,10 +5,21 @@ import opennlp.tools.util.model.ModelUtil;
 import java.io.*;
 
 public class TrainContractNER {
+    public static final String DEFAULT_TRAINING_FILE =
+        "C:\\JDeveloper\\mywork\\MYChatTest\\ViewController\\public_html\\models\\contract_ner_train.txt";
+    // Annotated sentences kept out of training, for ContractEntityBenchmark
+    public static final String DEFAULT_HELD_OUT_FILE =
+        "C:\\JDeveloper\\mywork\\MYChatTest\\ViewController\\public_html\\models\\contract_ner_test.txt";
+
+    /**
+     * Usage: TrainContractNER [training file] [model file]
+     */
     public static void main(String[] args) throws Exception {
+        String trainingFile = args.length > 0 ? args[0] : DEFAULT_TRAINING_FILE;
+        String modelFile = args.length > 1 ? args[1] : ContractEntityFinder.DEFAULT_MODEL_PATH;
+
         // Prepare training data
-        InputStreamFactory in = new MarkableFileInputStreamFactory(
-            new File("C:\\JDeveloper\\mywork\\MYChatTest\\ViewController\\public_html\\models\\contract_ner_train.txt"));
+        InputStreamFactory in = new MarkableFileInputStreamFactory(new File(trainingFile));
         
         ObjectStream<String> lineStream = new PlainTextByLineStream(in, "UTF-8");
         ObjectStream<NameSample> sampleStream = new NameSampleDataStream(lineStream);
@@ -30,10 +41,10 @@ public class TrainContractNER {
         
         // Save the model
         try (OutputStream modelOut = new BufferedOutputStream(
-            new FileOutputStream("contract-ner-model.bin"))) {
+            new FileOutputStream(modelFile))) {
             model.serialize(modelOut);
         }
         
-        System.out.println("Model successfully trained and saved to contract-ner-model.bin");
+        System.out.println("Model successfully trained and saved to " + modelFile);
     }
 }
\ No newline at end of file
@@ -0,0 +1,453 @@
+package view.practice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import opennlp.tools.doccat.DoccatFactory;
+import opennlp.tools.doccat.DoccatModel;
+import opennlp.tools.doccat.DocumentCategorizer;
+import opennlp.tools.doccat.DocumentCategorizerME;
+import opennlp.tools.doccat.DocumentSample;
+import opennlp.tools.util.CollectionObjectStream;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Trains doccat models and cross-validates them, reporting accuracy, wall time and peak heap.
+ *
+ * MAXENT (GIS) and MAXENT_QN compute each training iteration on several threads when given a
+ * Threads parameter; other algorithms train on one thread. For k-fold cross-validation the
+ * samples are dealt round-robin per category into k folds, so every fold sees every category,
+ * and the folds train and score concurrently on a fork/join pool. Training threads are split
+ * between the folds running at once, so the total stays near the configured thread count.
+ *
+ * Peak heap is the sum of the heap pools' peak usage over the run, an upper bound on the real
+ * peak. The peaks are JVM-wide, so other work running at the same time is included, and runs that
+ * overlap share one measurement window instead of resetting each other's peaks.
+ */
+public class TrainingRunner {
+
+    private static final Set<String> MULTI_THREADED_ALGORITHMS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("MAXENT", "MAXENT_QN")));
+
+    private final String name;
+    private final String algorithm;
+    private final int iterations;
+    private final int cutoff;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    public TrainingRunner(String name, String algorithm, int iterations, int cutoff) {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.iterations = iterations;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * Training threads in total; only multi-threaded algorithms use more than one
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    public boolean isMultiThreaded() {
+        return MULTI_THREADED_ALGORITHMS.contains(algorithm);
+    }
+
+    public TrainingParameters createParameters(int trainingThreads) {
+        TrainingParameters params = new TrainingParameters();
+        params.put(TrainingParameters.ALGORITHM_PARAM, algorithm);
+        params.put(TrainingParameters.ITERATIONS_PARAM, iterations);
+        params.put(TrainingParameters.CUTOFF_PARAM, cutoff);
+        if (isMultiThreaded() && trainingThreads > 1) {
+            params.put(TrainingParameters.THREADS_PARAM, trainingThreads);
+        }
+        return params;
+    }
+
+    /**
+     * Drain a sample stream into a list so it can be trained on more than once
+     */
+    public static List<DocumentSample> readAll(ObjectStream<DocumentSample> stream) throws IOException {
+        List<DocumentSample> samples = new ArrayList<>();
+        DocumentSample sample;
+        while ((sample = stream.read()) != null) {
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    /**
+     * Train one model on all samples
+     */
+    public TrainingResult train(List<DocumentSample> samples) throws IOException {
+        return train(new CollectionObjectStream<>(samples));
+    }
+
+    /**
+     * Train one model straight from a stream, so the samples never have to be in memory at once
+     */
+    public TrainingResult train(ObjectStream<DocumentSample> samples) throws IOException {
+        CountingStream counted = new CountingStream(samples);
+        MemoryPeak memory = MemoryPeak.start();
+        long start = System.nanoTime();
+        DoccatModel model = trainModel(counted, threads);
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        return new TrainingResult(name, model, counted.count, isMultiThreaded() ? threads : 1, wallMillis,
+                                  memory.stop());
+    }
+
+    private DoccatModel trainModel(List<DocumentSample> samples, int trainingThreads) throws IOException {
+        return trainModel(new CollectionObjectStream<>(samples), trainingThreads);
+    }
+
+    private DoccatModel trainModel(ObjectStream<DocumentSample> samples, int trainingThreads) throws IOException {
+        return DocumentCategorizerME.train("en", samples, createParameters(trainingThreads), new DoccatFactory());
+    }
+
+    /**
+     * k-fold cross-validation with the folds running concurrently
+     */
+    public CrossValidationReport crossValidate(List<DocumentSample> samples, int folds) throws IOException {
+        if (folds < 2) {
+            throw new IllegalArgumentException("Cross-validation needs at least 2 folds");
+        }
+        if (samples.size() < folds) {
+            throw new IllegalArgumentException(samples.size() + " samples cannot be split into " + folds + " folds");
+        }
+
+        List<List<DocumentSample>> partitions = partition(samples, folds);
+        int parallelFolds = Math.min(folds, threads);
+        int foldThreads = Math.max(1, threads / parallelFolds);
+
+        MemoryPeak memory = MemoryPeak.start();
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelFolds);
+        try {
+            List<ForkJoinTask<FoldResult>> tasks = new ArrayList<>();
+            for (int fold = 0; fold < folds; fold++) {
+                int heldOut = fold;
+                tasks.add(pool.submit(() -> runFold(partitions, heldOut, foldThreads)));
+            }
+
+            List<FoldResult> results = new ArrayList<>();
+            for (ForkJoinTask<FoldResult> task : tasks) {
+                results.add(task.get());
+            }
+            long wallMillis = (System.nanoTime() - start) / 1_000_000;
+            return new CrossValidationReport(name, algorithm, results, isMultiThreaded() ? foldThreads : 1,
+                                             parallelFolds, wallMillis, memory.stop());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Cross-validation interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Cross-validation fold failed: " + cause, cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Deal the samples of each category round-robin into the folds
+     */
+    static List<List<DocumentSample>> partition(List<DocumentSample> samples, int folds) {
+        Map<String, List<DocumentSample>> byCategory = new LinkedHashMap<>();
+        for (DocumentSample sample : samples) {
+            byCategory.computeIfAbsent(sample.getCategory(), key -> new ArrayList<>()).add(sample);
+        }
+
+        List<List<DocumentSample>> partitions = new ArrayList<>(folds);
+        for (int i = 0; i < folds; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        // The counter carries over between categories so small categories do not all land in fold 0
+        int next = 0;
+        for (List<DocumentSample> category : byCategory.values()) {
+            for (DocumentSample sample : category) {
+                partitions.get(next).add(sample);
+                next = (next + 1) % folds;
+            }
+        }
+        return partitions;
+    }
+
+    private FoldResult runFold(List<List<DocumentSample>> partitions, int heldOut, int trainingThreads) {
+        List<DocumentSample> training = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            if (i != heldOut) {
+                training.addAll(partitions.get(i));
+            }
+        }
+        List<DocumentSample> test = partitions.get(heldOut);
+
+        long start = System.nanoTime();
+        DoccatModel model;
+        try {
+            model = trainModel(training, trainingThreads);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long trainMillis = (System.nanoTime() - start) / 1_000_000;
+        return new FoldResult(heldOut + 1, training.size(), test.size(), countCorrect(model, test), trainMillis);
+    }
+
+    /**
+     * Number of samples the model assigns to their own category
+     */
+    public static int countCorrect(DoccatModel model, List<DocumentSample> samples) {
+        DocumentCategorizer categorizer = new DocumentCategorizerME(model);
+        int correct = 0;
+        for (DocumentSample sample : samples) {
+            double[] outcomes = categorizer.categorize(sample.getText());
+            if (sample.getCategory().equals(categorizer.getBestCategory(outcomes))) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    /**
+     * Counts the samples of the first pass; the trainer may reset and read the stream again
+     */
+    private static final class CountingStream implements ObjectStream<DocumentSample> {
+        private final ObjectStream<DocumentSample> samples;
+        private int count;
+        private boolean counted;
+
+        CountingStream(ObjectStream<DocumentSample> samples) {
+            this.samples = samples;
+        }
+
+        @Override
+        public DocumentSample read() throws IOException {
+            DocumentSample sample = samples.read();
+            if (!counted) {
+                if (sample != null) {
+                    count++;
+                } else {
+                    counted = true;
+                }
+            }
+            return sample;
+        }
+
+        @Override
+        public void reset() throws IOException {
+            samples.reset();
+        }
+
+        @Override
+        public void close() throws IOException {
+            samples.close();
+        }
+    }
+
+    /**
+     * Heap pool peaks between start() and stop(). The pools are reset only when no other
+     * measurement is running, so an overlapping measurement reports the peak since the earliest
+     * one still open began.
+     */
+    static final class MemoryPeak {
+        private static int running; // guarded by MemoryPeak.class
+
+        private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        private boolean stopped;
+
+        static MemoryPeak start() {
+            MemoryPeak peak = new MemoryPeak();
+            synchronized (MemoryPeak.class) {
+                boolean reset = running++ == 0;
+                for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                    if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                        if (reset) {
+                            pool.resetPeakUsage();
+                        }
+                        peak.heapPools.add(pool);
+                    }
+                }
+            }
+            return peak;
+        }
+
+        long stop() {
+            long bytes = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                if (pool.isValid()) {
+                    bytes += pool.getPeakUsage().getUsed();
+                }
+            }
+            synchronized (MemoryPeak.class) {
+                if (!stopped) {
+                    stopped = true;
+                    running--;
+                }
+            }
+            return bytes;
+        }
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    public static final class TrainingResult {
+        private final String name;
+        private final DoccatModel model;
+        private final int sampleCount;
+        private final int threads;
+        private final long wallMillis;
+        private final long peakHeapBytes;
+
+        private TrainingResult(String name, DoccatModel model, int sampleCount, int threads, long wallMillis,
+                               long peakHeapBytes) {
+            this.name = name;
+            this.model = model;
+            this.sampleCount = sampleCount;
+            this.threads = threads;
+            this.wallMillis = wallMillis;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        public DoccatModel getModel() {
+            return model;
+        }
+
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s model: %d samples trained in %d ms on %d thread(s), peak heap %s", name,
+                                 sampleCount, wallMillis, threads, megabytes(peakHeapBytes));
+        }
+    }
+
+    public static final class FoldResult {
+        private final int fold;
+        private final int trainingSize;
+        private final int testSize;
+        private final int correct;
+        private final long trainMillis;
+
+        private FoldResult(int fold, int trainingSize, int testSize, int correct, long trainMillis) {
+            this.fold = fold;
+            this.trainingSize = trainingSize;
+            this.testSize = testSize;
+            this.correct = correct;
+            this.trainMillis = trainMillis;
+        }
+
+        public int getFold() {
+            return fold;
+        }
+
+        public double getAccuracy() {
+            return testSize == 0 ? 0.0 : (double) correct / testSize;
+        }
+
+        public long getTrainMillis() {
+            return trainMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Fold %d: %d/%d correct (%.1f%%), trained on %d samples in %d ms", fold, correct,
+                                 testSize, getAccuracy() * 100, trainingSize, trainMillis);
+        }
+    }
+
+    public static final class CrossValidationReport {
+        private final String name;
+        private final String algorithm;
+        private final List<FoldResult> folds;
+        private final int threadsPerFold;
+        private final int parallelFolds;
+        private final long wallMillis;
+        private final long peakHeapBytes;
+
+        private CrossValidationReport(String name, String algorithm, List<FoldResult> folds, int threadsPerFold,
+                                      int parallelFolds, long wallMillis, long peakHeapBytes) {
+            this.name = name;
+            this.algorithm = algorithm;
+            this.folds = Collections.unmodifiableList(folds);
+            this.threadsPerFold = threadsPerFold;
+            this.parallelFolds = parallelFolds;
+            this.wallMillis = wallMillis;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        public List<FoldResult> getFolds() {
+            return folds;
+        }
+
+        public double getMeanAccuracy() {
+            double sum = 0.0;
+            for (FoldResult fold : folds) {
+                sum += fold.getAccuracy();
+            }
+            return sum / folds.size();
+        }
+
+        public double getAccuracyStdDev() {
+            double mean = getMeanAccuracy();
+            double sum = 0.0;
+            for (FoldResult fold : folds) {
+                sum += (fold.getAccuracy() - mean) * (fold.getAccuracy() - mean);
+            }
+            return Math.sqrt(sum / folds.size());
+        }
+
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("=== %s %d-fold cross-validation (%s) ===\n", name, folds.size(), algorithm));
+            long trainMillis = 0;
+            for (FoldResult fold : folds) {
+                report.append(fold).append("\n");
+                trainMillis += fold.getTrainMillis();
+            }
+            report.append(String.format("Accuracy: %.1f%% +/- %.1f%%\n", getMeanAccuracy() * 100,
+                                        getAccuracyStdDev() * 100));
+            report.append(String.format("Wall time: %d ms (%d ms of fold training, %d folds at once, %d thread(s) each)\n",
+                                        wallMillis, trainMillis, parallelFolds, threadsPerFold));
+            report.append("Peak heap: ").append(megabytes(peakHeapBytes));
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package view.practice;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import opennlp.tools.doccat.DocumentSample;
+import opennlp.tools.util.ObjectStream;
+
+/**
+ * Generates misspelled variants of seed phrases for training data augmentation.
+ *
+ * Each word of a seed phrase is independently, at the configured rates, replaced by a known
+ * abbreviation, has one letter swapped for a neighbouring key on a QWERTY keyboard, has two
+ * adjacent letters transposed, or loses a letter. Words shorter than three letters and words
+ * containing digits (contract and part numbers) are left alone.
+ *
+ * Sample n is a pure function of the seed and n - its random generator is seeded from both - so
+ * the output is the same for any thread count. stream() generates fixed-size batches in parallel,
+ * the next batch while the current one is read, so at most two batches are in memory however
+ * many samples are generated.
+ */
+public class TypoAugmenter {
+
+    /**
+     * Line formats for writeTo()
+     */
+    public enum LineFormat {
+        /** "category word word ...", read by DocumentSampleStream */
+        DOCCAT,
+        /** "word word ...\tcategory", written by HelpTrainingDataGenerator */
+        TEXT_TAB_CATEGORY
+    }
+
+    private static final int BATCH_SIZE = 8192;
+
+    private static final String[] KEYBOARD_ROWS = { "qwertyuiop", "asdfghjkl", "zxcvbnm" };
+    private static final char[][] NEIGHBOURS = new char[26][];
+
+    // Same-row keys either side, plus the two touching keys of the staggered rows above and below
+    static {
+        for (int row = 0; row < KEYBOARD_ROWS.length; row++) {
+            String keys = KEYBOARD_ROWS[row];
+            for (int col = 0; col < keys.length(); col++) {
+                StringBuilder near = new StringBuilder();
+                appendKeys(near, row, col - 1, col + 1);
+                appendKeys(near, row - 1, col, col + 1);
+                appendKeys(near, row + 1, col - 1, col);
+                NEIGHBOURS[keys.charAt(col) - 'a'] = near.toString().toCharArray();
+            }
+        }
+    }
+
+    private static void appendKeys(StringBuilder near, int row, int... cols) {
+        if (row < 0 || row >= KEYBOARD_ROWS.length) {
+            return;
+        }
+        for (int col : cols) {
+            if (col >= 0 && col < KEYBOARD_ROWS[row].length()) {
+                near.append(KEYBOARD_ROWS[row].charAt(col));
+            }
+        }
+    }
+
+    private static final String[][] DEFAULT_ABBREVIATIONS = {
+        { "contract", "cntrct", "contrct" }, { "contracts", "cntrcts" }, { "number", "no", "num" },
+        { "information", "info" }, { "details", "dtls", "detail" }, { "message", "msg" },
+        { "messages", "msgs" }, { "customer", "cust" }, { "account", "acct", "acc" }, { "please", "pls", "plz" },
+        { "parts", "pts", "prts" }, { "part", "pt" }, { "create", "creat" }, { "help", "hlp" },
+        { "how", "hw" }, { "with", "w/" }, { "without", "w/o" }, { "status", "stat" },
+        { "expiration", "exp", "expiry" }, { "validation", "valid" }, { "report", "rpt" },
+        { "quantity", "qty" }, { "you", "u" }, { "are", "r" }, { "what", "wat" }, { "show", "shw" }
+    };
+
+    private final long seed;
+    private final List<String> categories = new ArrayList<>();
+    private final List<String[]> phrases = new ArrayList<>();
+    private final Map<String, String[]> abbreviations = new HashMap<>();
+
+    private int variantsPerPhrase = 10;
+    private boolean includeOriginal = true;
+    private double abbreviationRate = 0.05;
+    private double substitutionRate = 0.05;
+    private double transpositionRate = 0.03;
+    private double deletionRate = 0.03;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public TypoAugmenter(long seed) {
+        this.seed = seed;
+        for (String[] entry : DEFAULT_ABBREVIATIONS) {
+            String[] shortForms = new String[entry.length - 1];
+            System.arraycopy(entry, 1, shortForms, 0, shortForms.length);
+            abbreviations.put(entry[0], shortForms);
+        }
+    }
+
+    public TypoAugmenter addPhrase(String category, String... tokens) {
+        categories.add(category);
+        phrases.add(tokens.clone());
+        return this;
+    }
+
+    public TypoAugmenter addPhrases(String category, String... phrases) {
+        for (String phrase : phrases) {
+            addPhrase(category, phrase.trim().split("\\s+"));
+        }
+        return this;
+    }
+
+    public TypoAugmenter addSamples(List<DocumentSample> samples) {
+        for (DocumentSample sample : samples) {
+            addPhrase(sample.getCategory(), sample.getText());
+        }
+        return this;
+    }
+
+    /**
+     * Short forms used for word; replaces the built-in ones for that word
+     */
+    public TypoAugmenter addAbbreviation(String word, String... shortForms) {
+        abbreviations.put(word, shortForms.clone());
+        return this;
+    }
+
+    /**
+     * Samples generated per seed phrase, the unchanged phrase included when includeOriginal is set
+     */
+    public void setVariantsPerPhrase(int variantsPerPhrase) {
+        if (variantsPerPhrase < 1) {
+            throw new IllegalArgumentException("At least one variant per phrase");
+        }
+        this.variantsPerPhrase = variantsPerPhrase;
+    }
+
+    public void setIncludeOriginal(boolean includeOriginal) {
+        this.includeOriginal = includeOriginal;
+    }
+
+    /**
+     * Per-word probabilities of each kind of typo
+     */
+    public void setRates(double abbreviation, double substitution, double transposition, double deletion) {
+        this.abbreviationRate = checkRate(abbreviation);
+        this.substitutionRate = checkRate(substitution);
+        this.transpositionRate = checkRate(transposition);
+        this.deletionRate = checkRate(deletion);
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public long getSampleCount() {
+        return (long) phrases.size() * variantsPerPhrase;
+    }
+
+    /**
+     * Sample number n of the generated sequence
+     */
+    public DocumentSample generate(long n) {
+        int phrase = (int) (n / variantsPerPhrase);
+        int variant = (int) (n % variantsPerPhrase);
+        String[] tokens = phrases.get(phrase);
+        if (includeOriginal && variant == 0) {
+            return new DocumentSample(categories.get(phrase), tokens);
+        }
+
+        SplittableRandom random = new SplittableRandom(mix(seed + n * 0x9e3779b97f4a7c15L));
+        String[] typed = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            typed[i] = misspell(tokens[i], random);
+        }
+        return new DocumentSample(categories.get(phrase), typed);
+    }
+
+    private String misspell(String word, SplittableRandom random) {
+        if (word.length() < 3 || hasDigit(word)) {
+            return word;
+        }
+        String[] shortForms = abbreviations.get(word.toLowerCase());
+        if (shortForms != null && random.nextDouble() < abbreviationRate) {
+            return shortForms[random.nextInt(shortForms.length)];
+        }
+
+        char[] chars = word.toCharArray();
+        int length = chars.length;
+        if (random.nextDouble() < substitutionRate) {
+            int at = random.nextInt(length);
+            char c = Character.toLowerCase(chars[at]);
+            if (c >= 'a' && c <= 'z') {
+                char[] near = NEIGHBOURS[c - 'a'];
+                char typo = near[random.nextInt(near.length)];
+                chars[at] = Character.isUpperCase(chars[at]) ? Character.toUpperCase(typo) : typo;
+            }
+        }
+        if (random.nextDouble() < transpositionRate) {
+            int at = random.nextInt(length - 1);
+            char swap = chars[at];
+            chars[at] = chars[at + 1];
+            chars[at + 1] = swap;
+        }
+        if (length > 3 && random.nextDouble() < deletionRate) {
+            int at = random.nextInt(length);
+            System.arraycopy(chars, at + 1, chars, at, length - at - 1);
+            length--;
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static boolean hasDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // SplitMix64 finalizer, so neighbouring sample numbers get unrelated generators
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * All generated samples in order, produced in parallel batches as they are read
+     */
+    public ObjectStream<DocumentSample> stream() {
+        return new AugmentedStream();
+    }
+
+    /**
+     * Write all generated samples, one per line
+     * @return number of lines written
+     */
+    public long writeTo(Writer out, LineFormat format) throws IOException {
+        long lines = 0;
+        try (ObjectStream<DocumentSample> samples = stream()) {
+            DocumentSample sample;
+            while ((sample = samples.read()) != null) {
+                String text = String.join(" ", sample.getText());
+                if (format == LineFormat.DOCCAT) {
+                    out.write(sample.getCategory() + " " + text + "\n");
+                } else {
+                    out.write(text + "\t" + sample.getCategory() + "\n");
+                }
+                lines++;
+            }
+        }
+        out.flush();
+        return lines;
+    }
+
+    public long writeTo(File file, LineFormat format) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (Writer out =
+             new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8),
+                                1 << 16)) {
+            return writeTo(out, format);
+        }
+    }
+
+    private final class AugmentedStream implements ObjectStream<DocumentSample> {
+        private final long total = getSampleCount();
+        private ForkJoinPool pool;
+        private DocumentSample[] batch = new DocumentSample[0];
+        private int position;
+        private long nextStart;
+        private ForkJoinTask<DocumentSample[]> pending;
+
+        @Override
+        public DocumentSample read() throws IOException {
+            if (position == batch.length) {
+                if (pending == null) {
+                    pending = submitNext();
+                    if (pending == null) {
+                        return null;
+                    }
+                }
+                try {
+                    batch = pending.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Typo augmentation interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IOException("Typo augmentation failed: " + e.getCause(), e.getCause());
+                }
+                position = 0;
+                // Generate the next batch while this one is read
+                pending = submitNext();
+            }
+            return batch[position++];
+        }
+
+        private ForkJoinTask<DocumentSample[]> submitNext() {
+            if (nextStart >= total) {
+                return null;
+            }
+            if (pool == null) {
+                pool = new ForkJoinPool(parallelism);
+            }
+            long start = nextStart;
+            int size = (int) Math.min(BATCH_SIZE, total - start);
+            nextStart += size;
+            return pool.submit(() -> {
+                DocumentSample[] next = new DocumentSample[size];
+                IntStream.range(0, size).parallel().forEach(i -> next[i] = generate(start + i));
+                return next;
+            });
+        }
+
+        @Override
+        public void reset() {
+            if (pending != null) {
+                pending.cancel(true);
+            }
+            pending = null;
+            batch = new DocumentSample[0];
+            position = 0;
+            nextStart = 0;
+        }
+
+        @Override
+        public void close() {
+            reset();
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+}
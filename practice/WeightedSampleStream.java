@@ -0,0 +1,131 @@
+package view.practice;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import opennlp.tools.doccat.DocumentSample;
+import opennlp.tools.doccat.DocumentSampleStream;
+import opennlp.tools.util.MarkableFileInputStreamFactory;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.PlainTextByLineStream;
+
+/**
+ * Up-weights training samples by replaying them instead of copying them.
+ *
+ * Each sample read from the underlying stream is returned weight times in a row - the same
+ * reference, nothing is copied or buffered - where weight is the category weight (default 1)
+ * times the optional per-sample weight. A weight of 0 drops the sample. The trainer sees the
+ * same events as with duplicated samples, while memory holds at most one sample of this stream.
+ *
+ * reset() resets the underlying stream, so file-backed streams (see fromFile) are re-read from
+ * disk on every training pass.
+ */
+public class WeightedSampleStream implements ObjectStream<DocumentSample> {
+
+    private final ObjectStream<DocumentSample> samples;
+    private final Map<String, Integer> categoryWeights;
+    private final ToIntFunction<DocumentSample> sampleWeight;
+
+    private DocumentSample current;
+    private int remaining;
+
+    // Metrics for the current pass
+    private long samplesRead;
+    private long samplesReturned;
+
+    public WeightedSampleStream(ObjectStream<DocumentSample> samples, Map<String, Integer> categoryWeights) {
+        this(samples, categoryWeights, null);
+    }
+
+    /**
+     * @param sampleWeight weight of each sample on top of its category weight; null for 1
+     */
+    public WeightedSampleStream(ObjectStream<DocumentSample> samples, Map<String, Integer> categoryWeights,
+                                ToIntFunction<DocumentSample> sampleWeight) {
+        for (Map.Entry<String, Integer> entry : categoryWeights.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight for category " + entry.getKey());
+            }
+        }
+        this.samples = samples;
+        this.categoryWeights = Collections.unmodifiableMap(new HashMap<>(categoryWeights));
+        this.sampleWeight = sampleWeight;
+    }
+
+    /**
+     * Samples in doccat training format (category, then the text) read line by line from disk
+     */
+    public static ObjectStream<DocumentSample> fromFile(File file) throws IOException {
+        MarkableFileInputStreamFactory lines = new MarkableFileInputStreamFactory(file);
+        return new DocumentSampleStream(new PlainTextByLineStream(lines, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Samples of a file with category weights applied while reading
+     */
+    public static WeightedSampleStream fromFile(File file, Map<String, Integer> categoryWeights) throws IOException {
+        return new WeightedSampleStream(fromFile(file), categoryWeights);
+    }
+
+    @Override
+    public DocumentSample read() throws IOException {
+        while (remaining == 0) {
+            current = samples.read();
+            if (current == null) {
+                return null;
+            }
+            samplesRead++;
+            remaining = weightOf(current);
+        }
+        remaining--;
+        samplesReturned++;
+        return current;
+    }
+
+    private int weightOf(DocumentSample sample) {
+        int weight = categoryWeights.getOrDefault(sample.getCategory(), 1);
+        if (sampleWeight != null) {
+            int extra = sampleWeight.applyAsInt(sample);
+            if (extra < 0) {
+                throw new IllegalArgumentException("Negative weight for sample " + sample);
+            }
+            weight *= extra;
+        }
+        return weight;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        samples.reset();
+        current = null;
+        remaining = 0;
+        samplesRead = 0;
+        samplesReturned = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        samples.close();
+    }
+
+    /**
+     * Distinct samples read from the underlying stream in this pass
+     */
+    public long getSamplesRead() {
+        return samplesRead;
+    }
+
+    /**
+     * Samples returned in this pass, replays included
+     */
+    public long getSamplesReturned() {
+        return samplesReturned;
+    }
+}